@@ -0,0 +1,23 @@
+@echo off
+rem Startar SecondHandProject från den skuggade jar-filen.
+rem Finns ett AppCDS-arkiv (mvn -Pcds package) används det för snabbare kallstart.
+rem
+rem Användning: bin\secondhand.cmd [argument till org.example.Main]
+
+setlocal
+set "DIR=%~dp0.."
+set "JAR=%DIR%\target\SecondHandProject.jar"
+set "JSA=%DIR%\target\SecondHandProject.jsa"
+set "JAVA=java"
+if defined JAVA_HOME set "JAVA=%JAVA_HOME%\bin\java"
+
+if not exist "%JAR%" (
+    echo Hittar inte %JAR%, kör först: mvn package 1>&2
+    exit /b 1
+)
+
+if exist "%JSA%" (
+    "%JAVA%" -XX:SharedArchiveFile="%JSA%" -Xshare:auto %JAVA_OPTS% -jar "%JAR%" %*
+) else (
+    "%JAVA%" %JAVA_OPTS% -jar "%JAR%" %*
+)
@@ -0,0 +1,21 @@
+#!/bin/sh
+# Startar SecondHandProject från den skuggade jar-filen.
+# Finns ett AppCDS-arkiv (mvn -Pcds package) används det för snabbare kallstart.
+#
+# Användning: bin/secondhand.sh [argument till org.example.Main]
+
+DIR="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$DIR/target/SecondHandProject.jar"
+JSA="$DIR/target/SecondHandProject.jsa"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+if [ ! -f "$JAR" ]; then
+    echo "Hittar inte $JAR, kör först: mvn package" >&2
+    exit 1
+fi
+
+if [ -f "$JSA" ]; then
+    # -Xshare:auto faller tillbaka till vanlig klassladdning om arkivet inte passar JVM:en
+    exec "$JAVA" -XX:SharedArchiveFile="$JSA" -Xshare:auto $JAVA_OPTS -jar "$JAR" "$@"
+fi
+exec "$JAVA" $JAVA_OPTS -jar "$JAR" "$@"
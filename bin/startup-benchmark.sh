@@ -0,0 +1,45 @@
+#!/bin/sh
+# Mäter kallstart av Main med och utan AppCDS-arkivet.
+# Varje körning startar den vanliga interaktiva menyn precis som bin/secondhand.sh,
+# väljer "visa kunder" och avslutar. Tiderna läses ur StartupTimer-loggningen
+# ("menu shown" och "first query", millisekunder sedan JVM:en startade);
+# skriptet visar medelvärdet.
+#
+# Användning: bin/startup-benchmark.sh [antal körningar, standard 10]
+# Kräver: mvn -Pcds package
+
+DIR="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$DIR/target/SecondHandProject.jar"
+JSA="$DIR/target/SecondHandProject.jsa"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+RUNS="${1:-10}"
+
+if [ ! -f "$JAR" ] || [ ! -f "$JSA" ]; then
+    echo "Hittar inte $JAR eller $JSA, kör först: mvn -Pcds package" >&2
+    exit 1
+fi
+
+measure() {
+    label="$1"
+    shift
+    i=0
+    out=""
+    while [ "$i" -lt "$RUNS" ]; do
+        # 2 = visa kunder, 18 = avsluta; loggningen går till stderr
+        out="$out
+$(printf '2\n18\n' | "$JAVA" "$@" $JAVA_OPTS -jar "$JAR" 2>&1 >/dev/null | grep 'Startup: ')"
+        i=$((i + 1))
+    done
+    echo "$out" | awk -v label="$label" '
+        /Startup: menu shown after/ { menu += $(NF - 1); m++ }
+        /Startup: first query after/ { query += $(NF - 1); q++ }
+        END {
+            printf "%-10s time-to-menu %6.0f ms", label, m ? menu / m : 0
+            if (q) printf ", time-to-first-query %6.0f ms", query / q
+            else printf ", time-to-first-query n/a (no database)"
+            printf " (%d runs)\n", m
+        }'
+}
+
+measure "utan CDS" -Xshare:auto
+measure "med CDS" -XX:SharedArchiveFile="$JSA" -Xshare:auto
@@ -16,6 +16,8 @@ import java.util.logging.Logger;
 public class App extends Application {
     private static final Logger logger = Logger.getLogger(App.class.getName());
 
+    private final ChangeLogPoller changeLogPoller = new ChangeLogPoller();
+
     @Override
     public void start(Stage primaryStage) {
         try {
@@ -24,6 +26,9 @@ public class App extends Application {
                 throw new RuntimeException("JavaFX runtime components are missing. Please ensure JavaFX is on the module path.");
             }
 
+            // Visa sparad ögonblicksbild direkt om databasen inte hunnit svara
+            OfflineMode.get().start();
+
             // Ladda main.fxml från resurser
             FXMLLoader fxmlLoader = new FXMLLoader(App.class.getResource("/org/example/main.fxml"));
             if (fxmlLoader.getLocation() == null) {
@@ -31,10 +36,22 @@ public class App extends Application {
             }
 
             Scene scene = new Scene(fxmlLoader.load(), 800, 600);
+            MainController mainController = fxmlLoader.getController();
             primaryStage.setTitle("SecondHand Project");
             primaryStage.setScene(scene);
             primaryStage.setResizable(true); // Gör fönstret skalbart
+
+            // Förladda övriga flikar först när dashboarden har ritats
+            scene.addPostLayoutPulseListener(new Runnable() {
+                @Override
+                public void run() {
+                    scene.removePostLayoutPulseListener(this);
+                    StartupTimer.mark("first frame");
+                    mainController.preloadTabs();
+                }
+            });
             primaryStage.show();
+            changeLogPoller.start();
             logger.info("Application started successfully with main.fxml loaded");
         } catch (IOException e) {
             logger.severe("Failed to load main.fxml: " + e.getMessage() + "\nStacktrace: " + getStackTrace(e));
@@ -47,6 +64,13 @@ public class App extends Application {
         }
     }
 
+    @Override
+    public void stop() {
+        changeLogPoller.stop();
+        OrderSubmissionQueue.shutdownShared();
+        OfflineMode.get().stop();
+    }
+
     /**
      * Kontrollerar om JavaFX är tillgängligt i körningsmiljön.
      *
@@ -0,0 +1,272 @@
+package org.example;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Non-interactive commands for scripting, started as {@code Main <command> [options]}.
+ * <p>
+ * Each command works on whole sets of rows with batched DAO calls over pooled connections,
+ * instead of one prompt and one connection per row as in the interactive menu.
+ */
+final class BatchCommands {
+    private static final Logger logger = Logger.getLogger(BatchCommands.class.getName());
+
+    static final String USAGE = """
+            Usage: <command> [options]
+              add-furniture --file items.csv
+              order-value --ids 1,2,3 [--include-archived]
+              delete-customers --ids 1,2,3 [--chunk-size N]
+              revenue-report [--month YYYY-MM] [--out file.csv] [--include-archived]
+              export --table furniture|customers|order-history --out file [--format csv|binary] [--include-archived]
+              pick-list [--date YYYY-MM-DD]
+              find-duplicate-customers
+              merge-customers --keep ID --duplicate ID
+            """;
+
+    private BatchCommands() {
+    }
+
+    /**
+     * Runs the command named by {@code args[0]}.
+     *
+     * @return The process exit code: 0 on success, 1 on errors, 2 on invalid usage.
+     */
+    static int run(String[] args) {
+        try {
+            switch (args[0]) {
+                case "add-furniture" -> addFurniture(options(args, Set.of("file"), Set.of()));
+                case "order-value" -> orderValue(options(args, Set.of("ids"), Set.of("include-archived")));
+                case "delete-customers" -> deleteCustomers(options(args, Set.of("ids", "chunk-size"), Set.of()));
+                case "revenue-report" -> revenueReport(options(args, Set.of("month", "out"), Set.of("include-archived")));
+                case "export" -> export(options(args, Set.of("table", "out", "format"), Set.of("include-archived")));
+                case "pick-list" -> pickList(options(args, Set.of("date"), Set.of()));
+                case "find-duplicate-customers" -> findDuplicateCustomers(options(args, Set.of(), Set.of()));
+                case "merge-customers" -> mergeCustomers(options(args, Set.of("keep", "duplicate"), Set.of()));
+                default -> {
+                    System.out.println("Unknown command: " + args[0]);
+                    System.out.print(USAGE);
+                    return 2;
+                }
+            }
+            return 0;
+        } catch (UsageException e) {
+            System.out.println(e.getMessage());
+            System.out.print(USAGE);
+            return 2;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            logger.log(Level.SEVERE, "Command " + args[0] + " failed", e);
+            return 1;
+        }
+    }
+
+    /**
+     * Reads furniture items from a CSV file (see {@link FurnitureCsv}) and inserts them in one batch.
+     */
+    private static void addFurniture(Map<String, String> options) throws Exception {
+        Path file = Path.of(required(options, "file"));
+        List<Furniture> items = FurnitureCsv.read(file);
+        long start = System.nanoTime();
+        List<Long> ids = new FurnitureDao().addFurnitureBatch(items);
+        System.out.printf("Added %d furniture items from %s in %.0f ms%n",
+                ids.size(), file, (System.nanoTime() - start) / 1e6);
+        if (!ids.isEmpty()) {
+            System.out.println("IDs " + ids.get(0) + ".." + ids.get(ids.size() - 1));
+        }
+    }
+
+    /**
+     * Prints the total value of each order with one grouped query.
+     */
+    private static void orderValue(Map<String, String> options) {
+        List<Long> ids = parseIds(required(options, "ids"));
+        Map<Long, Double> totals = new OrderDao().getTotalOrderValues(ids, options.containsKey("include-archived"));
+        for (long id : ids) {
+            Double total = totals.get(id);
+            System.out.println(total == null
+                    ? "Order " + id + ": not found or no order lines"
+                    : String.format("Order %d: %.2f", id, total));
+        }
+    }
+
+    /**
+     * Deletes customers together with their orders, in chunks.
+     */
+    private static void deleteCustomers(Map<String, String> options) {
+        List<Long> ids = parseIds(required(options, "ids"));
+        int chunkSize = options.containsKey("chunk-size")
+                ? parsePositiveInt("chunk-size", options.get("chunk-size"))
+                : OrderPurger.DEFAULT_CHUNK_SIZE;
+        int deleted = new CustomerDao().deleteCustomers(ids, chunkSize,
+                progress -> System.out.println("Deleting orders... " + progress));
+        System.out.println("Deleted " + deleted + " of " + ids.size() + " customers.");
+    }
+
+    /**
+     * Writes the revenue report for one month (default: the previous month) to a CSV file.
+     */
+    private static void revenueReport(Map<String, String> options) throws Exception {
+        YearMonth month;
+        try {
+            month = options.containsKey("month") ? YearMonth.parse(options.get("month")) : YearMonth.now().minusMonths(1);
+        } catch (DateTimeParseException e) {
+            throw new UsageException("Invalid --month, expected YYYY-MM: " + options.get("month"));
+        }
+        Path out = Path.of(options.getOrDefault("out", "revenue-" + month + ".csv"));
+        RevenueReport report = new ReportEngine()
+                .writeMonthlyRevenueCsv(month, options.containsKey("include-archived"), out);
+        System.out.printf("Revenue report for %s written to %s (total revenue %.2f)%n",
+                month, out.toAbsolutePath(), report.totalRevenue());
+    }
+
+    /**
+     * Streams a whole table to a CSV or binary file.
+     */
+    private static void export(Map<String, String> options) throws Exception {
+        TableExporter.Table table;
+        TableExporter.Format format;
+        try {
+            table = TableExporter.Table.parse(required(options, "table"));
+            format = TableExporter.Format.parse(options.getOrDefault("format", "csv"));
+        } catch (IllegalArgumentException e) {
+            throw new UsageException("Invalid --table or --format: " + e.getMessage());
+        }
+        Path out = Path.of(required(options, "out"));
+        long start = System.nanoTime();
+        long rows = new TableExporter().export(table, format, out, options.containsKey("include-archived"));
+        System.out.printf("Exported %d rows to %s in %.0f ms%n", rows, out.toAbsolutePath(), (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Prints the pick list for one day's orders (default: today), one stop per shelf in walking order.
+     */
+    private static void pickList(Map<String, String> options) {
+        LocalDate date;
+        try {
+            date = options.containsKey("date") ? LocalDate.parse(options.get("date")) : LocalDate.now();
+        } catch (DateTimeParseException e) {
+            throw new UsageException("Invalid --date, expected YYYY-MM-DD: " + options.get("date"));
+        }
+        long start = System.nanoTime();
+        PickList list = new PickListGenerator().forDate(date);
+        System.out.printf("Pick list for %s: %d orders, %d lines, %d shelves (%.0f ms)%n", date,
+                list.orderCount(), list.lineCount(), list.stops().size(), (System.nanoTime() - start) / 1e6);
+        for (PickList.Stop stop : list.stops()) {
+            System.out.printf("Shelf %d (%d picks, %.1f kg)%n", stop.shelf(), stop.picks().size(), stop.totalWeight());
+            for (PickList.Pick pick : stop.picks()) {
+                System.out.printf("  order %d: %s x%d (furniture %d)%n",
+                        pick.orderId(), pick.furnitureName(), pick.quantity(), pick.furnitureId());
+            }
+        }
+    }
+
+    /**
+     * Lists likely duplicate customers found by {@link CustomerDedup}, most similar first.
+     */
+    private static void findDuplicateCustomers(Map<String, String> options) {
+        long start = System.nanoTime();
+        List<DuplicateCandidate> duplicates = CustomerDedup.get().findAllDuplicates();
+        System.out.printf("Found %d likely duplicate pairs (%.0f ms)%n", duplicates.size(), (System.nanoTime() - start) / 1e6);
+        for (DuplicateCandidate candidate : duplicates) {
+            System.out.printf("%.2f  %s%n      %s%n", candidate.score(), candidate.customer(), candidate.duplicate());
+        }
+    }
+
+    /**
+     * Moves the duplicate customer's orders to the kept customer and deletes the duplicate.
+     */
+    private static void mergeCustomers(Map<String, String> options) {
+        long keepId = parseId("keep", required(options, "keep"));
+        long duplicateId = parseId("duplicate", required(options, "duplicate"));
+        int moved = new CustomerDao().mergeCustomers(keepId, duplicateId);
+        System.out.println("Merged customer " + duplicateId + " into " + keepId + ", " + moved + " orders moved.");
+    }
+
+    /**
+     * Parses {@code --name value} options and {@code --flag} switches after the command name.
+     */
+    private static Map<String, String> options(String[] args, Set<String> valued, Set<String> flags) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            String name = arg.startsWith("--") ? arg.substring(2) : null;
+            if (name != null && flags.contains(name)) {
+                options.put(name, "true");
+            } else if (name != null && valued.contains(name)) {
+                if (i + 1 >= args.length) {
+                    throw new UsageException("Missing value for " + arg);
+                }
+                options.put(name, args[++i]);
+            } else {
+                throw new UsageException("Unknown option for " + args[0] + ": " + arg);
+            }
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null || value.isBlank()) {
+            throw new UsageException("Missing required option --" + name);
+        }
+        return value;
+    }
+
+    private static List<Long> parseIds(String value) {
+        List<Long> ids = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                try {
+                    ids.add(Long.parseLong(part.trim()));
+                } catch (NumberFormatException e) {
+                    throw new UsageException("Invalid ID: " + part.trim());
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new UsageException("No IDs given");
+        }
+        return ids;
+    }
+
+    private static long parseId(String name, String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new UsageException("Invalid --" + name + " ID: " + value);
+        }
+    }
+
+    private static int parsePositiveInt(String name, String value) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n > 0) {
+                return n;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new UsageException("--" + name + " must be a positive integer: " + value);
+    }
+
+    /**
+     * Invalid command line; reported together with the usage text.
+     */
+    private static final class UsageException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        UsageException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads sections written by {@link BinaryExportWriter} from a buffer, typically a memory-mapped file.
+ * Several sections may follow each other in one buffer.
+ * <p>
+ * Usage: {@link #nextSection()}, then while {@link #nextRow()} one read method per column in column order.
+ */
+final class BinaryExportReader {
+    private final ByteBuffer buffer;
+    private String table;
+    private String[] columns;
+    private ExportWriter.ColumnType[] types;
+    private boolean inSection;
+
+    BinaryExportReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Reads the next section header.
+     *
+     * @return false if the buffer has no more sections.
+     * @throws IllegalStateException if the data is not in the expected format.
+     */
+    boolean nextSection() {
+        if (inSection) {
+            // Skipping unread rows is not supported; callers read sections to the end.
+            throw new IllegalStateException("Previous section " + table + " was not read to the end");
+        }
+        if (!buffer.hasRemaining()) {
+            return false;
+        }
+        for (byte b : BinaryExportWriter.MAGIC) {
+            if (buffer.get() != b) {
+                throw new IllegalStateException("Not an export section at byte " + (buffer.position() - 1));
+            }
+        }
+        byte version = buffer.get();
+        if (version != BinaryExportWriter.VERSION) {
+            throw new IllegalStateException("Unsupported export version " + version);
+        }
+        table = readString();
+        int count = (int) readVarint();
+        columns = new String[count];
+        types = new ExportWriter.ColumnType[count];
+        ExportWriter.ColumnType[] all = ExportWriter.ColumnType.values();
+        for (int i = 0; i < count; i++) {
+            types[i] = all[buffer.get()];
+            columns[i] = readString();
+        }
+        inSection = true;
+        return true;
+    }
+
+    String table() {
+        return table;
+    }
+
+    String[] columns() {
+        return columns;
+    }
+
+    /**
+     * Moves to the next row of the current section.
+     *
+     * @return false at the end of the section; the trailer has then been consumed.
+     */
+    boolean nextRow() {
+        if (buffer.get() == 1) {
+            return true;
+        }
+        buffer.getLong(); // row count
+        inSection = false;
+        return false;
+    }
+
+    long readLong() {
+        long zigzag = readVarint();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    double readDouble() {
+        return buffer.getDouble();
+    }
+
+    /**
+     * Reads a date as days since 1970-01-01, or {@code Integer.MIN_VALUE} for null.
+     */
+    long readDate() {
+        return buffer.getInt();
+    }
+
+    /**
+     * Reads a string, or null.
+     */
+    String readString() {
+        int length = (int) readVarint() - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readVarint() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
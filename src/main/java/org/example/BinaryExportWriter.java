@@ -0,0 +1,111 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes an export in a compact binary format:
+ * <pre>
+ * header  "SHEX", version byte 1, table name, column count (varint),
+ *         then per column a type byte ({@link ColumnType#ordinal()}) and the column name
+ * row     byte 1, then the fields in column order
+ * trailer byte 0, row count (8 bytes)
+ * </pre>
+ * LONG is a zigzag varint, DOUBLE 8 bytes IEEE 754, DATE 4 bytes days since 1970-01-01, and STRING a varint
+ * of (UTF-8 length + 1) followed by the bytes. Nulls are STRING length 0, LONG {@code Long.MIN_VALUE},
+ * DOUBLE NaN and DATE {@code Integer.MIN_VALUE}. Multi-byte numbers are big-endian.
+ */
+final class BinaryExportWriter extends ExportWriter {
+    static final byte[] MAGIC = {'S', 'H', 'E', 'X'};
+    static final byte VERSION = 1;
+
+    BinaryExportWriter(FileChannel channel) {
+        super(channel);
+    }
+
+    @Override
+    void begin(String table, String[] columns, ColumnType[] types) throws IOException {
+        ensure(MAGIC.length + 1);
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        putString(table);
+        ensure(5);
+        putVarint(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            ensure(1);
+            buffer.put((byte) types[i].ordinal());
+            putString(columns[i]);
+        }
+        startRow();
+    }
+
+    @Override
+    void writeLong(long value) throws IOException {
+        ensure(10);
+        putVarint((value << 1) ^ (value >> 63));
+    }
+
+    @Override
+    void writeDouble(double value) throws IOException {
+        ensure(8);
+        buffer.putDouble(value);
+    }
+
+    @Override
+    void writeDate(long epochDay) throws IOException {
+        ensure(4);
+        buffer.putInt((int) epochDay);
+    }
+
+    @Override
+    void writeString(String value) throws IOException {
+        putString(value);
+    }
+
+    @Override
+    void writeNull(ColumnType type) throws IOException {
+        switch (type) {
+            case LONG -> writeLong(Long.MIN_VALUE);
+            case DOUBLE -> writeDouble(Double.NaN);
+            case DATE -> writeDate(Integer.MIN_VALUE);
+            case STRING -> {
+                ensure(1);
+                buffer.put((byte) 0);
+            }
+        }
+    }
+
+    @Override
+    void endRow() throws IOException {
+        super.endRow();
+        startRow();
+    }
+
+    @Override
+    void finish() throws IOException {
+        // Every row is preceded by a 1 byte; the byte that would start the next row becomes the end marker.
+        buffer.put(buffer.position() - 1, (byte) 0);
+        ensure(8);
+        buffer.putLong(rowCount());
+        super.finish();
+    }
+
+    private void startRow() throws IOException {
+        ensure(1);
+        buffer.put((byte) 1);
+    }
+
+    private void putString(String value) throws IOException {
+        ensure(5);
+        putVarint(utf8Length(value) + 1L);
+        putUtf8(value);
+    }
+
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
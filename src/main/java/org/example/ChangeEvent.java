@@ -0,0 +1,32 @@
+package org.example;
+
+/**
+ * Beskriver en committad ändring av en entitet.
+ *
+ * @param type       Typ av ändring.
+ * @param entityType Entitetens klass, t.ex. {@code Customer.class}.
+ * @param id         Entitetens ID.
+ * @param entity     Entiteten efter ändringen, null vid {@link ChangeType#DELETE}.
+ */
+public record ChangeEvent<T>(ChangeType type, Class<T> entityType, long id, T entity) {
+    public ChangeEvent {
+        if (type == null || entityType == null) {
+            throw new IllegalArgumentException("Change type and entity type cannot be null");
+        }
+        if (type != ChangeType.DELETE && entity == null) {
+            throw new IllegalArgumentException("Entity cannot be null for " + type);
+        }
+    }
+
+    public static <T> ChangeEvent<T> added(Class<T> entityType, long id, T entity) {
+        return new ChangeEvent<>(ChangeType.ADD, entityType, id, entity);
+    }
+
+    public static <T> ChangeEvent<T> updated(Class<T> entityType, long id, T entity) {
+        return new ChangeEvent<>(ChangeType.UPDATE, entityType, id, entity);
+    }
+
+    public static <T> ChangeEvent<T> deleted(Class<T> entityType, long id) {
+        return new ChangeEvent<>(ChangeType.DELETE, entityType, id, null);
+    }
+}
@@ -0,0 +1,55 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes rows to the change_log outbox table.
+ * <p>
+ * Every DAO mutation calls {@link #record} on its own connection before committing, so the change-log row
+ * is committed atomically with the data change. Other clients poll the table with {@link ChangeLogPoller}.
+ */
+final class ChangeLog {
+    /**
+     * Identifies this client process, so the poller can skip changes it already published locally.
+     */
+    static final String ORIGIN = UUID.randomUUID().toString();
+
+    private static final String INSERT_SQL =
+            "INSERT INTO change_log (table_name, entity_id, change_type, origin) VALUES (?, ?, ?, ?)";
+
+    private ChangeLog() {
+    }
+
+    /**
+     * Records one change in the current transaction of {@code conn}.
+     *
+     * @param conn      The connection of the ongoing transaction.
+     * @param tableName The changed table, e.g. "customer".
+     * @param entityId  The id of the changed row.
+     * @param type      The kind of change.
+     */
+    static void record(Connection conn, String tableName, long entityId, ChangeType type) throws SQLException {
+        recordAll(conn, tableName, List.of(entityId), type);
+    }
+
+    /**
+     * Records the same kind of change for several rows in the current transaction of {@code conn}.
+     */
+    static void recordAll(Connection conn, String tableName, List<Long> entityIds, ChangeType type) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            for (long entityId : entityIds) {
+                stmt.setString(1, tableName);
+                stmt.setLong(2, entityId);
+                stmt.setString(3, type.name());
+                stmt.setString(4, ORIGIN);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        DBConnection.recordWrite();
+    }
+}
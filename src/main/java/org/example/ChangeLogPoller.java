@@ -0,0 +1,281 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Background poller that brings changes made by other clients into this one.
+ * <p>
+ * Every {@code changelog.pollMillis} ms it reads the change_log rows with an id greater than the last one seen,
+ * skips changes made by this process (already published locally), re-reads each changed row once and publishes
+ * it on {@link DataChangeBus}. Views and caches therefore patch themselves incrementally instead of polling
+ * whole tables. Old change_log rows are pruned after {@code changelog.retentionHours}.
+ * <p>
+ * Ids are handed out when a change is inserted, not when it commits, so the poller can read id 12 while id 11
+ * is still uncommitted. Skipped ids are kept as gaps and re-read on every poll until they appear or
+ * {@code changelog.gapTimeoutSeconds} has passed (longer than any write transaction should run), so such a
+ * change still reaches this client, only one poll later.
+ */
+public class ChangeLogPoller {
+    private static final Logger logger = Logger.getLogger(ChangeLogPoller.class.getName());
+    private static final int BATCH_SIZE = 500;
+    private static final int PRUNE_EVERY_POLLS = 100;
+    private static final int MAX_GAPS = 10_000;
+
+    private record Change(long id, String tableName, long entityId, ChangeType type, String origin) {
+    }
+
+    private final long pollMillis;
+    private final int retentionHours;
+    private final long gapTimeoutMillis;
+    private final CustomerDao customerDao = new CustomerDao();
+    private final EmployeeDao employeeDao = new EmployeeDao();
+    private final FurnitureDao furnitureDao = new FurnitureDao();
+    private final OrderDao orderDao = new OrderDao();
+
+    private ScheduledExecutorService scheduler;
+    private long lastSeenId = -1;
+    /**
+     * Ids below {@link #lastSeenId} that were missing when a higher id was read, with the time to give up on them.
+     * AUTO_INCREMENT ids are assigned at insert, not at commit, so a longer transaction can commit a lower id
+     * after a higher one has already been read.
+     */
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+    private int pollsSincePrune;
+
+    public ChangeLogPoller() {
+        this(DBConnection.getIntProperty("changelog.pollMillis", 2000),
+                DBConnection.getIntProperty("changelog.retentionHours", 24),
+                DBConnection.getIntProperty("changelog.gapTimeoutSeconds", 120));
+    }
+
+    public ChangeLogPoller(long pollMillis, int retentionHours) {
+        this(pollMillis, retentionHours, 120);
+    }
+
+    public ChangeLogPoller(long pollMillis, int retentionHours, int gapTimeoutSeconds) {
+        this.pollMillis = pollMillis;
+        this.retentionHours = retentionHours;
+        this.gapTimeoutMillis = gapTimeoutSeconds * 1000L;
+    }
+
+    /**
+     * Starts polling on a daemon thread. Changes committed before the first poll are not replayed.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "change-log-poller");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollSafely, 0, pollMillis, TimeUnit.MILLISECONDS);
+        logger.info("Change log polling started every " + pollMillis + " ms");
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            // The database may be temporarily unreachable; try again on the next tick.
+            logger.log(Level.WARNING, "Change log poll failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fetches and publishes all changes after the last seen id.
+     */
+    void poll() {
+        if (lastSeenId < 0) {
+            lastSeenId = maxChangeId();
+            return;
+        }
+        if (!gaps.isEmpty()) {
+            pollGaps();
+        }
+        List<Change> batch;
+        do {
+            batch = fetchChangesAfter(lastSeenId);
+            if (batch.isEmpty()) {
+                break;
+            }
+            long deadline = System.currentTimeMillis() + gapTimeoutMillis;
+            for (Change change : batch) {
+                for (long missing = lastSeenId + 1; missing < change.id(); missing++) {
+                    addGap(missing, deadline);
+                }
+                lastSeenId = change.id();
+            }
+            apply(batch);
+        } while (batch.size() == BATCH_SIZE);
+
+        if (++pollsSincePrune >= PRUNE_EVERY_POLLS) {
+            pollsSincePrune = 0;
+            prune();
+        }
+    }
+
+    /**
+     * Re-reads the ids skipped so far; ids that are now committed are applied, and ids still missing after
+     * {@code changelog.gapTimeoutSeconds} are given up (their transaction rolled back or the id was never used).
+     */
+    private void pollGaps() {
+        List<Change> filled = new ArrayList<>();
+        for (List<Long> ids : OrderPurger.partition(new ArrayList<>(gaps.keySet()), BATCH_SIZE)) {
+            filled.addAll(fetchChanges(ids));
+        }
+        if (!filled.isEmpty()) {
+            filled.forEach(change -> gaps.remove(change.id()));
+            logger.fine("Applying " + filled.size() + " late-committed changes");
+            apply(filled);
+        }
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(deadline -> deadline < now);
+    }
+
+    private void addGap(long id, long deadline) {
+        if (gaps.size() >= MAX_GAPS) {
+            // Ids may legitimately never appear (rolled-back inserts); drop the oldest rather than grow unbounded
+            Iterator<Long> oldest = gaps.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        gaps.put(id, deadline);
+    }
+
+    /**
+     * Invalidates the query cache and publishes the re-read rows for a batch of changes.
+     */
+    private void apply(List<Change> batch) {
+        // Several changes of the same row in one batch only need one re-read.
+        Map<String, Change> latest = new LinkedHashMap<>();
+        Set<String> invalidated = new HashSet<>();
+        for (Change change : batch) {
+            // Own changes too: they were committed by now, after the writer's own invalidation.
+            if (invalidated.add(change.tableName() + ':' + change.type())) {
+                QueryCache.get().invalidate(change.tableName(), change.type());
+            }
+            if (!change.origin().equals(ChangeLog.ORIGIN)) {
+                String key = change.tableName() + ':' + change.entityId();
+                latest.remove(key);
+                latest.put(key, change);
+            }
+        }
+        latest.values().forEach(this::publish);
+    }
+
+    private void publish(Change change) {
+        switch (change.tableName()) {
+            case "customer" -> publish(Customer.class, change, customerDao::getCustomerById);
+            case "employee" -> publish(Employee.class, change, employeeDao::getEmployeeById);
+            case "furniture" -> publish(Furniture.class, change, furnitureDao::getFurnitureById);
+            case "order_head" -> publish(OrderHead.class, change, orderDao::getOrderById);
+            default -> logger.fine("Ignoring change of unknown table " + change.tableName());
+        }
+    }
+
+    private <T> void publish(Class<T> entityType, Change change, LongFunction<T> loader) {
+        if (change.type() == ChangeType.DELETE) {
+            DataChangeBus.get().publish(ChangeEvent.deleted(entityType, change.entityId()));
+            return;
+        }
+        T entity = loader.apply(change.entityId());
+        if (entity == null) {
+            // Deleted again after the logged change.
+            DataChangeBus.get().publish(ChangeEvent.deleted(entityType, change.entityId()));
+        } else {
+            DataChangeBus.get().publish(new ChangeEvent<>(change.type(), entityType, change.entityId(), entity));
+        }
+    }
+
+    private long maxChangeId() {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM change_log");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not read change log: " + e.getMessage(), e);
+        }
+    }
+
+    private List<Change> fetchChangesAfter(long afterId) {
+        String sql = "SELECT id, table_name, entity_id, change_type, origin FROM change_log WHERE id > ? ORDER BY id LIMIT ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, afterId);
+            stmt.setInt(2, BATCH_SIZE);
+            return readChanges(stmt);
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not read change log: " + e.getMessage(), e);
+        }
+    }
+
+    private List<Change> fetchChanges(List<Long> ids) {
+        String sql = "SELECT id, table_name, entity_id, change_type, origin FROM change_log WHERE id IN ("
+                + OrderPurger.placeholders(ids.size()) + ") ORDER BY id";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setLong(i + 1, ids.get(i));
+            }
+            return readChanges(stmt);
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not read change log: " + e.getMessage(), e);
+        }
+    }
+
+    private static List<Change> readChanges(PreparedStatement stmt) throws SQLException {
+        List<Change> changes = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                changes.add(new Change(
+                        rs.getLong("id"),
+                        rs.getString("table_name"),
+                        rs.getLong("entity_id"),
+                        ChangeType.valueOf(rs.getString("change_type")),
+                        rs.getString("origin")
+                ));
+            }
+        }
+        return changes;
+    }
+
+    private void prune() {
+        String sql = "DELETE FROM change_log WHERE changed_at < NOW() - INTERVAL ? HOUR LIMIT 1000";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, retentionHours);
+            int deleted = stmt.executeUpdate();
+            if (deleted > 0) {
+                logger.fine("Pruned " + deleted + " change log rows");
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Could not prune change log", e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.example;
+
+/**
+ * Typ av ändring som en DAO har gjort i databasen.
+ */
+public enum ChangeType {
+    ADD, UPDATE, DELETE
+}
@@ -0,0 +1,208 @@
+package org.example;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * En enkel pool med återanvändbara databasanslutningar.
+ * <p>
+ * {@link #borrow(Workload)} returnerar en proxy vars {@code close()} lämnar tillbaka anslutningen till poolen i stället
+ * för att stänga den, så DAO:ernas try-with-resources fungerar oförändrat. Öppna transaktioner rullas tillbaka
+ * och auto-commit återställs innan anslutningen återanvänds. Högst {@code maxSize} anslutningar är utlånade
+ * samtidigt.
+ * <p>
+ * Varje {@link Workload} har dessutom en egen kvot och väntetid ({@link Quota}) med en egen rättvis kö, så en
+ * klass som har fyllt sin kvot köar bara mot sig själv och lämnar resten av poolen åt de andra.
+ */
+final class ConnectionPool {
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+    // Lediga anslutningar som legat längre än så kontrolleras innan de lånas ut.
+    private static final long VALIDATE_AFTER_MILLIS = 30_000;
+
+    private record Idle(Connection connection, long since) {
+    }
+
+    /**
+     * En arbetsklass kvot av anslutningar och hur länge den väntar på en anslutning.
+     */
+    record Quota(int maxConnections, long timeoutMillis) {
+    }
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final boolean readOnly;
+    private final Semaphore permits;
+    private final Map<Workload, Quota> quotas;
+    private final Map<Workload, Semaphore> lanes = new EnumMap<>(Workload.class);
+    private final LinkedBlockingDeque<Idle> idle = new LinkedBlockingDeque<>();
+    private volatile boolean closed;
+
+    /**
+     * @param quotas   Kvot per arbetsklass; kvoter större än {@code maxSize} begränsas till {@code maxSize}.
+     * @param readOnly Om nya anslutningar ska markeras skrivskyddade, t.ex. mot en läsreplik.
+     */
+    ConnectionPool(String url, String username, String password, int maxSize, Map<Workload, Quota> quotas,
+                   boolean readOnly) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize måste vara större än 0");
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.readOnly = readOnly;
+        this.permits = new Semaphore(maxSize, true);
+        this.quotas = new EnumMap<>(quotas);
+        for (Workload workload : Workload.values()) {
+            Quota quota = quotas.get(workload);
+            if (quota == null || quota.maxConnections() <= 0) {
+                throw new IllegalArgumentException("Kvoten för " + workload + " måste vara större än 0");
+            }
+            lanes.put(workload, new Semaphore(Math.min(quota.maxConnections(), maxSize), true));
+        }
+    }
+
+    /**
+     * Lånar en anslutning inom arbetsklassens kvot. Den lämnas tillbaka när den stängs.
+     *
+     * @throws SQLException om ingen anslutning blir ledig inom klassens väntetid eller om en ny inte kan öppnas.
+     */
+    Connection borrow(Workload workload) throws SQLException {
+        if (closed) {
+            throw new SQLException("Anslutningspoolen är stängd");
+        }
+        long timeoutMillis = quotas.get(workload).timeoutMillis();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Semaphore lane = lanes.get(workload);
+        acquire(lane, deadline, workload, timeoutMillis);
+        try {
+            acquire(permits, deadline, workload, timeoutMillis);
+        } catch (SQLException e) {
+            lane.release();
+            throw e;
+        }
+        try {
+            return wrap(takeIdleOrOpen(), lane);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            lane.release();
+            throw e;
+        }
+    }
+
+    private static void acquire(Semaphore semaphore, long deadline, Workload workload, long timeoutMillis)
+            throws SQLException {
+        try {
+            if (!semaphore.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw new SQLException("Ingen ledig databasanslutning för " + workload + " inom " + timeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Avbruten i väntan på databasanslutning", e);
+        }
+    }
+
+    /**
+     * Stänger alla lediga anslutningar. Utlånade anslutningar stängs när de lämnas tillbaka.
+     */
+    void close() {
+        closed = true;
+        Idle entry;
+        while ((entry = idle.pollFirst()) != null) {
+            closeQuietly(entry.connection());
+        }
+    }
+
+    private Connection takeIdleOrOpen() throws SQLException {
+        Idle entry;
+        while ((entry = idle.pollFirst()) != null) {
+            Connection conn = entry.connection();
+            if (System.currentTimeMillis() - entry.since() < VALIDATE_AFTER_MILLIS || conn.isValid(2)) {
+                return conn;
+            }
+            closeQuietly(conn);
+        }
+        Connection conn = DriverManager.getConnection(url, username, password);
+        if (readOnly) {
+            conn.setReadOnly(true);
+        }
+        logger.info("Ny databasanslutning etablerad: " + url);
+        return conn;
+    }
+
+    private void giveBack(Connection conn, Semaphore lane) {
+        try {
+            if (closed || conn.isClosed()) {
+                closeQuietly(conn);
+                return;
+            }
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+            conn.clearWarnings();
+            // Senast använda först, så sällan använda anslutningar hinner bli gamla och kontrolleras.
+            idle.offerFirst(new Idle(conn, System.currentTimeMillis()));
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Kasserar databasanslutning som inte kunde återställas", e);
+            closeQuietly(conn);
+        } finally {
+            permits.release();
+            lane.release();
+        }
+    }
+
+    private Connection wrap(Connection conn, Semaphore lane) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean returned;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (!returned) {
+                            returned = true;
+                            giveBack(conn, lane);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return returned || conn.isClosed();
+                    }
+                    default -> {
+                        if (returned) {
+                            throw new SQLException("Anslutningen är redan stängd");
+                        }
+                        try {
+                            return method.invoke(conn, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Kunde inte stänga databasanslutning", e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+
+/**
+ * Writes an export as UTF-8 CSV with a header line. Numbers and dates are encoded digit by digit into the
+ * buffer; decimals with at most two fraction digits (prices, weights) are written with exactly two.
+ */
+final class CsvExportWriter extends ExportWriter {
+    // Longest value written without going through putUtf8: "-9223372036854775808" plus separator.
+    private static final int MAX_NUMBER_BYTES = 32;
+
+    private boolean firstInRow = true;
+
+    CsvExportWriter(FileChannel channel) {
+        super(channel);
+    }
+
+    @Override
+    void begin(String table, String[] columns, ColumnType[] types) throws IOException {
+        for (String column : columns) {
+            writeString(column);
+        }
+        endRowSeparator();
+    }
+
+    @Override
+    void writeLong(long value) throws IOException {
+        separator();
+        ensure(MAX_NUMBER_BYTES);
+        putDigits(value);
+    }
+
+    @Override
+    void writeDouble(double value) throws IOException {
+        separator();
+        long cents = Math.round(value * 100);
+        if (Math.abs(value) < 1e15 && cents / 100.0 == value) {
+            ensure(MAX_NUMBER_BYTES);
+            if (cents < 0) {
+                buffer.put((byte) '-');
+                cents = -cents;
+            }
+            putDigits(cents / 100);
+            buffer.put((byte) '.');
+            buffer.put((byte) ('0' + cents % 100 / 10));
+            buffer.put((byte) ('0' + cents % 10));
+        } else {
+            putUtf8(Double.toString(value));
+        }
+    }
+
+    @Override
+    void writeDate(long epochDay) throws IOException {
+        separator();
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        ensure(MAX_NUMBER_BYTES);
+        putPadded(date.getYear(), 4);
+        buffer.put((byte) '-');
+        putPadded(date.getMonthValue(), 2);
+        buffer.put((byte) '-');
+        putPadded(date.getDayOfMonth(), 2);
+    }
+
+    @Override
+    void writeString(String value) throws IOException {
+        separator();
+        if (!needsQuotes(value)) {
+            putUtf8(value);
+            return;
+        }
+        ensure(1);
+        buffer.put((byte) '"');
+        int start = 0;
+        for (int i = value.indexOf('"'); i >= 0; i = value.indexOf('"', i + 1)) {
+            putUtf8(value.subSequence(start, i + 1));
+            start = i;
+        }
+        putUtf8(value.subSequence(start, value.length()));
+        ensure(1);
+        buffer.put((byte) '"');
+    }
+
+    @Override
+    void writeNull(ColumnType type) throws IOException {
+        separator();
+    }
+
+    @Override
+    void endRow() throws IOException {
+        endRowSeparator();
+        super.endRow();
+    }
+
+    private void endRowSeparator() throws IOException {
+        ensure(1);
+        buffer.put((byte) '\n');
+        firstInRow = true;
+    }
+
+    private void separator() throws IOException {
+        if (firstInRow) {
+            firstInRow = false;
+        } else {
+            ensure(1);
+            buffer.put((byte) ',');
+        }
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void putDigits(long value) {
+        if (value == Long.MIN_VALUE) {
+            for (char c : "-9223372036854775808".toCharArray()) {
+                buffer.put((byte) c);
+            }
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    private void putPadded(int value, int width) {
+        int divisor = 1;
+        for (int i = 1; i < width; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + value / divisor % 10));
+        }
+    }
+}
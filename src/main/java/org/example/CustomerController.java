@@ -1,9 +1,9 @@
 package org.example;
 
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -11,13 +11,22 @@ import javafx.scene.input.MouseEvent;
 
 import java.net.URL;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 public class CustomerController implements Initializable {
 
     private static final Logger logger = Logger.getLogger(CustomerController.class.getName());
+    // En delad tråd för köphistorik, så att snabba kundbyten inte startar en tråd per val.
+    private static final ExecutorService historyLoader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "customer-history");
+        t.setDaemon(true);
+        return t;
+    });
 
     @FXML private TextField idField;
     @FXML private TextField firstNameField;
@@ -35,11 +44,39 @@ public class CustomerController implements Initializable {
     @FXML private TableColumn<Customer, LocalDate> birthDateColumn;
     @FXML private TableColumn<Customer, String> cityColumn;
     @FXML private TableColumn<Customer, String> postalCodeColumn;
+    @FXML private Label customerStatsLabel;
+    @FXML private TableView<OrderDetail> historyTable;
+    @FXML private TableColumn<OrderDetail, Long> historyOrderIdColumn;
+    @FXML private TableColumn<OrderDetail, LocalDate> historyOrderDateColumn;
+    @FXML private TableColumn<OrderDetail, String> historyFurnitureColumn;
+    @FXML private TableColumn<OrderDetail, Integer> historyQuantityColumn;
+    @FXML private TableColumn<OrderDetail, Double> historyPriceColumn;
     @FXML private Label feedbackLabel;
+    @FXML private Button addButton;
+    @FXML private Button updateButton;
+    @FXML private Button deleteButton;
+    @FXML private Button showByIdButton;
 
     private final CustomerDao customerDao = new CustomerDao();
-    private final ObservableList<Customer> customerList = FXCollections.observableArrayList();
-    private FilteredList<Customer> filteredCustomerList;
+    private final OrderDao orderDao = new OrderDao();
+    private final ObservableList<OrderDetail> historyList = FXCollections.observableArrayList();
+    // Ökas för varje historikhämtning, så att ett sent svar för en tidigare vald kund ignoreras.
+    private volatile long historyRequest;
+    private final PagedList<Customer> customerList = new PagedList<>(OfflineMode.withFallback(new PagedList.PageSource<>() {
+        @Override
+        public int count(String filter) {
+            return customerDao.countCustomers(filter);
+        }
+
+        @Override
+        public List<Customer> fetch(String filter, int offset, int limit) {
+            return customerDao.getCustomerPage(filter, offset, limit);
+        }
+    }, OfflineSnapshot::customers, (c, filter) ->
+            c.firstName().toLowerCase().contains(filter) ||
+                    c.lastName().toLowerCase().contains(filter) ||
+                    c.city().toLowerCase().contains(filter)), Customer::id,
+            new Customer(0, "Laddar…", "…", "…", LocalDate.EPOCH, "…", "…"));
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -52,17 +89,45 @@ public class CustomerController implements Initializable {
         cityColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().city()));
         postalCodeColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().postalCode()));
 
-        // Setup filtered list for search
-        filteredCustomerList = new FilteredList<>(customerList, p -> true);
-        customerTable.setItems(filteredCustomerList);
+        // Rows are paged from the database in ID order, so client-side sorting is disabled
+        customerTable.getColumns().forEach(column -> column.setSortable(false));
+        customerTable.setItems(customerList);
+
+        // Setup purchase history table
+        historyOrderIdColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().orderId()));
+        historyOrderDateColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().orderDate()));
+        historyFurnitureColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().furnitureName()));
+        historyQuantityColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().quantity()));
+        historyPriceColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().price()));
+        historyTable.setItems(historyList);
 
         // Load initial data
         reloadTable();
 
+        // Apply row-level changes published by the DAOs instead of reloading the table
+        DataChangeBus.get().subscribe(Customer.class, OfflineMode.whenLive(customerList::apply));
+
+        // Read-only while the offline snapshot is shown, and lookups by ID need the database;
+        // reload from the database once it is reachable
+        for (Button button : List.of(addButton, updateButton, deleteButton, showByIdButton)) {
+            button.disableProperty().bind(OfflineMode.get().offlineProperty());
+        }
+        OfflineMode.get().offlineProperty().addListener((obs, wasOffline, offline) -> {
+            if (!offline) {
+                reloadTable();
+                CustomerDedup.loadInBackground();
+            }
+        });
+
+        // Dubblettkontroll vid inmatning; indexet laddas i bakgrunden och kontrollen hoppas över tills det är klart
+        if (!OfflineMode.get().isOffline()) {
+            CustomerDedup.loadInBackground();
+        }
+
         // Table row click handler
         customerTable.setOnMouseClicked((MouseEvent me) -> {
             Customer sel = customerTable.getSelectionModel().getSelectedItem();
-            if (sel != null) {
+            if (sel != null && !customerList.isPlaceholder(sel)) {
                 idField.setText(String.valueOf(sel.id()));
                 firstNameField.setText(sel.firstName());
                 lastNameField.setText(sel.lastName());
@@ -71,26 +136,26 @@ public class CustomerController implements Initializable {
                 cityField.setText(sel.city());
                 postalCodeField.setText(sel.postalCode());
                 feedbackLabel.setText("");
+                showPurchaseHistory(sel.id());
             }
         });
 
         // Real-time validation
-        firstNameField.textProperty().addListener((o, old, nw) -> validate(firstNameField, "[A-Za-zÅÄÖåäö ]+"));
-        lastNameField.textProperty().addListener((o, old, nw) -> validate(lastNameField, "[A-Za-zÅÄÖåäö ]+"));
-        addressField.textProperty().addListener((o, old, nw) -> validate(addressField, ".+"));
-        cityField.textProperty().addListener((o, old, nw) -> validate(cityField, "[A-Za-zÅÄÖåäö ]+"));
-        postalCodeField.textProperty().addListener((o, old, nw) -> validate(postalCodeField, "\\d{5}"));
+        firstNameField.textProperty().addListener((o, old, nw) -> validate(firstNameField, FieldRule.NAME));
+        lastNameField.textProperty().addListener((o, old, nw) -> validate(lastNameField, FieldRule.NAME));
+        addressField.textProperty().addListener((o, old, nw) -> validate(addressField, FieldRule.NOT_BLANK));
+        cityField.textProperty().addListener((o, old, nw) -> validate(cityField, FieldRule.NAME));
+        postalCodeField.textProperty().addListener((o, old, nw) -> validate(postalCodeField, FieldRule.POSTAL_CODE));
 
-        // Filter field listener
+        // Filter field listener, the filter is applied by the database
         filterField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredCustomerList.setPredicate(customer -> {
-                if (newValue == null || newValue.trim().isEmpty()) {
-                    return true;
+            customerTable.setItems(customerList);
+            customerList.setFilter(newValue).whenComplete((count, e) -> {
+                if (e != null) {
+                    feedbackLabel.setText("Kunde inte filtrera kunder: " + e.getMessage());
+                    feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
+                    logger.severe(e.toString());
                 }
-                String lowerCaseFilter = newValue.toLowerCase();
-                return customer.firstName().toLowerCase().contains(lowerCaseFilter) ||
-                        customer.lastName().toLowerCase().contains(lowerCaseFilter) ||
-                        customer.city().toLowerCase().contains(lowerCaseFilter);
             });
         });
     }
@@ -108,10 +173,14 @@ public class CustomerController implements Initializable {
                     cityField.getText().trim(),
                     postalCodeField.getText().trim()
             );
+            if (!confirmNotDuplicate(c)) {
+                feedbackLabel.setText("Kunden lades inte till.");
+                feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
+                return;
+            }
             customerDao.addCustomer(c);
             feedbackLabel.setText("Kund tillagd!");
             feedbackLabel.setStyle("-fx-text-fill: #388e3c;"); // feedback-success
-            reloadTable();
             clearForm();
         } catch (Exception e) {
             feedbackLabel.setText("Fel: " + e.getMessage());
@@ -120,6 +189,27 @@ public class CustomerController implements Initializable {
         }
     }
 
+    /**
+     * Frågar om kunden ska läggas till ändå när den liknar befintliga kunder.
+     *
+     * @return true om inga troliga dubbletter finns eller användaren bekräftar.
+     */
+    private boolean confirmNotDuplicate(Customer c) {
+        CustomerDedup dedup = CustomerDedup.getIfLoaded();
+        if (dedup == null) return true;
+        List<DuplicateCandidate> matches = dedup.findMatches(c);
+        if (matches.isEmpty()) return true;
+
+        StringBuilder text = new StringBuilder();
+        for (DuplicateCandidate match : matches.subList(0, Math.min(5, matches.size()))) {
+            text.append(match.customer()).append('\n');
+        }
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION, text.toString(), ButtonType.OK, ButtonType.CANCEL);
+        alert.setTitle("Möjlig dubblett");
+        alert.setHeaderText("Kunden liknar befintliga kunder. Lägg till ändå?");
+        return alert.showAndWait().filter(ButtonType.OK::equals).isPresent();
+    }
+
     @FXML
     private void showAllCustomers() {
         reloadTable();
@@ -145,7 +235,6 @@ public class CustomerController implements Initializable {
             customerDao.updateCustomer(c);
             feedbackLabel.setText("Kund uppdaterad!");
             feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
-            reloadTable();
             clearForm();
         } catch (NumberFormatException ex) {
             feedbackLabel.setText("Ogiltigt ID.");
@@ -164,7 +253,6 @@ public class CustomerController implements Initializable {
             customerDao.deleteCustomer(id);
             feedbackLabel.setText("Kund borttagen!");
             feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
-            reloadTable();
             clearForm();
         } catch (NumberFormatException ex) {
             feedbackLabel.setText("Ogiltigt ID.");
@@ -187,7 +275,7 @@ public class CustomerController implements Initializable {
                 long id = Long.parseLong(customerId);
                 Customer c = customerDao.getCustomerById(id);
                 if (c != null) {
-                    customerList.setAll(c);
+                    customerTable.setItems(FXCollections.observableArrayList(c));
                     feedbackLabel.setText("Visar kund: " + c.firstName() + " " + c.lastName());
                     feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
                     idField.setText(String.valueOf(c.id()));
@@ -197,6 +285,7 @@ public class CustomerController implements Initializable {
                     birthDatePicker.setValue(c.birthDate());
                     cityField.setText(c.city());
                     postalCodeField.setText(c.postalCode());
+                    showPurchaseHistory(c.id());
                 } else {
                     feedbackLabel.setText("Ingen kund med ID " + id + " hittades.");
                     feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
@@ -223,10 +312,10 @@ public class CustomerController implements Initializable {
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return false;
         }
-        if (!Pattern.matches("[A-Za-zÅÄÖåäö ]+", firstNameField.getText().trim()) ||
-                !Pattern.matches("[A-Za-zÅÄÖåäö ]+", lastNameField.getText().trim()) ||
-                !Pattern.matches("[A-Za-zÅÄÖåäö ]+", cityField.getText().trim()) ||
-                !Pattern.matches("\\d{5}", postalCodeField.getText().trim())) {
+        if (!FieldRule.NAME.test(firstNameField.getText().trim()) ||
+                !FieldRule.NAME.test(lastNameField.getText().trim()) ||
+                !FieldRule.NAME.test(cityField.getText().trim()) ||
+                !FieldRule.POSTAL_CODE.test(postalCodeField.getText().trim())) {
             feedbackLabel.setText("Ogiltigt format i ett eller flera fält.");
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return false;
@@ -235,16 +324,65 @@ public class CustomerController implements Initializable {
     }
 
     private void reloadTable() {
-        try {
-            customerList.setAll(customerDao.getAllCustomers());
-        } catch (Exception e) {
-            feedbackLabel.setText("Kunde inte ladda kunder: " + e.getMessage());
-            feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
-            logger.severe(e.toString());
+        customerTable.setItems(customerList);
+        customerList.refresh().whenComplete((count, e) -> {
+            if (e != null) {
+                feedbackLabel.setText("Kunde inte ladda kunder: " + e.getMessage());
+                feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
+                logger.severe(e.toString());
+            }
+        });
+    }
+
+    /**
+     * Visar kundens köphistorik och nyckeltal. Ordrarna (inklusive arkiverade) och nyckeltalen hämtas i
+     * {@link #historyLoader}; svar för en kund som inte längre är vald ignoreras.
+     */
+    private void showPurchaseHistory(long customerId) {
+        historyList.clear();
+        long request = ++historyRequest;
+        if (OfflineMode.get().isOffline()) {
+            // Ögonblicksbilden innehåller bara de senaste ordrarna, så historiken skulle bli ofullständig
+            customerStatsLabel.setText("Köphistorik visas inte i offlineläge.");
+            return;
         }
+        customerStatsLabel.setText("Hämtar köphistorik...");
+        historyLoader.execute(() -> {
+            if (request != historyRequest) {
+                // En annan kund har valts medan hämtningen låg i kö
+                return;
+            }
+            try {
+                List<OrderSummary> orders = orderDao.listOrderSummariesForCustomer(customerId, true);
+                List<OrderDetail> rows = new ArrayList<>();
+                for (OrderSummary order : orders) {
+                    rows.addAll(order.toDetails());
+                }
+                CustomerStats stats = customerDao.getCustomerStats(customerId, true);
+                Platform.runLater(() -> {
+                    if (request != historyRequest) return;
+                    historyList.setAll(rows);
+                    customerStatsLabel.setText(stats.orderCount() == 0
+                            ? "Inga ordrar."
+                            : String.format("%d ordrar, totalt %.2f kr, senaste köp %s",
+                            stats.orderCount(), stats.lifetimeValue(), stats.lastPurchase()));
+                });
+            } catch (Exception e) {
+                logger.severe(e.toString());
+                Platform.runLater(() -> {
+                    if (request != historyRequest) return;
+                    customerStatsLabel.setText("");
+                    feedbackLabel.setText("Kunde inte hämta köphistorik: " + e.getMessage());
+                    feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
+                });
+            }
+        });
     }
 
     private void clearForm() {
+        historyRequest++;
+        historyList.clear();
+        customerStatsLabel.setText("");
         idField.clear();
         firstNameField.clear();
         lastNameField.clear();
@@ -255,8 +393,8 @@ public class CustomerController implements Initializable {
         feedbackLabel.setText("");
     }
 
-    private void validate(TextField tf, String regex) {
-        if (tf.getText().trim().isEmpty() || Pattern.matches(regex, tf.getText().trim())) {
+    private void validate(TextField tf, FieldRule rule) {
+        if (tf.getText().trim().isEmpty() || rule.test(tf.getText().trim())) {
             tf.setStyle("");
         } else {
             tf.setStyle("-fx-border-color: red;");
@@ -2,29 +2,37 @@ package org.example;
 
 import java.io.IOException;
 import java.sql.*;
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 /**
  * Data Access Object (DAO) för kundhantering.
  */
 public class CustomerDao {
     private static final Logger logger = Logger.getLogger(CustomerDao.class.getName());
-    private static final Pattern POSTAL_CODE_PATTERN = Pattern.compile("\\d{5}");
+    private static final Set<String> STATS_TABLES = Set.of("customer", "furniture", "order_head", "order_line");
 
-    public void addCustomer(Customer customer) {
-        validateCustomerFields(customer);
+    /**
+     * Lägger till en kund och publicerar en {@link ChangeEvent} med kundens nya ID.
+     *
+     * @return Det genererade kund-ID:t.
+     */
+    public long addCustomer(Customer customer) {
+        Validator.CUSTOMER.validate(customer);
         String sql = """
             INSERT INTO customer
               (first_name, last_name, address, birth_date, city, postal_code)
             VALUES (?, ?, ?, ?, ?, ?)
             """;
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             conn.setAutoCommit(false);
@@ -40,8 +48,21 @@ public class CustomerDao {
                 if (affected != 1) {
                     throw new SQLException("Förväntade 1 rad, blev: " + affected);
                 }
+                long id;
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new SQLException("Kunde inte hämta genererat kund-ID.");
+                    }
+                    id = keys.getLong(1);
+                }
+                ChangeLog.record(conn, "customer", id, ChangeType.ADD);
                 conn.commit();
+                QueryCache.get().invalidate("customer", ChangeType.ADD);
                 logger.info("Kund tillagd: " + customer);
+                Customer added = new Customer(id, customer.firstName(), customer.lastName(), customer.address(),
+                        customer.birthDate(), customer.city(), customer.postalCode());
+                DataChangeBus.get().publish(ChangeEvent.added(Customer.class, id, added));
+                return id;
             } catch (SQLException | IllegalArgumentException e) {
                 conn.rollback();
                 logger.log(Level.SEVERE, "Misslyckades lägga till kund: " + customer, e);
@@ -60,19 +81,20 @@ public class CustomerDao {
               FROM customer
             """;
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection(Workload.REPORTING);
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
+            StringPool pool = StringPool.get();
             while (rs.next()) {
                 customers.add(new Customer(
                         rs.getLong("id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
+                        pool.intern(rs.getString("first_name")),
+                        pool.intern(rs.getString("last_name")),
                         rs.getString("address"),
                         rs.getDate("birth_date").toLocalDate(),
-                        rs.getString("city"),
-                        rs.getString("postal_code")
+                        pool.intern(rs.getString("city")),
+                        pool.intern(rs.getString("postal_code"))
                 ));
             }
         } catch (SQLException e) {
@@ -88,20 +110,21 @@ public class CustomerDao {
               FROM customer WHERE id = ?
             """;
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
+                StringPool pool = StringPool.get();
                 if (rs.next()) {
                     return new Customer(
                             rs.getLong("id"),
-                            rs.getString("first_name"),
-                            rs.getString("last_name"),
+                            pool.intern(rs.getString("first_name")),
+                            pool.intern(rs.getString("last_name")),
                             rs.getString("address"),
                             rs.getDate("birth_date").toLocalDate(),
-                            rs.getString("city"),
-                            rs.getString("postal_code")
+                            pool.intern(rs.getString("city")),
+                            pool.intern(rs.getString("postal_code"))
                     );
                 }
             }
@@ -112,9 +135,115 @@ public class CustomerDao {
         return null;
     }
 
+    /**
+     * Strömmar alla kunder, sorterade på ID, till {@code handler} utan att läsa in dem i minnet.
+     *
+     * @return Antal strömmade rader.
+     */
+    public long streamCustomers(RowHandler handler) {
+        String sql = """
+            SELECT id, first_name, last_name, address, birth_date, city, postal_code
+              FROM customer ORDER BY id
+            """;
+        long rows = 0;
+        try (Connection conn = DBConnection.getReadConnection(Workload.BULK);
+             PreparedStatement stmt = DBConnection.prepareStreaming(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                handler.handle(rs);
+                rows++;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Misslyckades strömma kunder", e);
+            throw new RuntimeException("Kunde inte hämta kunder: " + e.getMessage(), e);
+        }
+        return rows;
+    }
+
+    /**
+     * Räknar kunder vars förnamn, efternamn eller stad innehåller {@code filter}.
+     *
+     * @param filter Söktext, tom sträng matchar alla kunder.
+     */
+    public int countCustomers(String filter) {
+        String sql = "SELECT COUNT(*) FROM customer" + filterClause(filter);
+        try (Connection conn = DBConnection.getReadConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            bindFilter(stmt, filter);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Misslyckades räkna kunder", e);
+            throw new RuntimeException("Kunde inte räkna kunder: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hämtar en sida kunder sorterade på ID, för {@link PagedList}.
+     *
+     * @param filter Söktext, tom sträng matchar alla kunder.
+     * @param offset Antal rader att hoppa över.
+     * @param limit  Max antal rader.
+     */
+    public List<Customer> getCustomerPage(String filter, int offset, int limit) {
+        String sql = """
+            SELECT id, first_name, last_name, address, birth_date, city, postal_code
+              FROM customer""" + filterClause(filter) + " ORDER BY id LIMIT ? OFFSET ?";
+        List<Customer> customers = new ArrayList<>(limit);
+        try (Connection conn = DBConnection.getReadConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = bindFilter(stmt, filter);
+            stmt.setInt(i++, limit);
+            stmt.setInt(i, offset);
+            try (ResultSet rs = stmt.executeQuery()) {
+                StringPool pool = StringPool.get();
+                while (rs.next()) {
+                    customers.add(new Customer(
+                            rs.getLong("id"),
+                            pool.intern(rs.getString("first_name")),
+                            pool.intern(rs.getString("last_name")),
+                            rs.getString("address"),
+                            rs.getDate("birth_date").toLocalDate(),
+                            pool.intern(rs.getString("city")),
+                            pool.intern(rs.getString("postal_code"))
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Misslyckades hämta kundsida från rad " + offset, e);
+            throw new RuntimeException("Kunde inte hämta kunder: " + e.getMessage(), e);
+        }
+        return customers;
+    }
+
+    private static String filterClause(String filter) {
+        return filter == null || filter.isBlank()
+                ? ""
+                : " WHERE first_name LIKE ? OR last_name LIKE ? OR city LIKE ?";
+    }
+
+    /**
+     * Binder filterparametrarna och returnerar nästa lediga parameterindex.
+     */
+    private static int bindFilter(PreparedStatement stmt, String filter) throws SQLException {
+        if (filter == null || filter.isBlank()) {
+            return 1;
+        }
+        String pattern = "%" + filter.trim() + "%";
+        stmt.setString(1, pattern);
+        stmt.setString(2, pattern);
+        stmt.setString(3, pattern);
+        return 4;
+    }
+
     public void updateCustomer(Customer customer) {
+        Validator.CUSTOMER.validate(customer);
         validateCustomerExists(customer.id());
-        validateCustomerFields(customer);
         String sql = """
             UPDATE customer
                SET first_name  = ?,
@@ -126,7 +255,7 @@ public class CustomerDao {
              WHERE id = ?
             """;
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             conn.setAutoCommit(false);
@@ -143,8 +272,11 @@ public class CustomerDao {
                 if (rows != 1) {
                     throw new SQLException("Förväntade 1 uppdaterad rad, blev: " + rows);
                 }
+                ChangeLog.record(conn, "customer", customer.id(), ChangeType.UPDATE);
                 conn.commit();
+                QueryCache.get().invalidate("customer", ChangeType.UPDATE);
                 logger.info("Kund uppdaterad: " + customer);
+                DataChangeBus.get().publish(ChangeEvent.updated(Customer.class, customer.id(), customer));
             } catch (SQLException | IllegalArgumentException e) {
                 conn.rollback();
                 logger.log(Level.SEVERE, "Misslyckades uppdatera kund: " + customer, e);
@@ -162,7 +294,7 @@ public class CustomerDao {
         String deleteHeads = "DELETE FROM order_head WHERE customer_id = ?";
         String deleteCust  = "DELETE FROM customer WHERE id = ?";
 
-        try (Connection conn = DBConnection.getConnection()) {
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE)) {
             conn.setAutoCommit(false);
             try (PreparedStatement stmt1 = conn.prepareStatement(deleteLines);
                  PreparedStatement stmt2 = conn.prepareStatement(deleteHeads);
@@ -174,13 +306,18 @@ public class CustomerDao {
                 stmt2.setLong(1, id);
                 stmt2.executeUpdate();
 
+                OrderPurger.deleteArchivedOrders(conn, "customer_id", id);
+
                 stmt3.setLong(1, id);
                 int rows = stmt3.executeUpdate();
                 if (rows != 1) {
                     throw new SQLException("Förväntade 1 borttagen kundrad, blev: " + rows);
                 }
+                ChangeLog.record(conn, "customer", id, ChangeType.DELETE);
                 conn.commit();
+                QueryCache.get().invalidate("customer", ChangeType.DELETE);
                 logger.info("Kund " + id + " och relaterade ordrar borttagna.");
+                DataChangeBus.get().publish(ChangeEvent.deleted(Customer.class, id));
             } catch (SQLException e) {
                 conn.rollback();
                 logger.log(Level.SEVERE, "Misslyckades ta bort kund med ID " + id, e);
@@ -192,9 +329,214 @@ public class CustomerDao {
         }
     }
 
+    /**
+     * Tar bort en kund och dess ordrar i begränsade delar med commit efter varje del,
+     * så att en kund med lång historik inte låser order_head/order_line i en enda stor transaktion.
+     *
+     * @param id        Kundens ID.
+     * @param chunkSize Max antal ordrar per del.
+     * @param progress  Anropas efter varje committad del, får vara null.
+     */
+    public void deleteCustomerChunked(long id, int chunkSize, Consumer<DeleteProgress> progress) {
+        validateCustomerExists(id);
+        deleteCustomersInChunks(List.of(id), chunkSize, progress);
+    }
+
+    /**
+     * Tar bort många kunder i ett anrop. Kunderna behandlas i grupper om högst {@code chunkSize},
+     * deras ordrar tas bort i delar och varje grupp av kundrader committas för sig.
+     * ID:n som inte finns hoppas över.
+     *
+     * @param ids       Kund-ID:n att ta bort.
+     * @param chunkSize Max antal kunder per grupp och ordrar per del.
+     * @param progress  Anropas efter varje committad del, får vara null.
+     * @return Antal borttagna kunder.
+     */
+    public int deleteCustomers(Collection<Long> ids, int chunkSize, Consumer<DeleteProgress> progress) {
+        return deleteCustomersInChunks(new ArrayList<>(new LinkedHashSet<>(ids)), chunkSize, progress);
+    }
+
+    private int deleteCustomersInChunks(List<Long> ids, int chunkSize, Consumer<DeleteProgress> progress) {
+        int deletedCustomers = 0;
+        try (Connection conn = DBConnection.getConnection(Workload.BULK)) {
+            conn.setAutoCommit(false);
+            try {
+                DeleteProgress current = new DeleteProgress("customer", 0, 0, 0);
+                for (List<Long> group : OrderPurger.partition(ids, chunkSize)) {
+                    current = OrderPurger.purge(conn, current, "customer_id", group, chunkSize, progress);
+                    deletedCustomers += OrderPurger.executeWithIds(conn, "DELETE FROM customer WHERE id IN (", group);
+                    ChangeLog.recordAll(conn, "customer", group, ChangeType.DELETE);
+                    conn.commit();
+                    QueryCache.get().invalidate("customer", ChangeType.DELETE);
+                    group.forEach(id -> DataChangeBus.get().publish(ChangeEvent.deleted(Customer.class, id)));
+                }
+                logger.info("Kunder borttagna i delar: " + deletedCustomers + " kunder, " + current);
+            } catch (SQLException | IllegalArgumentException e) {
+                conn.rollback();
+                logger.log(Level.SEVERE, "Misslyckades ta bort kunder i delar, " + deletedCustomers + " redan borttagna", e);
+                throw new RuntimeException("Kunde inte ta bort kunder: " + e.getMessage(), e);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Databasfel vid borttagning av kunder", e);
+            throw new RuntimeException("Databasfel: " + e.getMessage(), e);
+        }
+        return deletedCustomers;
+    }
+
+    /**
+     * Slår ihop en dubblett med kunden som behålls: dubblettens alla ordrar (även arkiverade) flyttas till
+     * {@code keepId} med en UPDATE per ordertabell, och dubbletten tas bort, i en och samma transaktion.
+     * Båda kundraderna låses först i transaktionen, så att ingen av dem kan tas bort eller slås ihop åt andra
+     * hållet medan ordrarna flyttas. Publicerar en uppdateringshändelse per flyttad aktuell order och en borttagningshändelse för dubbletten.
+     *
+     * @return Antal flyttade ordrar.
+     * @throws IllegalArgumentException om någon av kunderna inte finns eller om ID:na är lika.
+     */
+    public int mergeCustomers(long keepId, long duplicateId) {
+        if (keepId == duplicateId) {
+            throw new IllegalArgumentException("En kund kan inte slås ihop med sig själv.");
+        }
+        String selectHeads = "SELECT id, order_date, employee_id FROM order_head WHERE customer_id = ? FOR UPDATE";
+        String moveHeads = "UPDATE order_head SET customer_id = ? WHERE customer_id = ?";
+        String moveArchived = "UPDATE order_head_archive SET customer_id = ? WHERE customer_id = ?";
+        String deleteCust = "DELETE FROM customer WHERE id = ?";
+
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE)) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt1 = conn.prepareStatement(selectHeads);
+                 PreparedStatement stmt2 = conn.prepareStatement(moveHeads);
+                 PreparedStatement stmt3 = conn.prepareStatement(moveArchived);
+                 PreparedStatement stmt4 = conn.prepareStatement(deleteCust)) {
+
+                lockCustomers(conn, keepId, duplicateId);
+                List<OrderHead> moved = new ArrayList<>();
+                stmt1.setLong(1, duplicateId);
+                try (ResultSet rs = stmt1.executeQuery()) {
+                    while (rs.next()) {
+                        moved.add(new OrderHead(rs.getLong(1), rs.getDate(2).toLocalDate(), keepId, rs.getLong(3)));
+                    }
+                }
+
+                stmt2.setLong(1, keepId);
+                stmt2.setLong(2, duplicateId);
+                int movedRows = stmt2.executeUpdate();
+
+                stmt3.setLong(1, keepId);
+                stmt3.setLong(2, duplicateId);
+                int archivedRows = stmt3.executeUpdate();
+
+                stmt4.setLong(1, duplicateId);
+                int rows = stmt4.executeUpdate();
+                if (rows != 1) {
+                    throw new SQLException("Förväntade 1 borttagen kundrad, blev: " + rows);
+                }
+                List<Long> movedIds = moved.stream().map(OrderHead::id).toList();
+                ChangeLog.recordAll(conn, "order_head", movedIds, ChangeType.UPDATE);
+                ChangeLog.record(conn, "customer", duplicateId, ChangeType.DELETE);
+                conn.commit();
+                QueryCache.get().invalidate("order_head", ChangeType.UPDATE);
+                QueryCache.get().invalidate("customer", ChangeType.DELETE);
+                logger.info("Kund " + duplicateId + " sammanslagen med kund " + keepId + ": "
+                        + movedRows + " ordrar och " + archivedRows + " arkiverade ordrar flyttade.");
+                moved.forEach(o -> DataChangeBus.get().publish(ChangeEvent.updated(OrderHead.class, o.id(), o)));
+                DataChangeBus.get().publish(ChangeEvent.deleted(Customer.class, duplicateId));
+                return movedRows + archivedRows;
+            } catch (IllegalArgumentException e) {
+                conn.rollback();
+                throw e;
+            } catch (SQLException e) {
+                conn.rollback();
+                logger.log(Level.SEVERE, "Misslyckades slå ihop kund " + duplicateId + " med kund " + keepId, e);
+                throw new RuntimeException("Kunde inte slå ihop kunder: " + e.getMessage(), e);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Databasfel vid sammanslagning av kunder", e);
+            throw new RuntimeException("Databasfel: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Låser kundraderna med {@code FOR UPDATE} i den pågående transaktionen, i ID-ordning så att två
+     * samtidiga sammanslagningar av samma par inte låser i olika ordning.
+     *
+     * @throws IllegalArgumentException om någon av kunderna inte finns.
+     */
+    private static void lockCustomers(Connection conn, long firstId, long secondId) throws SQLException {
+        String sql = "SELECT id FROM customer WHERE id IN (?, ?) ORDER BY id FOR UPDATE";
+        Set<Long> found = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, firstId);
+            stmt.setLong(2, secondId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    found.add(rs.getLong(1));
+                }
+            }
+        }
+        for (long id : new long[]{firstId, secondId}) {
+            if (!found.contains(id)) {
+                throw new IllegalArgumentException("Ingen kund med ID " + id);
+            }
+        }
+    }
+
+    /**
+     * Hämtar en kunds nyckeltal (antal ordrar, totalt köpvärde och senaste köpdatum) med en aggregerande fråga.
+     * Aktuella och arkiverade ordrar summeras var för sig med kund-ID:t i varje del, så att båda delarna går via
+     * kundindexet och det täckande orderradsindexet, och i en och samma sats, så att en order som arkiveras
+     * under tiden räknas exakt en gång. Resultatet cachas i {@link QueryCache}.
+     *
+     * @param includeArchived true för att även räkna arkiverade ordrar.
+     * @throws IllegalArgumentException om kunden inte finns.
+     * @throws RuntimeException om ett databasfel uppstår.
+     */
+    public CustomerStats getCustomerStats(long customerId, boolean includeArchived) {
+        return QueryCache.get().get("customerStats", List.of(customerId, includeArchived), STATS_TABLES,
+                () -> List.of(loadCustomerStats(customerId, includeArchived))).get(0);
+    }
+
+    private CustomerStats loadCustomerStats(long customerId, boolean includeArchived) {
+        String perOrder = "SELECT o.id, o.order_date, SUM(f.price * ol.quantity) AS total " +
+                "FROM %s o " +
+                "LEFT JOIN %s ol ON ol.order_id = o.id " +
+                "LEFT JOIN furniture f ON f.id = ol.furniture_id " +
+                "WHERE o.customer_id = ? " +
+                "GROUP BY o.id, o.order_date";
+        String orders = perOrder.formatted("order_head", "order_line");
+        if (includeArchived) {
+            orders += " UNION ALL " + perOrder.formatted("order_head_archive", "order_line_archive");
+        }
+        String sql = "SELECT c.id, COUNT(s.id), COALESCE(SUM(s.total), 0), MAX(s.order_date) " +
+                "FROM customer c " +
+                "LEFT JOIN (" + orders + ") s ON 1 = 1 " +
+                "WHERE c.id = ? " +
+                "GROUP BY c.id";
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setLong(index++, customerId);
+            if (includeArchived) {
+                stmt.setLong(index++, customerId);
+            }
+            stmt.setLong(index, customerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new IllegalArgumentException("Kund med ID " + customerId + " finns inte.");
+                }
+                Date last = rs.getDate(4);
+                return new CustomerStats(customerId, rs.getInt(2), rs.getDouble(3),
+                        last == null ? null : last.toLocalDate());
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Misslyckades hämta nyckeltal för kund-ID " + customerId, e);
+            throw new RuntimeException("Kunde inte hämta kundens nyckeltal: " + e.getMessage(), e);
+        }
+    }
+
     public boolean customerExists(long id) {
         String sql = "SELECT COUNT(*) FROM customer WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, id);
@@ -208,19 +550,6 @@ public class CustomerDao {
         }
     }
 
-    private void validateCustomerFields(Customer c) {
-        if (c.firstName().isBlank()
-                || c.lastName().isBlank()
-                || c.address().isBlank()
-                || c.city().isBlank()
-                || !POSTAL_CODE_PATTERN.matcher(c.postalCode()).matches()
-                || c.birthDate() == null
-                || c.birthDate().isAfter(LocalDate.now())) {
-            throw new IllegalArgumentException(
-                    "Alla fält måste fyllas i korrekt, postnummer 5 siffror, födelsedatum inte i framtiden.");
-        }
-    }
-
     private void validateCustomerExists(long id) {
         if (!customerExists(id)) {
             throw new IllegalArgumentException("Ingen kund med ID " + id);
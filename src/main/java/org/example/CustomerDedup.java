@@ -0,0 +1,219 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Dubblettsökning bland kunder utan att jämföra alla par.
+ * <p>
+ * Varje kund läggs i ett fåtal block efter nycklar som dubbletter nästan alltid delar: postnummer plus
+ * fonetisk nyckel för efternamnet, postnummer plus fonetisk nyckel för förnamnet, samt födelsedatum plus
+ * fonetisk nyckel för efternamnet. Bara kunder i samma block jämförs med {@link CustomerMatcher#score}, så en
+ * kontroll vid inmatning ({@link #findMatches(Customer)}) rör bara ett par handfulla kunder, och en full
+ * genomgång ({@link #findAllDuplicates()}) jämför paren i blocken parallellt.
+ * <p>
+ * Den delade instansen laddas med en fråga och hålls sedan aktuell via kundhändelser från
+ * {@link DataChangeBus}, på samma sätt som {@link RecommendationIndex}. Par med poäng från {@code dedup.thresholdPercent}
+ * procent räknas som troliga dubbletter.
+ */
+public final class CustomerDedup {
+    private static final Logger logger = Logger.getLogger(CustomerDedup.class.getName());
+    /** Större block (t.ex. ett vanligt efternamn i en stor ort) ger mest brus och hoppas över i full genomgång. */
+    private static final int MAX_BLOCK_SIZE = 500;
+
+    private static volatile CustomerDedup instance;
+    private static boolean loading;
+
+    private final double threshold;
+    private final Map<Long, CustomerMatcher.Profile> byId = new HashMap<>();
+    private final Map<String, List<CustomerMatcher.Profile>> blocks = new HashMap<>();
+
+    CustomerDedup(double threshold, Collection<Customer> customers) {
+        this.threshold = threshold;
+        customers.forEach(this::put);
+    }
+
+    /**
+     * Den delade instansen, laddad från databasen vid första anropet.
+     *
+     * @throws RuntimeException om ett databasfel uppstår vid laddningen.
+     */
+    public static synchronized CustomerDedup get() {
+        if (instance == null) {
+            CustomerDedup dedup = new CustomerDedup(DBConnection.getIntProperty("dedup.thresholdPercent", 75) / 100.0,
+                    List.of());
+            Runnable unsubscribe = DataChangeBus.get().subscribe(Customer.class, dedup::apply);
+            try {
+                dedup.load(new CustomerDao().getAllCustomers());
+            } catch (RuntimeException e) {
+                unsubscribe.run();
+                throw e;
+            }
+            instance = dedup;
+        }
+        return instance;
+    }
+
+    /**
+     * Den laddade instansen, eller null om den inte är laddad än; då görs ingen kontroll.
+     */
+    public static CustomerDedup getIfLoaded() {
+        return instance;
+    }
+
+    /**
+     * Laddar den delade instansen i en bakgrundstråd om den inte redan är laddad eller laddas. Ett misslyckat
+     * försök (t.ex. offline) loggas och kan göras om genom att anropa metoden igen.
+     */
+    public static synchronized void loadInBackground() {
+        if (instance != null || loading) {
+            return;
+        }
+        loading = true;
+        Thread thread = new Thread(() -> {
+            try {
+                long start = System.nanoTime();
+                get();
+                logger.log(Level.INFO, "Dubblettindex laddat på {0} ms", (System.nanoTime() - start) / 1_000_000);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Kunde inte ladda dubblettindex", e);
+            } finally {
+                synchronized (CustomerDedup.class) {
+                    loading = false;
+                }
+            }
+        }, "customer-dedup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private synchronized void load(List<Customer> customers) {
+        customers.forEach(this::put);
+    }
+
+    /**
+     * Tillämpar en committad kundändring.
+     */
+    synchronized void apply(ChangeEvent<Customer> event) {
+        switch (event.type()) {
+            case ADD, UPDATE -> put(event.entity());
+            case DELETE -> remove(event.id());
+        }
+    }
+
+    /**
+     * Troliga dubbletter av {@code customer} bland övriga kunder, mest lika först. Kunden själv (samma ID)
+     * räknas inte, så metoden kan anropas både före inmatning (ID 0) och för en befintlig kund.
+     */
+    public List<DuplicateCandidate> findMatches(Customer customer) {
+        CustomerMatcher.Profile profile = CustomerMatcher.Profile.of(customer);
+        Set<Long> seen = new HashSet<>();
+        List<DuplicateCandidate> matches = new ArrayList<>();
+        synchronized (this) {
+            for (String key : blockKeys(profile)) {
+                for (CustomerMatcher.Profile other : blocks.getOrDefault(key, List.of())) {
+                    long id = other.customer().id();
+                    if (id == customer.id() || !seen.add(id)) {
+                        continue;
+                    }
+                    double score = CustomerMatcher.score(profile, other);
+                    if (score >= threshold) {
+                        matches.add(new DuplicateCandidate(other.customer(), customer, score));
+                    }
+                }
+            }
+        }
+        matches.sort(Comparator.comparingDouble(DuplicateCandidate::score).reversed());
+        return matches;
+    }
+
+    /**
+     * Alla troliga dubblettpar, mest lika först. Paren samlas från blocken (ett par som delar flera block tas
+     * bara med en gång) och poängsätts parallellt. Block med fler än {@value #MAX_BLOCK_SIZE} kunder hoppas över.
+     */
+    public List<DuplicateCandidate> findAllDuplicates() {
+        List<CustomerMatcher.Profile[]> pairs = new ArrayList<>();
+        synchronized (this) {
+            Set<Long> seen = new HashSet<>();
+            for (List<CustomerMatcher.Profile> block : blocks.values()) {
+                if (block.size() > MAX_BLOCK_SIZE) {
+                    continue;
+                }
+                for (int i = 0; i < block.size(); i++) {
+                    for (int j = i + 1; j < block.size(); j++) {
+                        CustomerMatcher.Profile a = block.get(i);
+                        CustomerMatcher.Profile b = block.get(j);
+                        if (a.customer().id() > b.customer().id()) {
+                            CustomerMatcher.Profile t = a;
+                            a = b;
+                            b = t;
+                        }
+                        if (seen.add(a.customer().id() << 32 | b.customer().id())) {
+                            pairs.add(new CustomerMatcher.Profile[]{a, b});
+                        }
+                    }
+                }
+            }
+        }
+        // Profilerna ändras aldrig efter att de skapats, så poängsättningen behöver inget lås
+        return pairs.parallelStream()
+                .map(p -> new DuplicateCandidate(p[0].customer(), p[1].customer(), CustomerMatcher.score(p[0], p[1])))
+                .filter(c -> c.score() >= threshold)
+                .sorted(Comparator.comparingDouble(DuplicateCandidate::score).reversed()
+                        .thenComparingLong(c -> c.customer().id()))
+                .toList();
+    }
+
+    /**
+     * Blocknycklarna för en kund; nycklar med tom del (t.ex. ett postnummer utan siffror) används inte.
+     */
+    static List<String> blockKeys(CustomerMatcher.Profile profile) {
+        Customer c = profile.customer();
+        String last = profile.lastNameKey();
+        String first = profile.firstNameKey();
+        List<String> keys = new ArrayList<>(3);
+        if (!profile.postalCode().isEmpty()) {
+            if (!last.isEmpty()) {
+                keys.add("p" + profile.postalCode() + '|' + last);
+            }
+            if (!first.isEmpty() && !first.equals(last)) {
+                keys.add("p" + profile.postalCode() + '|' + first);
+            }
+        }
+        if (!last.isEmpty()) {
+            keys.add("b" + c.birthDate().toEpochDay() + '|' + last);
+        }
+        return keys;
+    }
+
+    private void put(Customer customer) {
+        remove(customer.id());
+        CustomerMatcher.Profile profile = CustomerMatcher.Profile.of(customer);
+        byId.put(customer.id(), profile);
+        for (String key : blockKeys(profile)) {
+            blocks.computeIfAbsent(key, k -> new ArrayList<>()).add(profile);
+        }
+    }
+
+    private void remove(long customerId) {
+        CustomerMatcher.Profile old = byId.remove(customerId);
+        if (old == null) {
+            return;
+        }
+        for (String key : blockKeys(old)) {
+            List<CustomerMatcher.Profile> block = blocks.get(key);
+            block.remove(old);
+            if (block.isEmpty()) {
+                blocks.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.example;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Jämförelse av kunder för dubblettsökning: normalisering, fonetiska nycklar och likhetspoäng.
+ * <p>
+ * Namn och adresser normaliseras till gemener utan diakritiska tecken (å, ä → a, ö → o) och utan skiljetecken.
+ * Den fonetiska nyckeln är en Soundex-variant anpassad för svenska stavningar, så att t.ex. Carlsson/Karlsson
+ * och Eriksson/Ericsson får samma nyckel. Likheten mellan två texter mäts som Jaccard-likhet mellan deras
+ * trigram, som lagras sorterade i {@code int[]} så att en jämförelse inte allokerar något.
+ */
+final class CustomerMatcher {
+    static final double NAME_WEIGHT = 0.5;
+    static final double BIRTH_DATE_WEIGHT = 0.2;
+    static final double POSTAL_CODE_WEIGHT = 0.15;
+    static final double ADDRESS_WEIGHT = 0.15;
+
+    private CustomerMatcher() {
+    }
+
+    /**
+     * Gemener, utan diakritiska tecken och skiljetecken, med enkla mellanslag.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        // Nedbrytningen behövs bara för tecken utanför ASCII, vilket de flesta namn och adresser saknar
+        String stripped = isAscii(lower) ? lower : Normalizer.normalize(lower, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(stripped.length());
+        boolean space = false;
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                if (space && !sb.isEmpty()) {
+                    sb.append(' ');
+                }
+                sb.append(c);
+                space = false;
+            } else if (Character.isWhitespace(c) || c == '-') {
+                space = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Postnumret med bara siffror, så att "123 45" och "12345" blir lika.
+     */
+    static String normalizePostalCode(String postalCode) {
+        if (postalCode == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(postalCode.length());
+        for (int i = 0; i < postalCode.length(); i++) {
+            char c = postalCode.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Fonetisk nyckel: första bokstaven följd av tre siffror, eller tom text för ett tomt namn.
+     */
+    static String phonetic(String name) {
+        String s = spelling(name).replace(" ", "");
+        if (s.isEmpty()) {
+            return "";
+        }
+        char[] key = {Character.toUpperCase(s.charAt(0)), '0', '0', '0'};
+        int length = 1;
+        char previous = code(s.charAt(0));
+        for (int i = 1; i < s.length() && length < key.length; i++) {
+            char code = code(s.charAt(i));
+            if (code != '0' && code != previous) {
+                key[length++] = code;
+            }
+            previous = code;
+        }
+        return new String(key);
+    }
+
+    /**
+     * Normaliserad text där svenska stavningsvarianter som låter lika skrivs likadant och dubbla bokstäver
+     * skrivs enkelt, så att t.ex. Carlsson och Karlson båda blir "karlson".
+     */
+    static String spelling(String text) {
+        String s = normalize(text);
+        StringBuilder sb = new StringBuilder(s.length() + 4);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            char next = i + 1 < s.length() ? s.charAt(i + 1) : ' ';
+            switch (c) {
+                case 'c' -> {
+                    if (next == 'k') {
+                        continue;
+                    }
+                    c = next == 'e' || next == 'i' || next == 'y' ? 's' : 'k';
+                }
+                case 'p' -> {
+                    if (next == 'h') {
+                        c = 'f';
+                        i++;
+                    }
+                }
+                case 'q' -> c = 'k';
+                case 'w' -> c = 'v';
+                case 'z' -> c = 's';
+                case 'x' -> {
+                    appendSingle(sb, 'k');
+                    c = 's';
+                }
+                default -> {
+                }
+            }
+            appendSingle(sb, c);
+        }
+        return sb.toString();
+    }
+
+    private static void appendSingle(StringBuilder sb, char c) {
+        if (sb.isEmpty() || sb.charAt(sb.length() - 1) != c || c == ' ') {
+            sb.append(c);
+        }
+    }
+
+    private static char code(char c) {
+        return switch (c) {
+            case 'b', 'f', 'p', 'v' -> '1';
+            case 'c', 'g', 'j', 'k', 's' -> '2';
+            case 'd', 't' -> '3';
+            case 'l' -> '4';
+            case 'm', 'n' -> '5';
+            case 'r' -> '6';
+            default -> '0';
+        };
+    }
+
+    /**
+     * Texten normaliseras och delas i överlappande trigram, med mellanslag som start- och slutmarkering.
+     *
+     * @return Trigrammen kodade som heltal, sorterade och utan dubbletter.
+     */
+    static int[] trigrams(String text) {
+        return gramsOf(normalize(text));
+    }
+
+    private static int[] gramsOf(String normalized) {
+        String s = " " + normalized + " ";
+        if (s.length() < 3) {
+            return new int[0];
+        }
+        int[] grams = new int[s.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (s.charAt(i) << 14) | (s.charAt(i + 1) << 7) | s.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Jaccard-likhet (delade / alla) mellan två sorterade trigrammängder, 0 om båda är tomma.
+     */
+    static double similarity(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        int shared = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - shared;
+        return union == 0 ? 0 : (double) shared / union;
+    }
+
+    /**
+     * En kund förberedd för jämförelse: trigram, fonetiska nycklar och normaliserat postnummer beräknas en gång.
+     * Namnets trigram tas på {@link #spelling} så att stavningsvarianter inte sänker likheten.
+     */
+    record Profile(Customer customer, int[] nameGrams, int[] addressGrams, String postalCode,
+                   String firstNameKey, String lastNameKey) {
+        static Profile of(Customer c) {
+            return new Profile(c, gramsOf(spelling(c.firstName() + " " + c.lastName())), trigrams(c.address()),
+                    normalizePostalCode(c.postalCode()), phonetic(c.firstName()), phonetic(c.lastName()));
+        }
+    }
+
+    /**
+     * Hur troligt det är att två kunder är samma person, från 0 till 1. Namnet väger tyngst, sedan
+     * födelsedatum, postnummer och adress.
+     */
+    static double score(Profile a, Profile b) {
+        double score = NAME_WEIGHT * similarity(a.nameGrams(), b.nameGrams())
+                + ADDRESS_WEIGHT * similarity(a.addressGrams(), b.addressGrams());
+        if (a.customer().birthDate().equals(b.customer().birthDate())) {
+            score += BIRTH_DATE_WEIGHT;
+        }
+        if (a.postalCode().equals(b.postalCode())) {
+            score += POSTAL_CODE_WEIGHT;
+        }
+        return score;
+    }
+}
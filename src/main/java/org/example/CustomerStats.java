@@ -0,0 +1,11 @@
+package org.example;
+
+import java.time.LocalDate;
+
+/**
+ * Nyckeltal för en kunds köp: antal ordrar, totalt köpvärde och senaste köpdatum.
+ *
+ * @param lastPurchase Datum för senaste ordern, eller null om kunden inte har några ordrar.
+ */
+public record CustomerStats(long customerId, int orderCount, double lifetimeValue, LocalDate lastPurchase) {
+}
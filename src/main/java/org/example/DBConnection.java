@@ -3,22 +3,43 @@ package org.example;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 /**
- * Hanterar databasanslutningar utan att återanvända stängda anslutningar.
+ * Hanterar databasanslutningar. Anslutningarna lånas från en {@link ConnectionPool} med högst
+ * {@code db.pool.maxSize} anslutningar; {@code close()} lämnar tillbaka anslutningen till poolen.
+ * <p>
+ * Om {@code db.replica.url} är satt lånas läsanslutningar ({@link #getReadConnection()}) från en egen pool
+ * mot läsrepliken, så listningar och rapporter inte belastar primären. Repliken används inte när den ligger
+ * efter mer än {@code db.replica.maxLagSeconds}, inte kan nås, eller inom {@code db.replica.readYourWritesMillis}
+ * efter en skrivning från den här klienten (så användaren alltid ser sina egna ändringar).
  */
 public class DBConnection {
     private static final Logger logger = Logger.getLogger(DBConnection.class.getName());
     private static final String url;
     private static final String username;
     private static final String password;
+    private static final Properties props = new Properties();
+    private static final ConnectionPool pool;
+    private static final ConnectionPool replicaPool;
+    private static final int maxReplicaLagSeconds;
+    private static final long readYourWritesMillis;
+    // Replikans fördröjning kontrolleras högst så här ofta.
+    private static final long LAG_CHECK_MILLIS = 5_000;
+    private static final ReentrantLock lagCheckLock = new ReentrantLock();
+    private static volatile long lastWriteMillis;
+    private static volatile long lagCheckedAt;
+    private static volatile boolean replicaUsable;
 
     static {
-        Properties props = new Properties();
         try (InputStream input = DBConnection.class.getClassLoader()
                 .getResourceAsStream("db.properties")) {
             if (input == null) {
@@ -41,14 +62,184 @@ public class DBConnection {
             logger.severe(msg);
             throw new ExceptionInInitializerError(msg);
         }
+
+        int maxSize = getIntProperty("db.pool.maxSize", 8);
+        Map<Workload, ConnectionPool.Quota> quotas = new EnumMap<>(Workload.class);
+        for (Workload workload : Workload.values()) {
+            String prefix = "db.workload." + workload.key();
+            int defaultTimeout = workload == Workload.INTERACTIVE ? getIntProperty("db.pool.timeoutMillis", 10_000) : 60_000;
+            quotas.put(workload, new ConnectionPool.Quota(
+                    getIntProperty(prefix + ".maxConnections", workload.defaultMaxConnections()),
+                    getIntProperty(prefix + ".timeoutMillis", defaultTimeout)));
+        }
+        pool = new ConnectionPool(url, username, password, maxSize, quotas, false);
+
+        String replicaUrl = getProperty("db.replica.url", null);
+        replicaPool = replicaUrl == null ? null : new ConnectionPool(replicaUrl,
+                getProperty("db.replica.username", username), getProperty("db.replica.password", password),
+                getIntProperty("db.replica.pool.maxSize", maxSize), quotas, true);
+        maxReplicaLagSeconds = getIntProperty("db.replica.maxLagSeconds", 5);
+        readYourWritesMillis = getIntProperty("db.replica.readYourWritesMillis", 5_000);
+        if (replicaPool != null) {
+            logger.info("Läsfrågor dirigeras till repliken " + replicaUrl);
+        }
     }
 
     /**
-     * Skapar och returnerar en ny databasanslutning vid varje anrop.
+     * Lånar en databasanslutning för {@link Workload#INTERACTIVE} ur poolen. Anslutningen måste stängas
+     * för att lämnas tillbaka.
+     *
+     * @throws SQLException om ingen anslutning blir ledig i tid eller databasen inte kan nås.
      */
     public static Connection getConnection() throws SQLException {
-        Connection conn = DriverManager.getConnection(url, username, password);
-        logger.info("Ny databasanslutning etablerad: " + url);
-        return conn;
+        return getConnection(Workload.INTERACTIVE);
+    }
+
+    /**
+     * Lånar en databasanslutning inom arbetsklassens kvot. Anslutningen måste stängas för att lämnas tillbaka.
+     *
+     * @throws SQLException om ingen anslutning blir ledig inom klassens väntetid eller databasen inte kan nås.
+     */
+    public static Connection getConnection(Workload workload) throws SQLException {
+        return pool.borrow(workload);
+    }
+
+    /**
+     * Lånar en skrivskyddad anslutning för frågor som tål något gammal data, t.ex. listningar och rapporter.
+     * Utan replik, eller när repliken inte uppfyller inställningarna för fördröjning, lånas en anslutning
+     * från primären. Anslutningen måste stängas för att lämnas tillbaka.
+     *
+     * Repliken har samma kvoter per arbetsklass som primären.
+     *
+     * @throws SQLException om ingen anslutning blir ledig i tid eller databasen inte kan nås.
+     */
+    public static Connection getReadConnection(Workload workload) throws SQLException {
+        if (replicaPool == null
+                || System.currentTimeMillis() - lastWriteMillis < readYourWritesMillis
+                || !isReplicaFresh()) {
+            return pool.borrow(workload);
+        }
+        try {
+            return replicaPool.borrow(workload);
+        } catch (SQLException e) {
+            logger.warning("Repliken kan inte nås, läser från primären: " + e.getMessage());
+            replicaUsable = false;
+            lagCheckedAt = System.currentTimeMillis();
+            return pool.borrow(workload);
+        }
+    }
+
+    /**
+     * Noterar att den här klienten har skrivit till primären. Läsningar går till primären under
+     * {@code db.replica.readYourWritesMillis} därefter. Anropas av {@link ChangeLog} för varje ändring.
+     */
+    static void recordWrite() {
+        lastWriteMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Stänger poolernas lediga anslutningar, t.ex. när programmet avslutas.
+     */
+    public static void shutdown() {
+        pool.close();
+        if (replicaPool != null) {
+            replicaPool.close();
+        }
+    }
+
+    /**
+     * Om repliken ligger tillräckligt nära primären. Resultatet återanvänds i {@code LAG_CHECK_MILLIS};
+     * medan en tråd kontrollerar används det förra resultatet av övriga trådar.
+     */
+    private static boolean isReplicaFresh() {
+        if (maxReplicaLagSeconds < 0 || System.currentTimeMillis() - lagCheckedAt < LAG_CHECK_MILLIS
+                || !lagCheckLock.tryLock()) {
+            return maxReplicaLagSeconds < 0 || replicaUsable;
+        }
+        try {
+            Long lag = replicaLagSeconds();
+            boolean usable = lag != null && lag <= maxReplicaLagSeconds;
+            if (usable != replicaUsable) {
+                logger.info(usable
+                        ? "Repliken används för läsningar (fördröjning " + lag + " s)"
+                        : "Repliken används inte, fördröjning " + (lag == null ? "okänd" : lag + " s")
+                        + " (max " + maxReplicaLagSeconds + " s)");
+            }
+            replicaUsable = usable;
+        } catch (SQLException e) {
+            logger.warning("Kunde inte kontrollera replikens fördröjning: " + e.getMessage());
+            replicaUsable = false;
+        } finally {
+            lagCheckedAt = System.currentTimeMillis();
+            lagCheckLock.unlock();
+        }
+        return replicaUsable;
+    }
+
+    /**
+     * Läser replikens fördröjning i sekunder. En server utan replikeringsstatus (t.ex. en fristående
+     * testinstans) räknas som helt uppdaterad; stoppad replikering ger null.
+     */
+    private static Long replicaLagSeconds() throws SQLException {
+        try (Connection conn = replicaPool.borrow(Workload.INTERACTIVE);
+             Statement stmt = conn.createStatement()) {
+            try {
+                return lagFrom(stmt, "SHOW REPLICA STATUS", "Seconds_Behind_Source");
+            } catch (SQLException e) {
+                // MySQL före 8.0.22
+                return lagFrom(stmt, "SHOW SLAVE STATUS", "Seconds_Behind_Master");
+            }
+        }
+    }
+
+    private static Long lagFrom(Statement stmt, String sql, String column) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            if (!rs.next()) {
+                return 0L;
+            }
+            long lag = rs.getLong(column);
+            return rs.wasNull() ? null : lag;
+        }
+    }
+
+    /**
+     * Förbereder en fråga vars resultat strömmas rad för rad från servern i stället för att
+     * läsas in i minnet i sin helhet (MySQL Connector/J strömmar när fetch size är Integer.MIN_VALUE).
+     * Anslutningen kan inte användas för andra frågor förrän resultatet är färdigläst och stängt.
+     */
+    public static PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(Integer.MIN_VALUE);
+        return stmt;
+    }
+
+    /**
+     * Läser en valfri inställning från db.properties.
+     *
+     * @param key          Inställningens nyckel.
+     * @param defaultValue Värdet som används om nyckeln saknas.
+     */
+    public static String getProperty(String key, String defaultValue) {
+        String value = props.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    /**
+     * Läser en valfri heltalsinställning från db.properties.
+     *
+     * @param key          Inställningens nyckel.
+     * @param defaultValue Värdet som används om nyckeln saknas eller inte är ett heltal.
+     */
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = getProperty(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.warning("Ogiltigt heltal för " + key + ": " + value + ", använder " + defaultValue);
+            return defaultValue;
+        }
     }
 }
@@ -0,0 +1,60 @@
+package org.example;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process event bus for committed data changes.
+ * <p>
+ * DAO write methods publish a {@link ChangeEvent} after their transaction has committed, and views subscribe
+ * per entity type to patch their in-memory lists instead of re-reading whole tables. Listeners run
+ * synchronously on the publishing thread; a failing listener is logged and does not affect the others.
+ */
+public final class DataChangeBus {
+    private static final Logger logger = Logger.getLogger(DataChangeBus.class.getName());
+    private static final DataChangeBus INSTANCE = new DataChangeBus();
+
+    private final Map<Class<?>, List<Consumer<ChangeEvent<?>>>> listeners = new ConcurrentHashMap<>();
+
+    private DataChangeBus() {
+    }
+
+    public static DataChangeBus get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a listener for changes of one entity type.
+     *
+     * @return An action that removes the listener again.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Runnable subscribe(Class<T> entityType, Consumer<ChangeEvent<T>> listener) {
+        Consumer<ChangeEvent<?>> untyped = event -> listener.accept((ChangeEvent<T>) event);
+        List<Consumer<ChangeEvent<?>>> list = listeners.computeIfAbsent(entityType, k -> new CopyOnWriteArrayList<>());
+        list.add(untyped);
+        return () -> list.remove(untyped);
+    }
+
+    /**
+     * Delivers {@code event} to all listeners of its entity type.
+     */
+    public void publish(ChangeEvent<?> event) {
+        List<Consumer<ChangeEvent<?>>> list = listeners.get(event.entityType());
+        if (list == null) {
+            return;
+        }
+        for (Consumer<ChangeEvent<?>> listener : list) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Change listener failed for " + event, e);
+            }
+        }
+    }
+}
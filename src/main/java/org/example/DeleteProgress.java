@@ -0,0 +1,17 @@
+package org.example;
+
+/**
+ * Progress report from a chunked delete, published after every committed chunk.
+ *
+ * @param owner         The table whose orders are being removed (e.g. "customer", "employee").
+ * @param chunk         Number of chunks committed so far (1-based).
+ * @param ordersDeleted Total number of order heads deleted so far.
+ * @param linesDeleted  Total number of order lines deleted so far.
+ */
+public record DeleteProgress(String owner, int chunk, long ordersDeleted, long linesDeleted) {
+
+    @Override
+    public String toString() {
+        return owner + ": chunk " + chunk + ", " + ordersDeleted + " orders, " + linesDeleted + " order lines deleted";
+    }
+}
@@ -0,0 +1,11 @@
+package org.example;
+
+/**
+ * Ett par kunder som troligen är samma person.
+ *
+ * @param customer  Kunden med lägst ID, den som normalt behålls vid sammanslagning.
+ * @param duplicate Den troliga dubbletten.
+ * @param score     Likhet enligt {@link CustomerMatcher#score}, från 0 till 1.
+ */
+public record DuplicateCandidate(Customer customer, Customer duplicate, double score) {
+}
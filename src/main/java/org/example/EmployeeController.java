@@ -1,5 +1,6 @@
 package org.example;
 
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -11,9 +12,9 @@ import javafx.scene.input.MouseEvent;
 
 import java.net.URL;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.ResourceBundle;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 public class EmployeeController implements Initializable {
     private static final Logger logger = Logger.getLogger(EmployeeController.class.getName());
@@ -60,6 +61,10 @@ public class EmployeeController implements Initializable {
         // Load initial data
         loadEmployeeData();
 
+        // Apply row-level changes published by the DAOs instead of reloading the table
+        DataChangeBus.get().subscribe(Employee.class,
+                OfflineMode.whenLive(e -> ObservableListPatcher.apply(employeeList, e, Employee::id)));
+
         // Table row click handler
         employeeTable.setOnMouseClicked((MouseEvent me) -> {
             Employee sel = employeeTable.getSelectionModel().getSelectedItem();
@@ -70,10 +75,10 @@ public class EmployeeController implements Initializable {
         });
 
         // Real-time validation
-        firstNameField.textProperty().addListener((o, old, nw) -> validateField(firstNameField, "[A-Za-zÅÄÖåäö ]+"));
-        lastNameField.textProperty().addListener((o, old, nw) -> validateField(lastNameField, "[A-Za-zÅÄÖåäö ]+"));
-        emailField.textProperty().addListener((o, old, nw) -> validateField(emailField, "[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}"));
-        phoneField.textProperty().addListener((o, old, nw) -> validateField(phoneField, "\\d{10}"));
+        firstNameField.textProperty().addListener((o, old, nw) -> validateField(firstNameField, FieldRule.NAME));
+        lastNameField.textProperty().addListener((o, old, nw) -> validateField(lastNameField, FieldRule.NAME));
+        emailField.textProperty().addListener((o, old, nw) -> validateField(emailField, FieldRule.EMAIL));
+        phoneField.textProperty().addListener((o, old, nw) -> validateField(phoneField, FieldRule.PHONE));
         hireDatePicker.valueProperty().addListener((o, old, nw) -> validateDatePicker(hireDatePicker));
 
         // Filter field listener
@@ -95,16 +100,37 @@ public class EmployeeController implements Initializable {
         updateButton.setOnAction(e -> handleUpdateEmployee());
         deleteButton.setOnAction(e -> handleDeleteEmployee());
         searchButton.setOnAction(e -> handleShowEmployeeById());
+
+        // Read-only while the offline snapshot is shown, and lookups by ID need the database;
+        // reload from the database once it is reachable
+        for (Button button : List.of(addButton, updateButton, deleteButton, searchButton)) {
+            button.disableProperty().bind(OfflineMode.get().offlineProperty());
+        }
+        OfflineMode.get().offlineProperty().addListener((obs, wasOffline, offline) -> {
+            if (!offline) loadEmployeeData();
+        });
     }
 
+    /**
+     * Läser alla anställda i en bakgrundstråd och fyller tabellen på JavaFX-tråden när de har lästs.
+     */
     private void loadEmployeeData() {
-        try {
-            employeeList.setAll(employeeDao.getAllEmployees());
-        } catch (Exception e) {
-            logger.severe("Kunde inte ladda anställda: " + e.getMessage());
-            feedbackLabel.setText("Fel vid inläsning: " + e.getMessage());
-            feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
-        }
+        Thread thread = new Thread(() -> {
+            try {
+                OfflineMode offlineMode = OfflineMode.get();
+                List<Employee> employees = offlineMode.isOffline()
+                        ? offlineMode.snapshot().employees() : employeeDao.getAllEmployees();
+                Platform.runLater(() -> employeeList.setAll(employees));
+            } catch (Exception e) {
+                logger.severe("Kunde inte ladda anställda: " + e.getMessage());
+                Platform.runLater(() -> {
+                    feedbackLabel.setText("Fel vid inläsning: " + e.getMessage());
+                    feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
+                });
+            }
+        }, "employee-loader");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     private void populateFields(Employee emp) {
@@ -120,18 +146,10 @@ public class EmployeeController implements Initializable {
     private void handleAddEmployee() {
         if (!collectAndValidateInput()) return;
         try {
-            Employee e = new Employee(
-                    0L,
-                    firstNameField.getText().trim(),
-                    lastNameField.getText().trim(),
-                    emailField.getText().trim(),
-                    phoneField.getText().trim(),
-                    hireDatePicker.getValue()
-            );
+            Employee e = formEmployee(0L);
             employeeDao.addEmployee(e);
             feedbackLabel.setText("Anställd tillagd!");
             feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
-            loadEmployeeData();
             clearFields();
         } catch (Exception e) {
             logger.severe("Fel vid tillägg: " + e.getMessage());
@@ -158,18 +176,10 @@ public class EmployeeController implements Initializable {
         }
         if (!collectAndValidateInput()) return;
         try {
-            Employee e = new Employee(
-                    sel.id(),
-                    firstNameField.getText().trim(),
-                    lastNameField.getText().trim(),
-                    emailField.getText().trim(),
-                    phoneField.getText().trim(),
-                    hireDatePicker.getValue()
-            );
+            Employee e = formEmployee(sel.id());
             employeeDao.updateEmployee(e);
             feedbackLabel.setText("Anställd uppdaterad!");
             feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
-            loadEmployeeData();
             clearFields();
         } catch (Exception e) {
             logger.severe("Fel vid uppdatering: " + e.getMessage());
@@ -190,7 +200,6 @@ public class EmployeeController implements Initializable {
             employeeDao.deleteEmployee(sel.id());
             feedbackLabel.setText("Anställd borttagen!");
             feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
-            loadEmployeeData();
             clearFields();
         } catch (Exception e) {
             logger.severe("Fel vid borttagning: " + e.getMessage());
@@ -239,22 +248,38 @@ public class EmployeeController implements Initializable {
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return false;
         }
-        if (!Pattern.matches("[A-Za-zÅÄÖåäö ]+", firstNameField.getText().trim()) ||
-                !Pattern.matches("[A-Za-zÅÄÖåäö ]+", lastNameField.getText().trim()) ||
-                !Pattern.matches("[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}", emailField.getText().trim()) ||
-                !Pattern.matches("\\d{10}", phoneField.getText().trim())) {
+        if (!FieldRule.NAME.test(firstNameField.getText().trim()) ||
+                !FieldRule.NAME.test(lastNameField.getText().trim()) ||
+                !FieldRule.EMAIL.test(emailField.getText().trim()) ||
+                !FieldRule.PHONE.test(phoneField.getText().trim())) {
             feedbackLabel.setText("Ogiltigt format i ett eller flera fält.");
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return false;
         }
-        if (hireDatePicker.getValue().isAfter(LocalDate.now())) {
-            feedbackLabel.setText("Anställningsdatum kan inte vara i framtiden.");
+        // The remaining rules, e.g. no hire date in the future, are the ones the DAO checks
+        String violation = Validator.EMPLOYEE.violation(formEmployee(0L));
+        if (violation != null) {
+            feedbackLabel.setText(violation);
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return false;
         }
         return true;
     }
 
+    /**
+     * The employee in the form; the fields must have passed {@link #collectAndValidateInput()}.
+     */
+    private Employee formEmployee(long id) {
+        return new Employee(
+                id,
+                firstNameField.getText().trim(),
+                lastNameField.getText().trim(),
+                emailField.getText().trim(),
+                phoneField.getText().trim(),
+                hireDatePicker.getValue()
+        );
+    }
+
     private void clearFields() {
         idField.clear();
         firstNameField.clear();
@@ -266,8 +291,8 @@ public class EmployeeController implements Initializable {
         feedbackLabel.setText("");
     }
 
-    private void validateField(TextField f, String regex) {
-        if (f.getText().trim().isEmpty() || Pattern.matches(regex, f.getText().trim())) {
+    private void validateField(TextField f, FieldRule rule) {
+        if (f.getText().trim().isEmpty() || rule.test(f.getText().trim())) {
             f.setStyle("");
         } else {
             f.setStyle("-fx-border-color: red;");
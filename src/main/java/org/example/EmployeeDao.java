@@ -2,12 +2,13 @@ package org.example;
 
 import java.io.IOException;
 import java.sql.*;
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 /**
  * Data Access Object (DAO) for managing employees in the database.
@@ -15,23 +16,39 @@ import java.util.regex.Pattern;
  */
 public class EmployeeDao {
     private static final Logger logger = Logger.getLogger(EmployeeDao.class.getName());
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
-    private static final Pattern PHONE_PATTERN = Pattern.compile("\\d{10}");
 
-    public void addEmployee(Employee employee) {
+    /**
+     * Adds an employee and publishes a {@link ChangeEvent} carrying the new ID.
+     *
+     * @return The generated employee ID.
+     */
+    public long addEmployee(Employee employee) {
+        Validator.EMPLOYEE.validate(employee);
         String sql = "INSERT INTO employee (first_name, last_name, email, phone, hire_date) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DBConnection.getConnection()) {
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE)) {
             conn.setAutoCommit(false);
             try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                validateEmployeeFields(employee);
                 stmt.setString(1, employee.firstName());
                 stmt.setString(2, employee.lastName());
                 stmt.setString(3, employee.email());
                 stmt.setString(4, employee.phone());
                 stmt.setDate(5, Date.valueOf(employee.hireDate()));
                 stmt.executeUpdate();
+                long id;
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new SQLException("Failed to retrieve generated employee ID.");
+                    }
+                    id = keys.getLong(1);
+                }
+                ChangeLog.record(conn, "employee", id, ChangeType.ADD);
                 conn.commit();
+                QueryCache.get().invalidate("employee", ChangeType.ADD);
                 logger.info("Employee added: " + employee);
+                Employee added = new Employee(id, employee.firstName(), employee.lastName(), employee.email(),
+                        employee.phone(), employee.hireDate());
+                DataChangeBus.get().publish(ChangeEvent.added(Employee.class, id, added));
+                return id;
             } catch (SQLException | IllegalArgumentException e) {
                 conn.rollback();
                 logger.log(Level.SEVERE, "Failed to add employee: " + employee, e);
@@ -46,7 +63,7 @@ public class EmployeeDao {
     public List<Employee> getAllEmployees() {
         List<Employee> employees = new ArrayList<>();
         String sql = "SELECT id, first_name, last_name, email, phone, hire_date FROM employee";
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection(Workload.REPORTING);
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -67,9 +84,33 @@ public class EmployeeDao {
         return employees;
     }
 
+    /**
+     * Streams all employees, ordered by ID, to {@code handler} without loading them into memory.
+     *
+     * @return The number of rows streamed.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public long streamEmployees(RowHandler handler) {
+        String sql = "SELECT id, first_name, last_name, email, phone, hire_date FROM employee ORDER BY id";
+        long rows = 0;
+        try (Connection conn = DBConnection.getReadConnection(Workload.BULK);
+             PreparedStatement stmt = DBConnection.prepareStreaming(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                handler.handle(rs);
+                rows++;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to stream employees", e);
+            throw new RuntimeException("Could not retrieve employees: " + e.getMessage(), e);
+        }
+        return rows;
+    }
+
     public Employee getEmployeeById(long employeeId) {
         String sql = "SELECT id, first_name, last_name, email, phone, hire_date FROM employee WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, employeeId);
@@ -93,12 +134,12 @@ public class EmployeeDao {
     }
 
     public void updateEmployee(Employee employee) {
+        Validator.EMPLOYEE.validate(employee);
         String sql = "UPDATE employee SET first_name = ?, last_name = ?, email = ?, phone = ?, hire_date = ? WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection()) {
-            validateEmployeeExists(employee.id());
+        validateEmployeeExists(employee.id());
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE)) {
             conn.setAutoCommit(false);
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                validateEmployeeFields(employee);
                 stmt.setString(1, employee.firstName());
                 stmt.setString(2, employee.lastName());
                 stmt.setString(3, employee.email());
@@ -109,8 +150,11 @@ public class EmployeeDao {
                 if (updated != 1) {
                     throw new SQLException("Expected to update 1 row, updated: " + updated);
                 }
+                ChangeLog.record(conn, "employee", employee.id(), ChangeType.UPDATE);
                 conn.commit();
+                QueryCache.get().invalidate("employee", ChangeType.UPDATE);
                 logger.info("Employee updated: " + employee);
+                DataChangeBus.get().publish(ChangeEvent.updated(Employee.class, employee.id(), employee));
             } catch (SQLException | IllegalArgumentException e) {
                 conn.rollback();
                 logger.log(Level.SEVERE, "Failed to update employee: " + employee, e);
@@ -129,7 +173,7 @@ public class EmployeeDao {
         String deleteHeads = "DELETE FROM order_head WHERE employee_id = ?";
         String deleteEmp   = "DELETE FROM employee WHERE id = ?";
 
-        try (Connection conn = DBConnection.getConnection()) {
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE)) {
             conn.setAutoCommit(false);
             try (PreparedStatement stmt1 = conn.prepareStatement(deleteLines);
                  PreparedStatement stmt2 = conn.prepareStatement(deleteHeads);
@@ -141,14 +185,19 @@ public class EmployeeDao {
                 stmt2.setLong(1, employeeId);
                 stmt2.executeUpdate();
 
+                OrderPurger.deleteArchivedOrders(conn, "employee_id", employeeId);
+
                 stmt3.setLong(1, employeeId);
                 int deleted = stmt3.executeUpdate();
                 if (deleted != 1) {
                     throw new SQLException("Expected to delete 1 employee row, deleted: " + deleted);
                 }
 
+                ChangeLog.record(conn, "employee", employeeId, ChangeType.DELETE);
                 conn.commit();
+                QueryCache.get().invalidate("employee", ChangeType.DELETE);
                 logger.info("Employee " + employeeId + " and related orders deleted.");
+                DataChangeBus.get().publish(ChangeEvent.deleted(Employee.class, employeeId));
             }
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Failed to delete employee with ID " + employeeId, e);
@@ -156,9 +205,63 @@ public class EmployeeDao {
         }
     }
 
+    /**
+     * Deletes an employee and their orders in bounded chunks, committing after every chunk so that
+     * a long-serving employee does not lock order_head/order_line in one large transaction.
+     *
+     * @param employeeId The ID of the employee.
+     * @param chunkSize  Maximum number of orders per chunk.
+     * @param progress   Called after every committed chunk, may be null.
+     */
+    public void deleteEmployeeChunked(long employeeId, int chunkSize, Consumer<DeleteProgress> progress) {
+        validateEmployeeExists(employeeId);
+        deleteEmployeesInChunks(List.of(employeeId), chunkSize, progress);
+    }
+
+    /**
+     * Deletes many employees in one call. Employees are processed in groups of at most {@code chunkSize},
+     * their orders are removed in chunks and every group of employee rows is committed separately.
+     * IDs that do not exist are skipped.
+     *
+     * @param employeeIds The employee IDs to delete.
+     * @param chunkSize   Maximum number of employees per group and orders per chunk.
+     * @param progress    Called after every committed chunk, may be null.
+     * @return The number of deleted employees.
+     */
+    public int deleteEmployees(Collection<Long> employeeIds, int chunkSize, Consumer<DeleteProgress> progress) {
+        return deleteEmployeesInChunks(new ArrayList<>(new LinkedHashSet<>(employeeIds)), chunkSize, progress);
+    }
+
+    private int deleteEmployeesInChunks(List<Long> employeeIds, int chunkSize, Consumer<DeleteProgress> progress) {
+        int deletedEmployees = 0;
+        try (Connection conn = DBConnection.getConnection(Workload.BULK)) {
+            conn.setAutoCommit(false);
+            try {
+                DeleteProgress current = new DeleteProgress("employee", 0, 0, 0);
+                for (List<Long> group : OrderPurger.partition(employeeIds, chunkSize)) {
+                    current = OrderPurger.purge(conn, current, "employee_id", group, chunkSize, progress);
+                    deletedEmployees += OrderPurger.executeWithIds(conn, "DELETE FROM employee WHERE id IN (", group);
+                    ChangeLog.recordAll(conn, "employee", group, ChangeType.DELETE);
+                    conn.commit();
+                    QueryCache.get().invalidate("employee", ChangeType.DELETE);
+                    group.forEach(id -> DataChangeBus.get().publish(ChangeEvent.deleted(Employee.class, id)));
+                }
+                logger.info("Employees deleted in chunks: " + deletedEmployees + " employees, " + current);
+            } catch (SQLException | IllegalArgumentException e) {
+                conn.rollback();
+                logger.log(Level.SEVERE, "Failed to delete employees in chunks, " + deletedEmployees + " already deleted", e);
+                throw new RuntimeException("Could not delete employees: " + e.getMessage(), e);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error while deleting employees", e);
+            throw new RuntimeException("Database error: " + e.getMessage(), e);
+        }
+        return deletedEmployees;
+    }
+
     public boolean employeeExists(long employeeId) {
         String sql = "SELECT COUNT(*) FROM employee WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, employeeId);
@@ -172,18 +275,6 @@ public class EmployeeDao {
         }
     }
 
-    private void validateEmployeeFields(Employee e) {
-        if (e.firstName().isBlank()
-                || e.lastName().isBlank()
-                || !EMAIL_PATTERN.matcher(e.email()).matches()
-                || !PHONE_PATTERN.matcher(e.phone()).matches()
-                || e.hireDate() == null
-                || e.hireDate().isAfter(LocalDate.now())) {
-            throw new IllegalArgumentException(
-                    "All fields must be non-empty, email valid, phone 10 digits, hire date not in future.");
-        }
-    }
-
     private void validateEmployeeExists(long employeeId) {
         if (!employeeExists(employeeId)) {
             throw new IllegalArgumentException("No employee with ID " + employeeId);
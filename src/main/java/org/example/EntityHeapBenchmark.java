@@ -0,0 +1,159 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Measures the heap held by loaded customers, furniture and order detail rows with and without
+ * {@link StringPool} deduplication and shared {@link OrderDetail.Header}s. Runs on generated data and needs
+ * no database.
+ * <p>
+ * The vocabularies are sized like a national customer register rather than a handful of sample values:
+ * 2,000 first names, 20,000 last names, 1,900 localities, 10,000 postal codes, 5,000 furniture names and
+ * 60 colors. Values are drawn with a Zipf distribution, so a few common names and cities account for most
+ * rows and the long tail is seen only once or twice, as in real tables.
+ * <p>
+ * Usage: {@code java -cp target/SecondHandProject.jar org.example.EntityHeapBenchmark [customers] [orders]}
+ */
+public class EntityHeapBenchmark {
+    private static final String[] SYLLABLES = {"an", "be", "da", "el", "fri", "gu", "hen", "in", "jo", "ka", "li",
+            "ma", "ne", "ol", "per", "ri", "sa", "to", "ul", "ve", "ås", "ör", "ed", "berg", "lund", "ström",
+            "gren", "dahl", "qvist", "holm", "sten", "vik", "by", "ko", "mi", "nu", "ra", "se", "ti", "ar"};
+    private static final Vocabulary FIRST_NAMES = new Vocabulary(2_000, 2, 3, 1);
+    private static final Vocabulary LAST_NAMES = new Vocabulary(20_000, 2, 4, 2);
+    private static final Vocabulary CITIES = new Vocabulary(1_900, 2, 4, 3);
+    private static final Vocabulary FURNITURE = new Vocabulary(5_000, 2, 4, 4);
+    private static final Vocabulary COLORS = new Vocabulary(60, 1, 3, 5);
+    private static final int POSTAL_CODES = 10_000;
+    private static final int LINES_PER_ORDER = 4;
+
+    public static void main(String[] args) {
+        int customers = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int orders = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        long heapBefore = usedHeap();
+        Dataset plain = generate(customers, orders, UnaryOperator.identity(), false);
+        long plainHeap = usedHeap() - heapBefore;
+        plain = null;
+
+        StringPool pool = new StringPool(100_000);
+        heapBefore = usedHeap();
+        Dataset compact = generate(customers, orders, pool::intern, true);
+        long compactHeap = usedHeap() - heapBefore;
+
+        System.out.printf("Customers: %,d, furniture: %,d, order detail rows: %,d%n",
+                compact.customers().size(), compact.furniture().size(), compact.details().size());
+        System.out.printf("Heap, one copy per cell:        ~%,d KB%n", plainHeap / 1024);
+        System.out.printf("Heap, pooled strings + headers: ~%,d KB (%d distinct pooled values)%n",
+                compactHeap / 1024, pool.size());
+        System.out.printf("Saved: %.0f%%%n", 100.0 * (plainHeap - compactHeap) / plainHeap);
+    }
+
+    private record Dataset(List<Customer> customers, List<Furniture> furniture, List<OrderDetail> details) {
+    }
+
+    /**
+     * Builds the rows the way the DAO mappers do. Every string is copied first, as a JDBC driver returns a
+     * new instance per cell, and then passed through {@code dedup} for the columns the mappers pool.
+     */
+    private static Dataset generate(int customerCount, int orderCount, UnaryOperator<String> dedup, boolean sharedHeaders) {
+        Random random = new Random(42);
+        LocalDate base = LocalDate.of(2015, 1, 1);
+
+        List<Customer> customers = new ArrayList<>(customerCount);
+        for (int i = 0; i < customerCount; i++) {
+            customers.add(new Customer(i + 1,
+                    dedup.apply(cell(FIRST_NAMES.pick(random))),
+                    dedup.apply(cell(LAST_NAMES.pick(random))),
+                    "Gatan " + random.nextInt(200),
+                    base.minusDays(7000 + random.nextInt(15000)),
+                    dedup.apply(cell(CITIES.pick(random))),
+                    dedup.apply(String.format("%05d", 10000 + Vocabulary.zipf(random, POSTAL_CODES)))));
+        }
+
+        int furnitureCount = Math.max(1, customerCount / 4);
+        List<Furniture> furniture = new ArrayList<>(furnitureCount);
+        for (int i = 0; i < furnitureCount; i++) {
+            furniture.add(new Furniture(i + 1,
+                    dedup.apply(cell(FURNITURE.pick(random))),
+                    dedup.apply(cell(COLORS.pick(random))),
+                    null,
+                    Math.round(random.nextDouble() * 5000 * 100) / 100.0,
+                    base.plusDays(random.nextInt(3650)),
+                    random.nextInt(200),
+                    Math.round(random.nextDouble() * 80 * 10) / 10.0));
+        }
+
+        List<OrderDetail> details = new ArrayList<>(orderCount * LINES_PER_ORDER);
+        for (int orderId = 1; orderId <= orderCount; orderId++) {
+            Customer customer = customers.get(random.nextInt(customers.size()));
+            LocalDate date = base.plusDays(random.nextInt(3650));
+            OrderDetail.Header header = null;
+            for (int line = 0; line < LINES_PER_ORDER; line++) {
+                if (header == null || !sharedHeaders) {
+                    header = new OrderDetail.Header(orderId, date,
+                            dedup.apply(cell(customer.firstName())), dedup.apply(cell(customer.lastName())));
+                }
+                Furniture item = furniture.get(random.nextInt(furniture.size()));
+                details.add(new OrderDetail(header, dedup.apply(cell(item.name())), item.price(), 1 + random.nextInt(3)));
+            }
+        }
+        return new Dataset(customers, furniture, details);
+    }
+
+    /**
+     * Distinct made-up words of {@code minSyllables} to {@code maxSyllables} syllables, drawn by rank with a
+     * Zipf (1/rank) distribution.
+     */
+    private static final class Vocabulary {
+        private final String[] words;
+
+        Vocabulary(int size, int minSyllables, int maxSyllables, long seed) {
+            Random random = new Random(seed);
+            Set<String> distinct = new LinkedHashSet<>();
+            while (distinct.size() < size) {
+                StringBuilder word = new StringBuilder();
+                int syllables = minSyllables + random.nextInt(maxSyllables - minSyllables + 1);
+                for (int i = 0; i < syllables; i++) {
+                    word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+                }
+                word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+                distinct.add(word.toString());
+            }
+            words = distinct.toArray(new String[0]);
+        }
+
+        String pick(Random random) {
+            return words[zipf(random, words.length)];
+        }
+
+        /**
+         * A rank from 0 to {@code n - 1} where rank r is drawn with probability proportional to 1 / (r + 1),
+         * by inverting the approximate cumulative distribution ln(r + 1) / ln(n + 1).
+         */
+        static int zipf(Random random, int n) {
+            int rank = (int) Math.exp(random.nextDouble() * Math.log(n + 1.0)) - 1;
+            return Math.min(rank, n - 1);
+        }
+    }
+
+    /**
+     * A fresh copy of {@code value}, like a value read from a result set.
+     */
+    private static String cell(String value) {
+        return new String(value.toCharArray());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
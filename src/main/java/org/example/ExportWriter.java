@@ -0,0 +1,139 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Base class of the table export formats. Field values are encoded straight into one reusable direct
+ * {@link ByteBuffer} that is written to a {@link FileChannel} whenever it fills up, so an export needs the same
+ * small amount of heap whatever the number of rows.
+ * <p>
+ * Call {@link #begin} once, then for every row one write method per column followed by {@link #endRow()},
+ * and finally {@link #finish()}.
+ */
+abstract class ExportWriter implements AutoCloseable {
+
+    /**
+     * How a column is encoded.
+     */
+    enum ColumnType {
+        LONG, DOUBLE, DATE, STRING
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    protected final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private long rows;
+
+    protected ExportWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Writes the file header.
+     *
+     * @param table   The exported table, e.g. "furniture".
+     * @param columns The column names.
+     * @param types   The column types, in the same order.
+     */
+    abstract void begin(String table, String[] columns, ColumnType[] types) throws IOException;
+
+    abstract void writeLong(long value) throws IOException;
+
+    abstract void writeDouble(double value) throws IOException;
+
+    /**
+     * Writes a date as days since 1970-01-01.
+     */
+    abstract void writeDate(long epochDay) throws IOException;
+
+    abstract void writeString(String value) throws IOException;
+
+    abstract void writeNull(ColumnType type) throws IOException;
+
+    void endRow() throws IOException {
+        rows++;
+    }
+
+    /**
+     * Writes the file trailer, if any, and flushes the buffer.
+     */
+    void finish() throws IOException {
+        flush();
+    }
+
+    long rowCount() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Makes room for at least {@code bytes} more bytes, flushing the buffer if necessary.
+     */
+    protected final void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    protected final void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Encodes {@code value} as UTF-8 into the buffer, flushing as often as needed.
+     */
+    protected final void putUtf8(CharSequence value) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(value);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                flush();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            flush();
+        }
+    }
+
+    /**
+     * The number of bytes {@code value} takes as UTF-8, without encoding it.
+     */
+    protected static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A text format rule compiled once and shared by the controllers (per keystroke) and the {@link Validator}s
+ * (per save or imported row).
+ * <p>
+ * {@code Pattern.matches(regex, text)} compiles the expression and allocates a matcher on every call. A
+ * {@code FieldRule} keeps the compiled pattern and one matcher per thread, so {@link #test(CharSequence)}
+ * allocates nothing after the first call on a thread.
+ */
+final class FieldRule {
+    /** Letters (including å, ä, ö) and spaces, as in person names and city names. */
+    static final FieldRule NAME = new FieldRule("[A-Za-zÅÄÖåäö ]+");
+    static final FieldRule POSTAL_CODE = new FieldRule("\\d{5}");
+    static final FieldRule EMAIL = new FieldRule("[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}");
+    static final FieldRule PHONE = new FieldRule("\\d{10}");
+    /** A non-negative whole number such as an ID or shelf number. */
+    static final FieldRule DIGITS = new FieldRule("\\d+");
+    /** A non-negative decimal number such as a price or weight. */
+    static final FieldRule DECIMAL = new FieldRule("\\d*(\\.\\d+)?");
+    static final FieldRule NOT_BLANK = new FieldRule(".*\\S.*");
+
+    private final Pattern pattern;
+    private final ThreadLocal<Matcher> matcher;
+
+    FieldRule(String regex) {
+        this.pattern = Pattern.compile(regex);
+        this.matcher = ThreadLocal.withInitial(() -> pattern.matcher(""));
+    }
+
+    /**
+     * Whether the whole of {@code text} matches the rule; null never matches.
+     */
+    boolean test(CharSequence text) {
+        return text != null && matcher.get().reset(text).matches();
+    }
+
+    @Override
+    public String toString() {
+        return pattern.pattern();
+    }
+}
@@ -1,25 +1,39 @@
 package org.example;
 
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.input.MouseEvent;
+import javafx.stage.FileChooser;
 
+import java.io.File;
 import java.net.URL;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.ResourceBundle;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 public class FurnitureController implements Initializable {
     private static final Logger logger = Logger.getLogger(FurnitureController.class.getName());
     private final FurnitureDao furnitureDao = new FurnitureDao();
-    private final ObservableList<Furniture> furnitureList = FXCollections.observableArrayList();
-    private FilteredList<Furniture> filteredFurnitureList;
+    private final PagedList<Furniture> furnitureList = new PagedList<>(OfflineMode.withFallback(new PagedList.PageSource<>() {
+        @Override
+        public int count(String filter) {
+            return furnitureDao.countFurniture(filter);
+        }
+
+        @Override
+        public List<Furniture> fetch(String filter, int offset, int limit) {
+            return furnitureDao.getFurniturePage(filter, offset, limit);
+        }
+    }, OfflineSnapshot::furniture, (f, filter) ->
+            f.name().toLowerCase().contains(filter) ||
+                    (f.color() != null && f.color().toLowerCase().contains(filter))), Furniture::id,
+            new Furniture(0, "Laddar…", null, null, 0, LocalDate.EPOCH, 0, 0));
 
     @FXML private TableView<Furniture> furnitureTable;
     @FXML private TableColumn<Furniture, Long> idColumn;
@@ -39,6 +53,7 @@ public class FurnitureController implements Initializable {
     @FXML private DatePicker purchaseDatePicker;
     @FXML private TextField shelfNbrField;
     @FXML private TextField weightField;
+    @FXML private Label shelfOccupancyLabel;
     @FXML private TextField filterField;
     @FXML private Label feedbackLabel;
 
@@ -47,6 +62,7 @@ public class FurnitureController implements Initializable {
     @FXML private Button updateButton;
     @FXML private Button deleteButton;
     @FXML private Button showByIdButton;
+    @FXML private Button importCsvButton;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -60,39 +76,45 @@ public class FurnitureController implements Initializable {
         shelfNbrColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().shelfNbr()));
         weightColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().weight()));
 
-        // Setup filtered list for search
-        filteredFurnitureList = new FilteredList<>(furnitureList, p -> true);
-        furnitureTable.setItems(filteredFurnitureList);
+        // Rows are paged from the database in ID order, so client-side sorting is disabled
+        furnitureTable.getColumns().forEach(column -> column.setSortable(false));
+        furnitureTable.setItems(furnitureList);
 
         // Load initial data
         loadFurniture();
 
+        // Apply row-level changes published by the DAOs instead of reloading the table
+        DataChangeBus.get().subscribe(Furniture.class, OfflineMode.whenLive(furnitureList::apply));
+
         // Table row click handler
         furnitureTable.setOnMouseClicked((MouseEvent me) -> {
             Furniture sel = furnitureTable.getSelectionModel().getSelectedItem();
-            if (sel != null) {
+            if (sel != null && !furnitureList.isPlaceholder(sel)) {
                 populateFields(sel);
                 feedbackLabel.setText("");
             }
         });
 
         // Real-time validation
-        nameField.textProperty().addListener((o, a, n) -> validateField(nameField, ".+"));
-        colorField.textProperty().addListener((o, a, n) -> validateField(colorField, "[A-Za-zÅÄÖåäö ]*"));
-        priceField.textProperty().addListener((o, a, n) -> validateField(priceField, "\\d*(\\.\\d+)?"));
-        shelfNbrField.textProperty().addListener((o, a, n) -> validateField(shelfNbrField, "\\d+"));
-        weightField.textProperty().addListener((o, a, n) -> validateField(weightField, "\\d*(\\.\\d+)?"));
+        nameField.textProperty().addListener((o, a, n) -> validateField(nameField, FieldRule.NOT_BLANK));
+        colorField.textProperty().addListener((o, a, n) -> validateField(colorField, FieldRule.NAME));
+        priceField.textProperty().addListener((o, a, n) -> validateField(priceField, FieldRule.DECIMAL));
+        shelfNbrField.textProperty().addListener((o, a, n) -> {
+            validateField(shelfNbrField, FieldRule.DIGITS);
+            showShelfOccupancy();
+        });
+        weightField.textProperty().addListener((o, a, n) -> validateField(weightField, FieldRule.DECIMAL));
         purchaseDatePicker.valueProperty().addListener((o, a, n) -> validateDatePicker(purchaseDatePicker));
 
-        // Filter field listener
+        // Filter field listener, the filter is applied by the database
         filterField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredFurnitureList.setPredicate(furniture -> {
-                if (newValue == null || newValue.trim().isEmpty()) {
-                    return true;
+            furnitureTable.setItems(furnitureList);
+            furnitureList.setFilter(newValue).whenComplete((count, ex) -> {
+                if (ex != null) {
+                    logger.severe("Kunde inte filtrera möbler: " + ex.getMessage());
+                    feedbackLabel.setText("Fel vid filtrering: " + ex.getMessage());
+                    feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
                 }
-                String lowerCaseFilter = newValue.toLowerCase();
-                return furniture.name().toLowerCase().contains(lowerCaseFilter) ||
-                        furniture.color().toLowerCase().contains(lowerCaseFilter);
             });
         });
 
@@ -102,26 +124,58 @@ public class FurnitureController implements Initializable {
         updateButton.setOnAction(e -> handleUpdateFurniture());
         deleteButton.setOnAction(e -> handleDeleteFurniture());
         showByIdButton.setOnAction(e -> handleShowById());
+        importCsvButton.setOnAction(e -> handleImportCsv());
+
+        // Read-only while the offline snapshot is shown, and lookups by ID need the database;
+        // reload from the database once it is reachable
+        for (Button button : List.of(addButton, updateButton, deleteButton, importCsvButton, showByIdButton)) {
+            button.disableProperty().bind(OfflineMode.get().offlineProperty());
+        }
+        OfflineMode.get().offlineProperty().addListener((obs, wasOffline, offline) -> {
+            if (!offline) {
+                loadFurniture();
+                ShelfIndex.loadInBackground();
+            }
+        });
+
+        // Shelf occupancy next to the shelf number, from the shelf index once it has loaded in the background
+        ShelfIndex.addListener(() -> Platform.runLater(this::showShelfOccupancy));
+        if (!OfflineMode.get().isOffline()) {
+            ShelfIndex.loadInBackground();
+        }
+    }
+
+    /**
+     * Shows the item count and total weight of the shelf in the shelf number field, or nothing if the field
+     * does not hold a shelf number or the index has not loaded yet.
+     */
+    private void showShelfOccupancy() {
+        ShelfIndex index = ShelfIndex.getIfLoaded();
+        String text = shelfNbrField.getText().trim();
+        if (index == null || !FieldRule.DIGITS.test(text)) {
+            shelfOccupancyLabel.setText("");
+            return;
+        }
+        ShelfIndex.ShelfSummary shelf;
+        try {
+            shelf = index.summary(Integer.parseInt(text));
+        } catch (NumberFormatException e) {
+            shelfOccupancyLabel.setText("");
+            return;
+        }
+        shelfOccupancyLabel.setText(shelf.count() == 0
+                ? "Hyllan är tom"
+                : String.format("%d möbler, totalt %.1f kg", shelf.count(), shelf.totalWeight()));
     }
 
     @FXML
     private void handleAddFurniture() {
         if (!collectAndValidateInput()) return;
         try {
-            Furniture f = new Furniture(
-                    0L,
-                    nameField.getText().trim(),
-                    colorField.getText().trim(),
-                    commentField.getText().trim(),
-                    Double.parseDouble(priceField.getText().trim()),
-                    purchaseDatePicker.getValue(),
-                    Integer.parseInt(shelfNbrField.getText().trim()),
-                    Double.parseDouble(weightField.getText().trim())
-            );
+            Furniture f = formFurniture(0L);
             furnitureDao.addFurniture(f);
             feedbackLabel.setText("Möbel tillagd!");
             feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
-            loadFurniture();
             clearFields();
         } catch (NumberFormatException ex) {
             feedbackLabel.setText("Ogiltigt numeriskt värde.");
@@ -145,27 +199,17 @@ public class FurnitureController implements Initializable {
     @FXML
     private void handleUpdateFurniture() {
         Furniture sel = furnitureTable.getSelectionModel().getSelectedItem();
-        if (sel == null) {
+        if (sel == null || furnitureList.isPlaceholder(sel)) {
             feedbackLabel.setText("Välj en möbel först.");
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return;
         }
         if (!collectAndValidateInput()) return;
         try {
-            Furniture f = new Furniture(
-                    sel.id(),
-                    nameField.getText().trim(),
-                    colorField.getText().trim(),
-                    commentField.getText().trim(),
-                    Double.parseDouble(priceField.getText().trim()),
-                    purchaseDatePicker.getValue(),
-                    Integer.parseInt(shelfNbrField.getText().trim()),
-                    Double.parseDouble(weightField.getText().trim())
-            );
+            Furniture f = formFurniture(sel.id());
             furnitureDao.updateFurniture(f);
             feedbackLabel.setText("Möbel uppdaterad!");
             feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
-            loadFurniture();
             clearFields();
         } catch (NumberFormatException ex) {
             feedbackLabel.setText("Ogiltigt numeriskt värde.");
@@ -180,7 +224,7 @@ public class FurnitureController implements Initializable {
     @FXML
     private void handleDeleteFurniture() {
         Furniture sel = furnitureTable.getSelectionModel().getSelectedItem();
-        if (sel == null) {
+        if (sel == null || furnitureList.isPlaceholder(sel)) {
             feedbackLabel.setText("Välj en möbel att ta bort.");
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return;
@@ -189,7 +233,6 @@ public class FurnitureController implements Initializable {
             furnitureDao.deleteFurniture(sel.id());
             feedbackLabel.setText("Möbel borttagen!");
             feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
-            loadFurniture();
             clearFields();
         } catch (Exception ex) {
             logger.severe("Fel vid borttagning: " + ex.getMessage());
@@ -209,7 +252,7 @@ public class FurnitureController implements Initializable {
                 long id = Long.parseLong(furnitureId);
                 Furniture f = furnitureDao.getFurnitureById(id);
                 if (f != null) {
-                    furnitureList.setAll(f);
+                    furnitureTable.setItems(FXCollections.observableArrayList(f));
                     feedbackLabel.setText("Visar möbel: " + f.name());
                     feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
                     populateFields(f);
@@ -228,47 +271,104 @@ public class FurnitureController implements Initializable {
         });
     }
 
+    @FXML
+    private void handleImportCsv() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Importera möbler från CSV");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV-filer", "*.csv"));
+        File file = chooser.showOpenDialog(furnitureTable.getScene().getWindow());
+        if (file == null) return;
+        feedbackLabel.setText("Importerar " + file.getName() + "...");
+        feedbackLabel.setStyle("");
+        // Läsning och inmatning sker i bakgrunden; resultatet visas på JavaFX-tråden
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws Exception {
+                List<Furniture> items = FurnitureCsv.read(file.toPath());
+                return furnitureDao.addFurnitureBatch(items).size();
+            }
+        };
+        task.setOnSucceeded(e -> {
+            feedbackLabel.setText(task.getValue() + " möbler importerade från " + file.getName() + ".");
+            feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
+        });
+        task.setOnFailed(e -> {
+            Throwable ex = task.getException();
+            if (ex instanceof IllegalArgumentException) {
+                // Felaktig rad eller ogiltigt fält, ingenting har sparats
+                feedbackLabel.setText("Ogiltig CSV-fil: " + ex.getMessage() + "\nFörväntad rubrikrad: " + FurnitureCsv.HEADER);
+            } else {
+                logger.severe("Fel vid CSV-import: " + ex.getMessage());
+                feedbackLabel.setText("Fel: " + ex.getMessage());
+            }
+            feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
+        });
+        Thread thread = new Thread(task, "furniture-csv-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     private boolean collectAndValidateInput() {
         if (nameField.getText().isBlank() || purchaseDatePicker.getValue() == null) {
             feedbackLabel.setText("Namn och inköpsdatum måste fyllas i.");
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return false;
         }
-        try {
-            double price = Double.parseDouble(priceField.getText().trim());
-            int shelf = Integer.parseInt(shelfNbrField.getText().trim());
-            double weight = Double.parseDouble(weightField.getText().trim());
-            if (price < 0 || shelf < 0 || weight < 0) {
-                feedbackLabel.setText("Pris, hyllnummer och vikt får inte vara negativa.");
-                feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
-                return false;
-            }
-        } catch (NumberFormatException ex) {
+        // Digits only, so negative values are rejected here; the remaining rules are Validator.FURNITURE below
+        if (!FieldRule.DECIMAL.test(priceField.getText().trim()) ||
+                !FieldRule.DIGITS.test(shelfNbrField.getText().trim()) ||
+                !FieldRule.DECIMAL.test(weightField.getText().trim())) {
             feedbackLabel.setText("Ogiltigt format för pris, hyllnummer eller vikt.");
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return false;
         }
-        if (purchaseDatePicker.getValue().isAfter(LocalDate.now())) {
-            feedbackLabel.setText("Inköpsdatum kan inte vara i framtiden.");
+        if (!colorField.getText().isBlank() && !FieldRule.NAME.test(colorField.getText().trim())) {
+            feedbackLabel.setText("Ogiltigt format för färg.");
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return false;
         }
-        if (!colorField.getText().isBlank() && !Pattern.matches("[A-Za-zÅÄÖåäö ]+", colorField.getText().trim())) {
-            feedbackLabel.setText("Ogiltigt format för färg.");
+        String violation;
+        try {
+            violation = Validator.FURNITURE.violation(formFurniture(0L));
+        } catch (NumberFormatException ex) {
+            violation = "Ogiltigt numeriskt värde.";
+        }
+        if (violation != null) {
+            feedbackLabel.setText(violation);
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return false;
         }
         return true;
     }
 
+    /**
+     * The furniture in the form; the fields must have passed the format checks in
+     * {@link #collectAndValidateInput()}.
+     *
+     * @throws NumberFormatException if a number is out of range.
+     */
+    private Furniture formFurniture(long id) {
+        return new Furniture(
+                id,
+                nameField.getText().trim(),
+                colorField.getText().trim(),
+                commentField.getText().trim(),
+                Double.parseDouble(priceField.getText().trim()),
+                purchaseDatePicker.getValue(),
+                Integer.parseInt(shelfNbrField.getText().trim()),
+                Double.parseDouble(weightField.getText().trim())
+        );
+    }
+
     private void loadFurniture() {
-        try {
-            furnitureList.setAll(furnitureDao.getAllFurniture());
-        } catch (Exception ex) {
-            logger.severe("Kunde inte ladda möbler: " + ex.getMessage());
-            feedbackLabel.setText("Fel vid inläsning: " + ex.getMessage());
-            feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
-        }
+        furnitureTable.setItems(furnitureList);
+        furnitureList.refresh().whenComplete((count, ex) -> {
+            if (ex != null) {
+                logger.severe("Kunde inte ladda möbler: " + ex.getMessage());
+                feedbackLabel.setText("Fel vid inläsning: " + ex.getMessage());
+                feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
+            }
+        });
     }
 
     private void populateFields(Furniture furniture) {
@@ -295,8 +395,8 @@ public class FurnitureController implements Initializable {
         feedbackLabel.setText("");
     }
 
-    private void validateField(TextField field, String regex) {
-        if (field.getText().trim().isEmpty() || Pattern.matches(regex, field.getText().trim())) {
+    private void validateField(TextField field, FieldRule rule) {
+        if (field.getText().trim().isEmpty() || rule.test(field.getText().trim())) {
             field.setStyle("");
         } else {
             field.setStyle("-fx-border-color: red;");
@@ -0,0 +1,109 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads furniture items from CSV for bulk intake.
+ * <p>
+ * The first line must be the header {@code name,color,comment,price,purchase_date,shelf_nbr,weight};
+ * dates are ISO ({@code 2024-05-31}) and decimals use a dot. Fields may be quoted with double quotes.
+ * Blank lines are skipped.
+ */
+final class FurnitureCsv {
+    static final String HEADER = "name,color,comment,price,purchase_date,shelf_nbr,weight";
+    private static final int COLUMNS = 7;
+
+    private FurnitureCsv() {
+    }
+
+    /**
+     * Reads all items of a UTF-8 CSV file.
+     *
+     * @throws IllegalArgumentException naming the line number if the file is malformed.
+     */
+    static List<Furniture> read(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Parses all items from {@code reader}. Item ids are 0.
+     *
+     * @throws IllegalArgumentException naming the line number if the input is malformed.
+     */
+    static List<Furniture> parse(Reader reader) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+        String header = in.readLine();
+        if (header == null || !header.replace(" ", "").equalsIgnoreCase(HEADER)) {
+            throw new IllegalArgumentException("Line 1: expected header " + HEADER);
+        }
+        List<Furniture> items = new ArrayList<>();
+        String line;
+        int lineNumber = 1;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = split(line);
+            if (fields.size() != COLUMNS) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected " + COLUMNS
+                        + " fields, got " + fields.size());
+            }
+            try {
+                items.add(new Furniture(
+                        0L,
+                        fields.get(0).trim(),
+                        fields.get(1).trim(),
+                        fields.get(2).trim(),
+                        Double.parseDouble(fields.get(3).trim()),
+                        LocalDate.parse(fields.get(4).trim()),
+                        Integer.parseInt(fields.get(5).trim()),
+                        Double.parseDouble(fields.get(6).trim())
+                ));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                // Unparsable numbers as well as values the Furniture constructor rejects (e.g. a negative price)
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return items;
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -19,15 +19,16 @@ public class FurnitureDao {
      * Adds a new furniture item to the database.
      *
      * @param furniture The {@link Furniture} object containing furniture details.
+     * @return The generated furniture ID.
      * @throws IllegalArgumentException if required fields (name, color) are empty or invalid.
      * @throws RuntimeException if a database error occurs.
      */
-    public void addFurniture(Furniture furniture) {
+    public long addFurniture(Furniture furniture) {
+        Validator.FURNITURE.validate(furniture);
         String sql = "INSERT INTO furniture (name, color, comment, price, purchase_date, shelf_nbr, weight) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DBConnection.getConnection()) {
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE)) {
             conn.setAutoCommit(false);
             try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                validateFurnitureFields(furniture);
                 stmt.setString(1, furniture.name());
                 stmt.setString(2, furniture.color());
                 stmt.setString(3, furniture.comment());
@@ -36,8 +37,21 @@ public class FurnitureDao {
                 stmt.setInt(6, furniture.shelfNbr());
                 stmt.setDouble(7, furniture.weight());
                 stmt.executeUpdate();
+                long id;
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new SQLException("Failed to retrieve generated furniture ID.");
+                    }
+                    id = keys.getLong(1);
+                }
+                ChangeLog.record(conn, "furniture", id, ChangeType.ADD);
                 conn.commit();
+                QueryCache.get().invalidate("furniture", ChangeType.ADD);
                 System.out.println("Furniture added: " + furniture.name());
+                Furniture added = new Furniture(id, furniture.name(), furniture.color(), furniture.comment(),
+                        furniture.price(), furniture.purchaseDate(), furniture.shelfNbr(), furniture.weight());
+                DataChangeBus.get().publish(ChangeEvent.added(Furniture.class, id, added));
+                return id;
             } catch (SQLException | IllegalArgumentException e) {
                 conn.rollback();
                 logger.log(Level.SEVERE, "Failed to add furniture: {0}", furniture);
@@ -49,6 +63,97 @@ public class FurnitureDao {
         }
     }
 
+    /**
+     * Adds several furniture items in one transaction, in chunks of {@code furniture.batchSize} rows
+     * (default 500). See {@link #addFurnitureBatch(List, int)}.
+     */
+    public List<Long> addFurnitureBatch(List<Furniture> items) {
+        return addFurnitureBatch(items, DBConnection.getIntProperty("furniture.batchSize", 500));
+    }
+
+    /**
+     * Adds several furniture items in one transaction using multi-row INSERT statements of up to
+     * {@code chunkSize} rows each. All items are validated before anything is inserted; if one chunk fails,
+     * no items are kept.
+     *
+     * @param items     The furniture items to add; their ids are ignored.
+     * @param chunkSize The maximum number of rows per INSERT statement.
+     * @return The generated ids, in the order of {@code items}.
+     * @throws IllegalArgumentException if an item has empty or invalid fields, or chunkSize is not positive.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public List<Long> addFurnitureBatch(List<Furniture> items, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        Validator.FURNITURE.validateAll(items, "Item");
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        List<Long> ids = new ArrayList<>(items.size());
+        try (Connection conn = DBConnection.getConnection(Workload.BULK)) {
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < items.size(); from += chunkSize) {
+                    insertChunk(conn, items.subList(from, Math.min(from + chunkSize, items.size())), ids);
+                }
+                ChangeLog.recordAll(conn, "furniture", ids, ChangeType.ADD);
+                conn.commit();
+                QueryCache.get().invalidate("furniture", ChangeType.ADD);
+            } catch (SQLException e) {
+                conn.rollback();
+                logger.log(Level.SEVERE, "Failed to add furniture batch of " + items.size() + " items", e);
+                throw new RuntimeException("Could not add furniture: " + e.getMessage(), e);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error while adding furniture batch", e);
+            throw new RuntimeException("Database error: " + e.getMessage(), e);
+        }
+        logger.info(String.format("Furniture batch added: %d items in %.1f ms",
+                ids.size(), (System.nanoTime() - start) / 1e6));
+        for (int i = 0; i < items.size(); i++) {
+            Furniture f = items.get(i);
+            long id = ids.get(i);
+            DataChangeBus.get().publish(ChangeEvent.added(Furniture.class, id, new Furniture(id, f.name(),
+                    f.color(), f.comment(), f.price(), f.purchaseDate(), f.shelfNbr(), f.weight())));
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts {@code chunk} with one multi-row INSERT and appends the generated ids to {@code ids}.
+     */
+    private static void insertChunk(Connection conn, List<Furniture> chunk, List<Long> ids) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO furniture (name, color, comment, price, purchase_date, shelf_nbr, weight) VALUES ");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?)");
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS)) {
+            int p = 1;
+            for (Furniture furniture : chunk) {
+                stmt.setString(p++, furniture.name());
+                stmt.setString(p++, furniture.color());
+                stmt.setString(p++, furniture.comment());
+                stmt.setDouble(p++, furniture.price());
+                stmt.setDate(p++, Date.valueOf(furniture.purchaseDate()));
+                stmt.setInt(p++, furniture.shelfNbr());
+                stmt.setDouble(p++, furniture.weight());
+            }
+            stmt.executeUpdate();
+            int before = ids.size();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                while (keys.next()) {
+                    ids.add(keys.getLong(1));
+                }
+            }
+            if (ids.size() - before != chunk.size()) {
+                throw new SQLException("Expected " + chunk.size() + " generated furniture IDs, got " + (ids.size() - before));
+            }
+        }
+    }
+
     /**
      * Retrieves all furniture items from the database.
      *
@@ -58,14 +163,15 @@ public class FurnitureDao {
     public List<Furniture> getAllFurniture() {
         List<Furniture> furnitureList = new ArrayList<>();
         String sql = "SELECT id, name, color, comment, price, purchase_date, shelf_nbr, weight FROM furniture";
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection(Workload.REPORTING);
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
+            StringPool pool = StringPool.get();
             while (rs.next()) {
                 furnitureList.add(new Furniture(
                         rs.getLong("id"),
-                        rs.getString("name"),
-                        rs.getString("color"),
+                        pool.intern(rs.getString("name")),
+                        pool.intern(rs.getString("color")),
                         rs.getString("comment"),
                         rs.getDouble("price"),
                         rs.getDate("purchase_date").toLocalDate(),
@@ -80,6 +186,137 @@ public class FurnitureDao {
         return furnitureList;
     }
 
+    /**
+     * Counts furniture items whose name or color contains {@code filter}.
+     *
+     * @param filter Search text; an empty string matches all items.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public int countFurniture(String filter) {
+        String sql = "SELECT COUNT(*) FROM furniture" + filterClause(filter);
+        try (Connection conn = DBConnection.getReadConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindFilter(stmt, filter);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to count furniture", e);
+            throw new RuntimeException("Could not count furniture: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieves one page of furniture items ordered by ID, for {@link PagedList}.
+     *
+     * @param filter Search text; an empty string matches all items.
+     * @param offset Number of rows to skip.
+     * @param limit  Maximum number of rows.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public List<Furniture> getFurniturePage(String filter, int offset, int limit) {
+        String sql = "SELECT id, name, color, comment, price, purchase_date, shelf_nbr, weight FROM furniture"
+                + filterClause(filter) + " ORDER BY id LIMIT ? OFFSET ?";
+        List<Furniture> furnitureList = new ArrayList<>(limit);
+        try (Connection conn = DBConnection.getReadConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = bindFilter(stmt, filter);
+            stmt.setInt(i++, limit);
+            stmt.setInt(i, offset);
+            try (ResultSet rs = stmt.executeQuery()) {
+                StringPool pool = StringPool.get();
+                while (rs.next()) {
+                    furnitureList.add(new Furniture(
+                            rs.getLong("id"),
+                            pool.intern(rs.getString("name")),
+                            pool.intern(rs.getString("color")),
+                            rs.getString("comment"),
+                            rs.getDouble("price"),
+                            rs.getDate("purchase_date").toLocalDate(),
+                            rs.getInt("shelf_nbr"),
+                            rs.getDouble("weight")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to retrieve furniture page at offset " + offset, e);
+            throw new RuntimeException("Could not retrieve furniture: " + e.getMessage(), e);
+        }
+        return furnitureList;
+    }
+
+    private static String filterClause(String filter) {
+        return filter == null || filter.isBlank() ? "" : " WHERE name LIKE ? OR color LIKE ?";
+    }
+
+    /**
+     * Binds the filter parameters and returns the next free parameter index.
+     */
+    private static int bindFilter(PreparedStatement stmt, String filter) throws SQLException {
+        if (filter == null || filter.isBlank()) {
+            return 1;
+        }
+        String pattern = "%" + filter.trim() + "%";
+        stmt.setString(1, pattern);
+        stmt.setString(2, pattern);
+        return 3;
+    }
+
+    /**
+     * Streams all furniture items, ordered by ID, to {@code handler} without loading them into memory.
+     *
+     * @return The number of rows streamed.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public long streamFurniture(RowHandler handler) {
+        String sql = "SELECT id, name, color, comment, price, purchase_date, shelf_nbr, weight FROM furniture ORDER BY id";
+        long rows = 0;
+        try (Connection conn = DBConnection.getReadConnection(Workload.BULK);
+             PreparedStatement stmt = DBConnection.prepareStreaming(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                handler.handle(rs);
+                rows++;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to stream furniture", e);
+            throw new RuntimeException("Could not read furniture: " + e.getMessage(), e);
+        }
+        return rows;
+    }
+
+    /**
+     * Loads the inventory into a column-oriented {@link InventorySnapshot} for analytics.
+     * Rows are copied straight from the result set into primitive columns without creating
+     * {@link Furniture} records; name and comment are not loaded.
+     *
+     * @return An immutable snapshot of all furniture items.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public InventorySnapshot loadInventorySnapshot() {
+        String sql = "SELECT id, price, weight, shelf_nbr, purchase_date, color FROM furniture";
+        try (Connection conn = DBConnection.getReadConnection(Workload.REPORTING);
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            InventorySnapshot.Builder builder = new InventorySnapshot.Builder(1024);
+            while (rs.next()) {
+                builder.add(
+                        rs.getLong("id"),
+                        rs.getDouble("price"),
+                        rs.getDouble("weight"),
+                        rs.getInt("shelf_nbr"),
+                        rs.getDate("purchase_date").toLocalDate(),
+                        rs.getString("color")
+                );
+            }
+            return builder.build();
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to load inventory snapshot", e);
+            throw new RuntimeException("Could not load inventory snapshot: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Retrieves a furniture item by its ID.
      *
@@ -89,15 +326,16 @@ public class FurnitureDao {
      */
     public Furniture getFurnitureById(long furnitureId) {
         String sql = "SELECT id, name, color, comment, price, purchase_date, shelf_nbr, weight FROM furniture WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, furnitureId);
             try (ResultSet rs = stmt.executeQuery()) {
+                StringPool pool = StringPool.get();
                 if (rs.next()) {
                     return new Furniture(
                             rs.getLong("id"),
-                            rs.getString("name"),
-                            rs.getString("color"),
+                            pool.intern(rs.getString("name")),
+                            pool.intern(rs.getString("color")),
                             rs.getString("comment"),
                             rs.getDouble("price"),
                             rs.getDate("purchase_date").toLocalDate(),
@@ -121,12 +359,12 @@ public class FurnitureDao {
      * @throws RuntimeException if a database error occurs.
      */
     public void updateFurniture(Furniture furniture) {
+        Validator.FURNITURE.validate(furniture);
         String sql = "UPDATE furniture SET name = ?, color = ?, comment = ?, price = ?, purchase_date = ?, shelf_nbr = ?, weight = ? WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection()) {
-            validateFurnitureExists(furniture.id());
+        validateFurnitureExists(furniture.id());
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE)) {
             conn.setAutoCommit(false);
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                validateFurnitureFields(furniture);
                 stmt.setString(1, furniture.name());
                 stmt.setString(2, furniture.color());
                 stmt.setString(3, furniture.comment());
@@ -139,8 +377,11 @@ public class FurnitureDao {
                 if (rowsAffected == 0) {
                     throw new SQLException("No furniture was updated, check ID: " + furniture.id());
                 }
+                ChangeLog.record(conn, "furniture", furniture.id(), ChangeType.UPDATE);
                 conn.commit();
+                QueryCache.get().invalidate("furniture", ChangeType.UPDATE);
                 System.out.println("Furniture updated: " + furniture.name());
+                DataChangeBus.get().publish(ChangeEvent.updated(Furniture.class, furniture.id(), furniture));
             } catch (SQLException | IllegalArgumentException e) {
                 conn.rollback();
                 logger.log(Level.SEVERE, "Failed to update furniture: {0}", furniture);
@@ -153,23 +394,28 @@ public class FurnitureDao {
     }
 
     /**
-     * Deletes a furniture item and its associated order lines from the database.
+     * Deletes a furniture item and its associated order lines, hot and archived, from the database.
      *
      * @param id The ID of the furniture item to delete.
      * @throws IllegalArgumentException if the furniture does not exist.
      * @throws RuntimeException if a database error occurs.
      */
     public void deleteFurniture(long id) {
+        validateFurnitureExists(id);
         String deleteOrderLinesSql = "DELETE FROM order_line WHERE furniture_id = ?";
+        String deleteArchivedLinesSql = "DELETE FROM order_line_archive WHERE furniture_id = ?";
         String deleteFurnitureSql = "DELETE FROM furniture WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection()) {
-            validateFurnitureExists(id);
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE)) {
             conn.setAutoCommit(false);
             try {
                 try (PreparedStatement stmt = conn.prepareStatement(deleteOrderLinesSql)) {
                     stmt.setLong(1, id);
                     stmt.executeUpdate();
                 }
+                try (PreparedStatement stmt = conn.prepareStatement(deleteArchivedLinesSql)) {
+                    stmt.setLong(1, id);
+                    stmt.executeUpdate();
+                }
                 try (PreparedStatement stmt = conn.prepareStatement(deleteFurnitureSql)) {
                     stmt.setLong(1, id);
                     int rowsAffected = stmt.executeUpdate();
@@ -177,8 +423,11 @@ public class FurnitureDao {
                         throw new SQLException("No furniture was deleted, check ID: " + id);
                     }
                 }
+                ChangeLog.record(conn, "furniture", id, ChangeType.DELETE);
                 conn.commit();
+                QueryCache.get().invalidate("furniture", ChangeType.DELETE);
                 System.out.println("Furniture with ID " + id + " deleted successfully!");
+                DataChangeBus.get().publish(ChangeEvent.deleted(Furniture.class, id));
             } catch (SQLException | IllegalArgumentException e) {
                 conn.rollback();
                 logger.log(Level.SEVERE, "Failed to delete furniture with ID: {0}", id);
@@ -199,7 +448,7 @@ public class FurnitureDao {
      */
     public boolean furnitureExists(long furnitureId) {
         String sql = "SELECT COUNT(*) FROM furniture WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, furnitureId);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -214,33 +463,6 @@ public class FurnitureDao {
         return false;
     }
 
-    /**
-     * Validates that all required furniture fields are non-empty and valid.
-     *
-     * @param furniture The {@link Furniture} object to validate.
-     * @throws IllegalArgumentException if required fields are empty or invalid.
-     */
-    private void validateFurnitureFields(Furniture furniture) {
-        if (furniture.name() == null || furniture.name().isEmpty()) {
-            throw new IllegalArgumentException("Furniture name must be non-empty.");
-        }
-        if (furniture.color() == null || furniture.color().isEmpty()) {
-            throw new IllegalArgumentException("Furniture color must be non-empty.");
-        }
-        if (furniture.price() < 0) {
-            throw new IllegalArgumentException("Furniture price must be non-negative.");
-        }
-        if (furniture.shelfNbr() < 0) {
-            throw new IllegalArgumentException("Shelf number must be non-negative.");
-        }
-        if (furniture.weight() < 0) {
-            throw new IllegalArgumentException("Furniture weight must be non-negative.");
-        }
-        if (furniture.purchaseDate() == null) {
-            throw new IllegalArgumentException("Purchase date must be provided.");
-        }
-    }
-
     /**
      * Validates that a furniture item exists.
      *
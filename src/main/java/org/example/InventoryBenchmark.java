@@ -0,0 +1,125 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the analytics scans on {@link InventorySnapshot} with the same scans over a {@code List<Furniture>}.
+ * Runs on generated data and needs no database.
+ * <p>
+ * Usage: {@code java -cp target/SecondHandProject.jar org.example.InventoryBenchmark [rows] [iterations]}
+ */
+public class InventoryBenchmark {
+    private static final String[] COLORS = {"Blå", "Vit", "Brun", "Svart", "Grå", "Grön", "Röd", "Ek", "Björk", "Valnöt"};
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        LocalDate today = LocalDate.now();
+
+        long heapBefore = usedHeap();
+        List<Furniture> list = generate(rows, new Random(42));
+        long listHeap = usedHeap() - heapBefore;
+
+        heapBefore = usedHeap();
+        InventorySnapshot snapshot = InventorySnapshot.of(list);
+        long snapshotHeap = usedHeap() - heapBefore;
+
+        System.out.printf("Rows: %,d, iterations: %d%n", rows, iterations);
+        System.out.printf("Heap: List<Furniture> ~%,d KB, InventorySnapshot ~%,d KB%n", listHeap / 1024, snapshotHeap / 1024);
+
+        double listResult = 0;
+        double snapshotResult = 0;
+        // Warm-up so both variants are JIT-compiled before timing.
+        for (int i = 0; i < 5; i++) {
+            listResult += scanList(list, today);
+            snapshotResult += scanSnapshot(snapshot, today);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            listResult += scanList(list, today);
+        }
+        long listNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            snapshotResult += scanSnapshot(snapshot, today);
+        }
+        long snapshotNanos = System.nanoTime() - start;
+
+        System.out.printf("List<Furniture>:   %8.2f ms/iteration%n", listNanos / 1e6 / iterations);
+        System.out.printf("InventorySnapshot: %8.2f ms/iteration%n", snapshotNanos / 1e6 / iterations);
+        System.out.printf("Speed-up: %.1fx (checksums %.0f / %.0f)%n",
+                (double) listNanos / snapshotNanos, listResult, snapshotResult);
+    }
+
+    /**
+     * Total price, weight per shelf, average age and a price-range count over the record list.
+     */
+    private static double scanList(List<Furniture> list, LocalDate today) {
+        double total = 0;
+        for (Furniture f : list) {
+            total += f.price();
+        }
+        int maxShelf = 0;
+        for (Furniture f : list) {
+            maxShelf = Math.max(maxShelf, f.shelfNbr());
+        }
+        double[] perShelf = new double[maxShelf + 1];
+        for (Furniture f : list) {
+            perShelf[f.shelfNbr()] += f.weight();
+        }
+        long todayEpochDay = today.toEpochDay();
+        long ageSum = 0;
+        for (Furniture f : list) {
+            ageSum += todayEpochDay - f.purchaseDate().toEpochDay();
+        }
+        int inRange = 0;
+        for (Furniture f : list) {
+            if (f.price() >= 500 && f.price() <= 1500) {
+                inRange++;
+            }
+        }
+        return total + perShelf[0] + (double) ageSum / list.size() + inRange;
+    }
+
+    /**
+     * The same scans as {@link #scanList} on the columnar snapshot.
+     */
+    private static double scanSnapshot(InventorySnapshot snapshot, LocalDate today) {
+        double total = snapshot.totalPrice();
+        double[] perShelf = snapshot.weightPerShelf();
+        double averageAge = snapshot.averageAgeDays(today);
+        int inRange = snapshot.countPriceBetween(500, 1500);
+        return total + perShelf[0] + averageAge + inRange;
+    }
+
+    private static List<Furniture> generate(int rows, Random random) {
+        List<Furniture> list = new ArrayList<>(rows);
+        LocalDate base = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            list.add(new Furniture(
+                    i + 1,
+                    "Möbel " + i,
+                    COLORS[random.nextInt(COLORS.length)],
+                    null,
+                    Math.round(random.nextDouble() * 5000 * 100) / 100.0,
+                    base.plusDays(random.nextInt(3650)),
+                    random.nextInt(200),
+                    Math.round(random.nextDouble() * 80 * 10) / 10.0
+            ));
+        }
+        return list;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,331 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, column-oriented snapshot of the furniture inventory for analytics.
+ * <p>
+ * Every column is a primitive array indexed by row, so scans over one attribute (price, weight, shelf,
+ * purchase date) walk contiguous memory and the simple counted loops below can be vectorised by the JIT.
+ * Colors are dictionary-encoded: {@link #colorCode(int)} returns an index into {@link #colorDictionary()}.
+ * Filters return a selection vector of row indexes that can be passed to the aggregate methods.
+ */
+public final class InventorySnapshot {
+    private final int size;
+    private final long[] ids;
+    private final double[] prices;
+    private final double[] weights;
+    private final int[] shelves;
+    private final int[] purchaseEpochDays;
+    private final int[] colorCodes;
+    private final String[] colorDictionary;
+
+    private InventorySnapshot(Builder b) {
+        this.size = b.size;
+        this.ids = Arrays.copyOf(b.ids, b.size);
+        this.prices = Arrays.copyOf(b.prices, b.size);
+        this.weights = Arrays.copyOf(b.weights, b.size);
+        this.shelves = Arrays.copyOf(b.shelves, b.size);
+        this.purchaseEpochDays = Arrays.copyOf(b.purchaseEpochDays, b.size);
+        this.colorCodes = Arrays.copyOf(b.colorCodes, b.size);
+        this.colorDictionary = b.colorDictionary.keySet().toArray(new String[0]);
+        for (Map.Entry<String, Integer> e : b.colorDictionary.entrySet()) {
+            colorDictionary[e.getValue()] = e.getKey();
+        }
+    }
+
+    /**
+     * Builds a snapshot from already loaded furniture records.
+     */
+    public static InventorySnapshot of(List<Furniture> furniture) {
+        Builder builder = new Builder(furniture.size());
+        for (Furniture f : furniture) {
+            builder.add(f.id(), f.price(), f.weight(), f.shelfNbr(), f.purchaseDate(), f.color());
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    public double price(int row) {
+        return prices[row];
+    }
+
+    public double weight(int row) {
+        return weights[row];
+    }
+
+    public int shelf(int row) {
+        return shelves[row];
+    }
+
+    public LocalDate purchaseDate(int row) {
+        return LocalDate.ofEpochDay(purchaseEpochDays[row]);
+    }
+
+    public int colorCode(int row) {
+        return colorCodes[row];
+    }
+
+    public String color(int row) {
+        return colorDictionary[colorCodes[row]];
+    }
+
+    /**
+     * The distinct colors; a row's color code is an index into this array.
+     */
+    public String[] colorDictionary() {
+        return colorDictionary.clone();
+    }
+
+    /**
+     * Returns the code of {@code color}, or -1 if no item has that color.
+     */
+    public int lookupColor(String color) {
+        for (int i = 0; i < colorDictionary.length; i++) {
+            if (colorDictionary[i].equals(color)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // ---- Aggregates over all rows ----
+
+    public double totalPrice() {
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += prices[i];
+        }
+        return sum;
+    }
+
+    public double averagePrice() {
+        return size == 0 ? 0 : totalPrice() / size;
+    }
+
+    public double minPrice() {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, prices[i]);
+        }
+        return size == 0 ? 0 : min;
+    }
+
+    public double maxPrice() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, prices[i]);
+        }
+        return size == 0 ? 0 : max;
+    }
+
+    public double totalWeight() {
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += weights[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Counts items per price bin: bin {@code k} holds prices in {@code [k * binWidth, (k + 1) * binWidth)},
+     * prices at or above {@code bins * binWidth} fall into the last bin.
+     */
+    public int[] priceHistogram(double binWidth, int bins) {
+        if (binWidth <= 0 || bins <= 0) {
+            throw new IllegalArgumentException("Bin width and bin count must be greater than 0.");
+        }
+        int[] counts = new int[bins];
+        for (int i = 0; i < size; i++) {
+            int bin = (int) (prices[i] / binWidth);
+            counts[Math.min(bin, bins - 1)]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Total weight per shelf, indexed by shelf number.
+     */
+    public double[] weightPerShelf() {
+        double[] perShelf = new double[maxShelf() + 1];
+        for (int i = 0; i < size; i++) {
+            perShelf[shelves[i]] += weights[i];
+        }
+        return perShelf;
+    }
+
+    /**
+     * Number of items per shelf, indexed by shelf number.
+     */
+    public int[] countPerShelf() {
+        int[] perShelf = new int[maxShelf() + 1];
+        for (int i = 0; i < size; i++) {
+            perShelf[shelves[i]]++;
+        }
+        return perShelf;
+    }
+
+    /**
+     * Number of items per color, indexed by color code.
+     */
+    public int[] countPerColor() {
+        int[] perColor = new int[colorDictionary.length];
+        for (int i = 0; i < size; i++) {
+            perColor[colorCodes[i]]++;
+        }
+        return perColor;
+    }
+
+    /**
+     * Average number of days between purchase and {@code today}.
+     */
+    public double averageAgeDays(LocalDate today) {
+        if (size == 0) {
+            return 0;
+        }
+        long todayEpochDay = today.toEpochDay();
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += todayEpochDay - purchaseEpochDays[i];
+        }
+        return (double) sum / size;
+    }
+
+    // ---- Filters returning selection vectors ----
+
+    /**
+     * Rows with {@code min <= price <= max}.
+     */
+    public int[] selectPriceBetween(double min, double max) {
+        int[] selection = new int[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (prices[i] >= min && prices[i] <= max) {
+                selection[n++] = i;
+            }
+        }
+        return Arrays.copyOf(selection, n);
+    }
+
+    /**
+     * Rows purchased before {@code date}.
+     */
+    public int[] selectPurchasedBefore(LocalDate date) {
+        int limit = (int) date.toEpochDay();
+        int[] selection = new int[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (purchaseEpochDays[i] < limit) {
+                selection[n++] = i;
+            }
+        }
+        return Arrays.copyOf(selection, n);
+    }
+
+    /**
+     * Rows with the given color code.
+     */
+    public int[] selectColor(int colorCode) {
+        int[] selection = new int[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (colorCodes[i] == colorCode) {
+                selection[n++] = i;
+            }
+        }
+        return Arrays.copyOf(selection, n);
+    }
+
+    public int countPriceBetween(double min, double max) {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            n += (prices[i] >= min && prices[i] <= max) ? 1 : 0;
+        }
+        return n;
+    }
+
+    // ---- Aggregates over a selection ----
+
+    public double totalPrice(int[] selection) {
+        double sum = 0;
+        for (int row : selection) {
+            sum += prices[row];
+        }
+        return sum;
+    }
+
+    public double totalWeight(int[] selection) {
+        double sum = 0;
+        for (int row : selection) {
+            sum += weights[row];
+        }
+        return sum;
+    }
+
+    private int maxShelf() {
+        int max = 0;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, shelves[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Appends rows into growable primitive columns; used by {@link FurnitureDao#loadInventorySnapshot()}
+     * to fill the snapshot straight from a result set without creating {@link Furniture} records.
+     */
+    static final class Builder {
+        private int size;
+        private long[] ids;
+        private double[] prices;
+        private double[] weights;
+        private int[] shelves;
+        private int[] purchaseEpochDays;
+        private int[] colorCodes;
+        private final Map<String, Integer> colorDictionary = new HashMap<>();
+
+        Builder(int initialCapacity) {
+            int capacity = Math.max(16, initialCapacity);
+            ids = new long[capacity];
+            prices = new double[capacity];
+            weights = new double[capacity];
+            shelves = new int[capacity];
+            purchaseEpochDays = new int[capacity];
+            colorCodes = new int[capacity];
+        }
+
+        void add(long id, double price, double weight, int shelf, LocalDate purchaseDate, String color) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                shelves = Arrays.copyOf(shelves, capacity);
+                purchaseEpochDays = Arrays.copyOf(purchaseEpochDays, capacity);
+                colorCodes = Arrays.copyOf(colorCodes, capacity);
+            }
+            ids[size] = id;
+            prices[size] = price;
+            weights[size] = weight;
+            shelves[size] = shelf;
+            purchaseEpochDays[size] = (int) purchaseDate.toEpochDay();
+            colorCodes[size] = colorDictionary.computeIfAbsent(color == null ? "" : color, c -> colorDictionary.size());
+            size++;
+        }
+
+        InventorySnapshot build() {
+            return new InventorySnapshot(this);
+        }
+    }
+}
@@ -36,12 +36,27 @@ public class Main {
     /**
      * Main entry point for the application.
      *
-     * @param args Command-line arguments (not used).
+     * @param args Command-line arguments. Without arguments the interactive menu is started;
+     *             otherwise a non-interactive command is run and the program exits (see
+     *             {@link BatchCommands#USAGE}). {@code --training-run} runs the startup path once
+     *             without user input (used to build the class-data-sharing archive).
      */
     public static void main(String[] args) {
+        if (args.length > 0) {
+            if (args[0].equals("--training-run")) {
+                runTrainingRun();
+                return;
+            }
+            int status = BatchCommands.run(args);
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
         try {
             while (true) {
                 showMenu();
+                StartupTimer.mark("menu shown");
                 int choice = getUserChoice();
                 switch (choice) {
                     case 1 -> addCustomer();
@@ -60,7 +75,8 @@ public class Main {
                     case 14 -> showFurnitureById();
                     case 15 -> deleteOrder();
                     case 16 -> showOrderValue();
-                    case 17 -> {
+                    case 17 -> archiveOldOrders();
+                    case 18 -> {
                         System.out.println("Exiting...");
                         return;
                     }
@@ -72,6 +88,34 @@ public class Main {
         }
     }
 
+    /**
+     * Runs the startup path once and exits: shows the menu, runs one query and loads the GUI classes
+     * without starting JavaFX. Classes loaded here end up in the AppCDS archive built by the {@code cds}
+     * profile. Prints time-to-menu and time-to-first-query of the training run itself.
+     */
+    private static void runTrainingRun() {
+        showMenu();
+        System.out.println("time-to-menu: " + StartupTimer.sinceLaunchMillis() + " ms");
+        try {
+            int customers = customerDao.countCustomers("");
+            furnitureDao.getFurniturePage("", 0, 100);
+            orderDao.getOrderPage("", 0, 100);
+            System.out.println("time-to-first-query: " + StartupTimer.sinceLaunchMillis() + " ms (" + customers + " customers)");
+        } catch (RuntimeException | LinkageError e) {
+            // Without a database (or db.properties) the archive still covers everything up to the driver.
+            System.out.println("time-to-first-query: failed (" + e + ")");
+        }
+        ClassLoader loader = Main.class.getClassLoader();
+        for (String name : List.of("org.example.App", "org.example.MainController", "org.example.CustomerController",
+                "org.example.EmployeeController", "org.example.FurnitureController", "org.example.OrderController")) {
+            try {
+                Class.forName(name, false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                logger.log(Level.WARNING, "Training run could not load " + name, e);
+            }
+        }
+    }
+
     /**
      * Displays the main menu options.
      */
@@ -93,7 +137,8 @@ public class Main {
         System.out.println("14. Show furniture by ID");
         System.out.println("15. Delete order");
         System.out.println("16. Show total order value");
-        System.out.println("17. Exit");
+        System.out.println("17. Archive old orders");
+        System.out.println("18. Exit");
     }
 
     /**
@@ -163,6 +208,7 @@ public class Main {
     private static void showCustomers() {
         try {
             List<Customer> customers = customerDao.getAllCustomers();
+            StartupTimer.mark("first query");
             if (customers.isEmpty()) {
                 System.out.println("No customers found.");
             } else {
@@ -230,7 +276,8 @@ public class Main {
                 System.out.println((i + 1) + ". " + customers.get(i).firstName() + " " + customers.get(i).lastName());
             }
             int choice = getValidChoice(customers.size());
-            customerDao.deleteCustomer(customers.get(choice - 1).id());
+            customerDao.deleteCustomerChunked(customers.get(choice - 1).id(), OrderPurger.DEFAULT_CHUNK_SIZE,
+                    progress -> System.out.println("Deleting orders... " + progress));
         } catch (Exception e) {
             System.out.println("Error deleting customer: " + e.getMessage());
             logger.log(Level.SEVERE, "Error in deleteCustomer", e);
@@ -403,13 +450,13 @@ public class Main {
         try {
             System.out.print("Enter employee ID: ");
             int employeeId = getValidPositiveInt();
-            List<OrderHead> orders = orderDao.listOrdersForEmployee(employeeId);
+            List<OrderSummary> orders = orderDao.listOrderSummariesForEmployee(employeeId);
             if (orders.isEmpty()) {
                 System.out.println("No orders found for this employee.");
             } else {
                 System.out.println("Orders for employee ID " + employeeId + ":");
-                for (OrderHead order : orders) {
-                    System.out.println(order);
+                for (OrderSummary order : orders) {
+                    System.out.println(order.head());
                 }
             }
         } catch (Exception e) {
@@ -425,13 +472,14 @@ public class Main {
         try {
             System.out.print("Enter employee ID: ");
             int employeeId = getValidPositiveInt();
-            List<OrderDetail> orderDetails = orderDao.listOrdersWithCustomerNameForEmployee(employeeId);
-            if (orderDetails.isEmpty()) {
+            List<OrderSummary> orders = orderDao.listOrderSummariesForEmployee(employeeId);
+            if (orders.isEmpty()) {
                 System.out.println("No orders with customer names found for this employee.");
             } else {
                 System.out.println("Orders with customer names for employee ID " + employeeId + ":");
-                for (OrderDetail detail : orderDetails) {
-                    System.out.println(detail);
+                for (OrderSummary order : orders) {
+                    System.out.println("Order ID: " + order.head().id() + ", Order Date: " + order.head().orderDate()
+                            + ", Customer: " + order.customerName());
                 }
             }
         } catch (Exception e) {
@@ -447,13 +495,13 @@ public class Main {
         try {
             System.out.print("Enter employee ID: ");
             int employeeId = getValidPositiveInt();
-            List<OrderDetail> orderDetails = orderDao.listOrdersWithDetailsForEmployee(employeeId);
-            if (orderDetails.isEmpty()) {
+            List<OrderSummary> orders = orderDao.listOrderSummariesForEmployee(employeeId);
+            if (orders.isEmpty()) {
                 System.out.println("No detailed orders found for this employee.");
             } else {
                 System.out.println("Detailed orders for employee ID " + employeeId + ":");
-                for (OrderDetail detail : orderDetails) {
-                    System.out.println(detail);
+                for (OrderSummary order : orders) {
+                    System.out.println(order);
                 }
             }
         } catch (Exception e) {
@@ -654,6 +702,20 @@ public class Main {
         }
     }
 
+    /**
+     * Moves orders older than the configured maximum age to the archive tables.
+     */
+    private static void archiveOldOrders() {
+        try {
+            OrderArchiver.Result result = new OrderArchiver().archiveExpiredOrders();
+            System.out.printf("Archived %d orders and %d order lines in %d batches.%n",
+                    result.orders(), result.lines(), result.batches());
+        } catch (Exception e) {
+            System.out.println("Error archiving orders: " + e.getMessage());
+            logger.log(Level.SEVERE, "Error in archiveOldOrders", e);
+        }
+    }
+
     /**
      * Displays the total value of an order.
      */
@@ -1,34 +1,145 @@
 package org.example;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
+import javafx.scene.Node;
 import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+
+import java.io.IOException;
 import java.net.URL;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+/**
+ * Controller för huvudfönstret.
+ * <p>
+ * Flikarnas FXML laddas inte i main.fxml utan första gången fliken väljs, så fönstret kan visas innan
+ * någon tabell har lästs. När dashboarden visas förladdas övriga flikar, en i taget på JavaFX-tråden;
+ * flikarnas kontroller hämtar sina data i bakgrunden, så laddningen blockerar inte fönstret.
+ * I offline-läge ({@link OfflineMode}) visas en banderoll och statistiken räknas ur ögonblicksbilden.
+ */
 public class MainController implements Initializable {
+    private static final Logger logger = Logger.getLogger(MainController.class.getName());
 
+    @FXML private Label offlineBanner;
     @FXML private Label dashboardStats;
+    @FXML private TabPane mainTabPane;
+    @FXML private Tab customerTab;
+    @FXML private Tab employeeTab;
+    @FXML private Tab furnitureTab;
+    @FXML private Tab orderTab;
+
+    private static final DateTimeFormatter BANNER_TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
 
     private final CustomerDao customerDao = new CustomerDao();
     private final FurnitureDao furnitureDao = new FurnitureDao();
     private final OrderDao orderDao = new OrderDao();
 
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "dashboard-stats");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Set<Tab> loadedTabs = new HashSet<>();
+
     @Override
     public void initialize(URL url, ResourceBundle rb) {
-        updateDashboardStats();
+        for (Tab tab : lazyTabs()) {
+            tab.setContent(new Label("Laddar..."));
+        }
+        mainTabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
+            if (newTab != null && newTab.getUserData() != null) {
+                loadTab(newTab);
+            }
+        });
+        loader.execute(this::updateDashboardStats);
+
+        OfflineMode offlineMode = OfflineMode.get();
+        offlineBanner.visibleProperty().bind(offlineMode.offlineProperty());
+        offlineBanner.managedProperty().bind(offlineMode.offlineProperty());
+        if (offlineMode.snapshot() != null) {
+            offlineBanner.setText("Databasen kan inte nås ännu. Visar sparad data från "
+                    + BANNER_TIME.format(offlineMode.snapshot().writtenAt()) + ", ändringar är avstängda.");
+        }
+        offlineMode.offlineProperty().addListener((obs, wasOffline, offline) -> {
+            if (!offline) loader.execute(this::updateDashboardStats);
+        });
+    }
+
+    /**
+     * Laddar alla flikar som inte redan laddats, en per puls så att fönstret hinner ritas om mellan dem.
+     * Anropas när första bilden har visats. Nästa flik köas först när den förra har laddats, så att en
+     * omritning hinner komma emellan i stället för att alla fyra körs i samma omgång.
+     */
+    public void preloadTabs() {
+        Platform.runLater(() -> preloadFrom(0));
+    }
+
+    private void preloadFrom(int index) {
+        List<Tab> tabs = lazyTabs();
+        if (index >= tabs.size()) {
+            return;
+        }
+        loadTab(tabs.get(index));
+        Platform.runLater(() -> preloadFrom(index + 1));
+    }
+
+    private List<Tab> lazyTabs() {
+        return List.of(customerTab, employeeTab, furnitureTab, orderTab);
+    }
+
+    /**
+     * Laddar flikens FXML en gång, på JavaFX-tråden eftersom kontrollerns initialize bygger upp noder och
+     * binder egenskaper. Kontrollerna läser sina tabeller i bakgrunden och fyller dem när svaren kommer.
+     */
+    private void loadTab(Tab tab) {
+        if (!loadedTabs.add(tab)) {
+            return;
+        }
+        String fxml = (String) tab.getUserData();
+        long start = System.nanoTime();
+        try {
+            Node content = FXMLLoader.load(MainController.class.getResource("/org/example/" + fxml));
+            tab.setContent(content);
+            logger.info(String.format("Laddade %s på %.1f ms", fxml, (System.nanoTime() - start) / 1e6));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Kunde inte ladda fliken " + tab.getText(), e);
+            tab.setContent(new Label("Kunde inte ladda fliken: " + e.getMessage()));
+        }
     }
 
     private void updateDashboardStats() {
+        String stats;
         try {
-            int customerCount = customerDao.getAllCustomers().size();
-            int furnitureCount = furnitureDao.getAllFurniture().size();
-            int orderCount = orderDao.getAllOrders().size();
-            String stats = String.format("Antal kunder: %d\nAntal möbler: %d\nAntal ordrar: %d",
-                    customerCount, furnitureCount, orderCount);
-            dashboardStats.setText(stats);
+            OfflineMode offlineMode = OfflineMode.get();
+            if (offlineMode.isOffline()) {
+                OfflineSnapshot snapshot = offlineMode.snapshot();
+                stats = String.format("Antal kunder: %d\nAntal möbler: %d\nOrdrar senaste tiden: %d",
+                        snapshot.customers().size(), snapshot.furniture().size(), snapshot.orders().size());
+            } else {
+                int customerCount = customerDao.countCustomers("");
+                int furnitureCount = furnitureDao.countFurniture("");
+                int orderCount = orderDao.countOrders("");
+                stats = String.format("Antal kunder: %d\nAntal möbler: %d\nAntal ordrar: %d",
+                        customerCount, furnitureCount, orderCount);
+            }
         } catch (Exception e) {
-            dashboardStats.setText("Kunde inte ladda statistik: " + e.getMessage());
+            stats = "Kunde inte ladda statistik: " + e.getMessage();
         }
+        String text = stats;
+        Platform.runLater(() -> dashboardStats.setText(text));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package org.example;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Applies {@link ChangeEvent}s as row-level changes to an {@link ObservableList}, on the JavaFX thread.
+ * Only the affected row is added, replaced or removed, so a TableView re-renders one row instead of the table.
+ */
+final class ObservableListPatcher {
+
+    private ObservableListPatcher() {
+    }
+
+    /**
+     * Adds, replaces or removes the row with the event's id.
+     *
+     * @param list  The list backing the table.
+     * @param event The change to apply.
+     * @param idOf  Extracts the id from a row.
+     */
+    static <T> void apply(ObservableList<T> list, ChangeEvent<T> event, ToLongFunction<T> idOf) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> apply(list, event, idOf));
+            return;
+        }
+        int index = indexOf(list, event.id(), idOf);
+        switch (event.type()) {
+            case ADD -> {
+                if (index < 0) {
+                    list.add(event.entity());
+                } else {
+                    list.set(index, event.entity());
+                }
+            }
+            case UPDATE -> {
+                if (index >= 0) {
+                    list.set(index, event.entity());
+                }
+            }
+            case DELETE -> {
+                if (index >= 0) {
+                    list.remove(index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all rows matching {@code filter}, e.g. orders of a deleted customer.
+     */
+    static <T> void removeIf(ObservableList<T> list, Predicate<T> filter) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> removeIf(list, filter));
+            return;
+        }
+        list.removeIf(filter);
+    }
+
+    private static <T> int indexOf(ObservableList<T> list, long id, ToLongFunction<T> idOf) {
+        for (int i = 0; i < list.size(); i++) {
+            if (idOf.applyAsLong(list.get(i)) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,214 @@
+package org.example;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Skrivskyddat läge när databasen är långsam eller nere.
+ * <p>
+ * Finns en {@link OfflineSnapshot} på disk när programmet startar visas den direkt och
+ * programmet är skrivskyddat tills databasen svarar. Databasen kontrolleras i bakgrunden; när den
+ * kan nås byts läget till live och flikarna läser om sina tabeller från databasen. I live-läge skrivs
+ * en ny ögonblicksbild var {@code snapshot.intervalMinutes} minut.
+ * <p>
+ * Läget går bara från offline till live. Tappas databasen under körning visas fel som tidigare.
+ */
+final class OfflineMode {
+    private static final Logger logger = Logger.getLogger(OfflineMode.class.getName());
+    private static final OfflineMode INSTANCE = new OfflineMode();
+    private static final long RETRY_SECONDS = 15;
+
+    private final ReadOnlyBooleanWrapper offlineProperty = new ReadOnlyBooleanWrapper(false);
+    private volatile boolean offline;
+    private volatile OfflineSnapshot snapshot;
+    private volatile ScheduledExecutorService scheduler;
+    private Path file;
+    private int orderDays;
+
+    private OfflineMode() {
+    }
+
+    static OfflineMode get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Läser ögonblicksbilden om den finns och startar bakgrundskontrollen. Anropas på JavaFX-tråden
+     * innan huvudfönstret laddas.
+     */
+    synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        file = Path.of(DBConnection.getProperty("snapshot.path",
+                Path.of(System.getProperty("user.home"), ".secondhand", "snapshot.bin").toString()));
+        orderDays = DBConnection.getIntProperty("snapshot.orderDays", 90);
+        if (Files.isRegularFile(file)) {
+            try {
+                snapshot = OfflineSnapshot.load(file);
+                setOffline(true);
+                StartupTimer.mark("offline snapshot loaded");
+            } catch (IOException | IllegalStateException e) {
+                logger.log(Level.WARNING, "Kunde inte läsa ögonblicksbilden " + file + ", startar utan den", e);
+            }
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "offline-mode");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.execute(this::checkDatabase);
+    }
+
+    synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Om programmet visar ögonblicksbilden i stället för databasen. Kan läsas från alla trådar.
+     */
+    boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Samma som {@link #isOffline()} för bindningar på JavaFX-tråden, t.ex. för att inaktivera knappar
+     * som skriver till databasen.
+     */
+    ReadOnlyBooleanProperty offlineProperty() {
+        return offlineProperty.getReadOnlyProperty();
+    }
+
+    /**
+     * Den inlästa ögonblicksbilden, eller null om ingen fanns vid start.
+     */
+    OfflineSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Kastar om programmet är skrivskyddat.
+     *
+     * @throws IllegalStateException i offline-läge.
+     */
+    void requireOnline() {
+        if (offline) {
+            throw new IllegalStateException("Databasen kan inte nås just nu, ändringar är avstängda.");
+        }
+    }
+
+    /**
+     * Lyssnare som bara tillämpar ändringshändelser i live-läge. {@link ChangeLogPoller} kör även i offline-läge
+     * och kan leverera händelser så snart databasen svarar igen, innan bakgrundskontrollen har bytt läge; de
+     * ska inte blandas in i ögonblicksbilden. Flikarna läser om sina tabeller när läget byts till live.
+     */
+    static <T> Consumer<ChangeEvent<T>> whenLive(Consumer<ChangeEvent<T>> listener) {
+        return event -> {
+            if (!INSTANCE.offline) {
+                listener.accept(event);
+            }
+        };
+    }
+
+    /**
+     * Sidkälla som läser från databasen i live-läge och filtrerar ögonblicksbildens rader i offline-läge.
+     *
+     * @param rows    Väljer tabellens rader ur ögonblicksbilden.
+     * @param matches Om en rad matchar filtertexten (gemener); ska motsvara DAO:ns filter.
+     */
+    static <T> PagedList.PageSource<T> withFallback(PagedList.PageSource<T> live,
+                                                    Function<OfflineSnapshot, List<T>> rows,
+                                                    BiPredicate<T, String> matches) {
+        return new PagedList.PageSource<>() {
+            @Override
+            public int count(String filter) {
+                return INSTANCE.offline ? offlineRows(filter).size() : live.count(filter);
+            }
+
+            @Override
+            public List<T> fetch(String filter, int offset, int limit) {
+                return fetch(filter, offset, limit, null);
+            }
+
+            @Override
+            public List<T> fetch(String filter, int offset, int limit, T previous) {
+                if (!INSTANCE.offline) {
+                    return live.fetch(filter, offset, limit, previous);
+                }
+                List<T> all = offlineRows(filter);
+                return all.subList(Math.min(offset, all.size()), Math.min(offset + limit, all.size()));
+            }
+
+            private List<T> offlineRows(String filter) {
+                List<T> all = rows.apply(INSTANCE.snapshot);
+                if (filter == null || filter.isBlank()) {
+                    return all;
+                }
+                String needle = filter.trim().toLowerCase(Locale.ROOT);
+                return all.stream().filter(row -> matches.test(row, needle)).toList();
+            }
+        };
+    }
+
+    /**
+     * Kontrollerar databasen tills den svarar, byter sedan till live-läge och schemalägger ögonblicksbilder.
+     */
+    private void checkDatabase() {
+        ScheduledExecutorService scheduler = this.scheduler;
+        if (scheduler == null) {
+            return;
+        }
+        try (Connection conn = DBConnection.getConnection()) {
+            if (!conn.isValid(5)) {
+                throw new SQLException("Anslutningen svarar inte");
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.info("Databasen kan inte nås (" + e.getMessage() + "), försöker igen om " + RETRY_SECONDS + " s");
+            scheduler.schedule(this::checkDatabase, RETRY_SECONDS, TimeUnit.SECONDS);
+            return;
+        }
+        if (offline) {
+            logger.info("Databasen kan nås, byter från ögonblicksbild till live-data");
+            setOffline(false);
+        }
+        long interval = DBConnection.getIntProperty("snapshot.intervalMinutes", 10);
+        scheduler.scheduleWithFixedDelay(this::writeSnapshot, 0, interval, TimeUnit.MINUTES);
+    }
+
+    private void writeSnapshot() {
+        try {
+            OfflineSnapshot.write(file, orderDays);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Kunde inte skriva ögonblicksbilden " + file, e);
+        }
+    }
+
+    private void setOffline(boolean value) {
+        offline = value;
+        if (Platform.isFxApplicationThread()) {
+            offlineProperty.set(value);
+        } else {
+            Platform.runLater(() -> offlineProperty.set(value));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A local, read-only copy of customers, employees, furniture and recent order heads.
+ * <p>
+ * The file is a sequence of {@link BinaryExportWriter} sections, one per table, written from streamed DAO
+ * reads into a temporary file that then replaces the old snapshot atomically. On startup it is memory-mapped
+ * and decoded in one pass, so the UI can show data before (or without) a database connection.
+ */
+final class OfflineSnapshot {
+    private static final Logger logger = Logger.getLogger(OfflineSnapshot.class.getName());
+
+    private final Instant writtenAt;
+    private final List<Customer> customers;
+    private final List<Employee> employees;
+    private final List<Furniture> furniture;
+    private final List<OrderHead> orders;
+
+    private OfflineSnapshot(Instant writtenAt, List<Customer> customers, List<Employee> employees,
+                            List<Furniture> furniture, List<OrderHead> orders) {
+        this.writtenAt = writtenAt;
+        this.customers = List.copyOf(customers);
+        this.employees = List.copyOf(employees);
+        this.furniture = List.copyOf(furniture);
+        this.orders = List.copyOf(orders);
+    }
+
+    Instant writtenAt() {
+        return writtenAt;
+    }
+
+    List<Customer> customers() {
+        return customers;
+    }
+
+    List<Employee> employees() {
+        return employees;
+    }
+
+    List<Furniture> furniture() {
+        return furniture;
+    }
+
+    List<OrderHead> orders() {
+        return orders;
+    }
+
+    /**
+     * Writes a new snapshot of the live database to {@code file}.
+     *
+     * @param orderDays Order heads from this many days back are included.
+     * @throws IOException if the file cannot be written.
+     * @throws RuntimeException if a database error occurs.
+     */
+    static void write(Path file, int orderDays) throws IOException {
+        long start = System.nanoTime();
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "snapshot", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeSection(channel, "customer", encoder -> new CustomerDao().streamCustomers(encoder));
+                writeSection(channel, "employee", encoder -> new EmployeeDao().streamEmployees(encoder));
+                writeSection(channel, "furniture", encoder -> new FurnitureDao().streamFurniture(encoder));
+                LocalDate since = LocalDate.now().minusDays(orderDays);
+                writeSection(channel, "order_head", encoder -> new OrderDao().streamOrderHeadsSince(since, encoder));
+                channel.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        logger.info(String.format("Offline snapshot written to %s (%d bytes) in %.0f ms",
+                file, Files.size(file), (System.nanoTime() - start) / 1e6));
+    }
+
+    private interface SectionSource {
+        void stream(TableExporter.RowEncoder encoder);
+    }
+
+    private static void writeSection(FileChannel channel, String table, SectionSource source) throws IOException {
+        // Not closed here: closing the writer would close the shared channel.
+        BinaryExportWriter writer = new BinaryExportWriter(channel);
+        TableExporter.RowEncoder encoder = new TableExporter.RowEncoder(table, writer);
+        try {
+            source.stream(encoder);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (!encoder.started()) {
+            writer.begin(table, new String[0], new ExportWriter.ColumnType[0]);
+        }
+        writer.finish();
+    }
+
+    /**
+     * Memory-maps and decodes a snapshot file.
+     *
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalStateException if the file is corrupt.
+     */
+    static OfflineSnapshot load(Path file) throws IOException {
+        long start = System.nanoTime();
+        List<Customer> customers = new ArrayList<>();
+        List<Employee> employees = new ArrayList<>();
+        List<Furniture> furniture = new ArrayList<>();
+        List<OrderHead> orders = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            BinaryExportReader in = new BinaryExportReader(buffer);
+            StringPool pool = StringPool.get();
+            while (in.nextSection()) {
+                // Columns are read in the order of the DAO stream queries; repeated values are pooled as in the DAOs.
+                switch (in.table()) {
+                    case "customer" -> {
+                        while (in.nextRow()) {
+                            customers.add(new Customer(in.readLong(), pool.intern(in.readString()),
+                                    pool.intern(in.readString()), in.readString(), LocalDate.ofEpochDay(in.readDate()),
+                                    pool.intern(in.readString()), pool.intern(in.readString())));
+                        }
+                    }
+                    case "employee" -> {
+                        while (in.nextRow()) {
+                            employees.add(new Employee(in.readLong(), in.readString(), in.readString(),
+                                    in.readString(), in.readString(), LocalDate.ofEpochDay(in.readDate())));
+                        }
+                    }
+                    case "furniture" -> {
+                        while (in.nextRow()) {
+                            furniture.add(new Furniture(in.readLong(), pool.intern(in.readString()),
+                                    pool.intern(in.readString()), in.readString(), in.readDouble(), LocalDate.ofEpochDay(in.readDate()),
+                                    (int) in.readLong(), in.readDouble()));
+                        }
+                    }
+                    case "order_head" -> {
+                        while (in.nextRow()) {
+                            orders.add(new OrderHead(in.readLong(), LocalDate.ofEpochDay(in.readDate()),
+                                    in.readLong(), in.readLong()));
+                        }
+                    }
+                    default -> throw new IllegalStateException("Unknown snapshot section " + in.table());
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Corrupt offline snapshot " + file + ": " + e.getMessage(), e);
+        }
+        OfflineSnapshot snapshot = new OfflineSnapshot(Files.getLastModifiedTime(file).toInstant(),
+                customers, employees, furniture, orders);
+        logger.info(String.format("Offline snapshot loaded from %s: %d customers, %d employees, %d furniture, %d orders in %.0f ms",
+                file, customers.size(), employees.size(), furniture.size(), orders.size(), (System.nanoTime() - start) / 1e6));
+        return snapshot;
+    }
+}
@@ -0,0 +1,146 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves old orders from the hot tables (order_head, order_line) to the archive tables
+ * (order_head_archive, order_line_archive).
+ * <p>
+ * Orders are moved in throttled batches: each batch copies and deletes at most {@code archive.batchSize}
+ * orders in its own transaction and then pauses {@code archive.pauseMillis} ms so that counter traffic
+ * is not starved. Keeping only recent orders in the hot tables keeps them and their indexes small.
+ * <p>
+ * Each batch records its orders in change_log as order_head deletions and publishes the same
+ * {@link ChangeEvent}s, so open order views here and in other clients drop the archived orders.
+ */
+public class OrderArchiver {
+    private static final Logger logger = Logger.getLogger(OrderArchiver.class.getName());
+
+    private static final String SELECT_IDS_SQL =
+            "SELECT id FROM order_head WHERE order_date < ? ORDER BY id LIMIT ?";
+    private static final String COPY_HEADS_SQL =
+            "INSERT INTO order_head_archive (id, order_date, customer_id, employee_id) " +
+            "SELECT id, order_date, customer_id, employee_id FROM order_head WHERE id IN (";
+    private static final String COPY_LINES_SQL =
+            "INSERT INTO order_line_archive (id, order_id, furniture_id, quantity) " +
+            "SELECT id, order_id, furniture_id, quantity FROM order_line WHERE order_id IN (";
+
+    /**
+     * The outcome of an archiving run.
+     *
+     * @param batches Number of committed batches.
+     * @param orders  Number of archived order heads.
+     * @param lines   Number of archived order lines.
+     */
+    public record Result(int batches, long orders, long lines) {
+    }
+
+    private final int maxAgeDays;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    /**
+     * Creates an archiver configured from db.properties
+     * ({@code archive.maxAgeDays}, {@code archive.batchSize}, {@code archive.pauseMillis}).
+     */
+    public OrderArchiver() {
+        this(DBConnection.getIntProperty("archive.maxAgeDays", 365),
+                DBConnection.getIntProperty("archive.batchSize", 500),
+                DBConnection.getIntProperty("archive.pauseMillis", 200));
+    }
+
+    public OrderArchiver(int maxAgeDays, int batchSize, long pauseMillis) {
+        if (maxAgeDays < 0 || batchSize <= 0 || pauseMillis < 0) {
+            throw new IllegalArgumentException("Invalid archive settings: maxAgeDays=" + maxAgeDays
+                    + ", batchSize=" + batchSize + ", pauseMillis=" + pauseMillis);
+        }
+        this.maxAgeDays = maxAgeDays;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    /**
+     * Archives all orders older than the configured maximum age.
+     */
+    public Result archiveExpiredOrders() {
+        return archiveOrdersBefore(LocalDate.now().minusDays(maxAgeDays));
+    }
+
+    /**
+     * Archives all orders with an order date strictly before {@code cutoff}.
+     *
+     * @param cutoff The first order date that stays in the hot tables.
+     * @return The number of batches, orders and lines that were archived.
+     * @throws RuntimeException if a database error occurs; batches committed before the error stay archived.
+     */
+    public Result archiveOrdersBefore(LocalDate cutoff) {
+        int batches = 0;
+        long orders = 0;
+        long lines = 0;
+        try (Connection conn = DBConnection.getConnection(Workload.BULK)) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement select = conn.prepareStatement(SELECT_IDS_SQL)) {
+                while (true) {
+                    select.setDate(1, Date.valueOf(cutoff));
+                    select.setInt(2, batchSize);
+                    List<Long> ids = new ArrayList<>(batchSize);
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getLong(1));
+                        }
+                    }
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+
+                    OrderPurger.executeWithIds(conn, COPY_HEADS_SQL, ids);
+                    OrderPurger.executeWithIds(conn, COPY_LINES_SQL, ids);
+                    lines += OrderPurger.executeWithIds(conn, "DELETE FROM order_line WHERE order_id IN (", ids);
+                    orders += OrderPurger.executeWithIds(conn, "DELETE FROM order_head WHERE id IN (", ids);
+                    // To the live views an archived order is deleted; other clients learn of it from change_log
+                    ChangeLog.recordAll(conn, "order_head", ids, ChangeType.DELETE);
+                    conn.commit();
+                    // Archived orders move out of the live tables; cached results that exclude the archive change.
+                    QueryCache.get().invalidate("order_head", "order_line");
+                    ids.forEach(id -> DataChangeBus.get().publish(ChangeEvent.deleted(OrderHead.class, id)));
+                    batches++;
+
+                    if (ids.size() < batchSize) {
+                        break;
+                    }
+                    pause();
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to archive orders before " + cutoff + " after " + orders + " orders", e);
+            throw new RuntimeException("Could not archive orders: " + e.getMessage(), e);
+        }
+        logger.info("Archived " + orders + " orders and " + lines + " order lines older than " + cutoff
+                + " in " + batches + " batches");
+        return new Result(batches, orders, lines);
+    }
+
+    private void pause() {
+        if (pauseMillis == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Archiving interrupted", e);
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package org.example;
 
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -14,15 +14,14 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.StringJoiner;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 public class OrderController implements Initializable {
 
     private static final Logger logger = Logger.getLogger(OrderController.class.getName());
     private final OrderDao orderDao = new OrderDao();
     private final CustomerDao customerDao = new CustomerDao();
-    private final EmployeeDao employeeDao = new EmployeeDao();
     private final FurnitureDao furnitureDao = new FurnitureDao();
 
     @FXML private TextField orderIdField;
@@ -54,9 +53,29 @@ public class OrderController implements Initializable {
 
     @FXML private Label feedbackLabel;
 
-    private final ObservableList<OrderHead> orderList = FXCollections.observableArrayList();
+    private final PagedList<OrderHead> orderList = new PagedList<>(OfflineMode.withFallback(new PagedList.PageSource<>() {
+        @Override
+        public int count(String filter) {
+            return orderDao.countOrders(OrderSearchCriteria.parse(filter));
+        }
+
+        @Override
+        public List<OrderHead> fetch(String filter, int offset, int limit) {
+            return fetch(filter, offset, limit, null);
+        }
+
+        @Override
+        public List<OrderHead> fetch(String filter, int offset, int limit, OrderHead previous) {
+            // Continue after the previous page's last order; only a jump into the middle needs an OFFSET lookup.
+            OrderSearchCriteria criteria = OrderSearchCriteria.parse(filter);
+            Long afterId = previous != null ? Long.valueOf(previous.id())
+                    : offset == 0 ? Long.valueOf(0) : orderDao.findOrderIdAt(criteria, offset - 1);
+            return afterId == null ? List.of()
+                    : orderDao.searchOrders(criteria, new PageRequest(afterId, limit)).orders();
+        }
+    }, OfflineSnapshot::orders, (o, filter) -> OrderSearchCriteria.parse(filter).matches(o)), OrderHead::id,
+            new OrderHead(0, LocalDate.EPOCH, 0, 0));
     private final ObservableList<OrderDetail> detailList = FXCollections.observableArrayList();
-    private FilteredList<OrderHead> filteredOrderList;
 
     @Override
     public void initialize(URL url, ResourceBundle rb) {
@@ -66,9 +85,9 @@ public class OrderController implements Initializable {
         customerIdColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().customerId()));
         employeeIdColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().employeeId()));
 
-        // Setup filtered list for orders
-        filteredOrderList = new FilteredList<>(orderList, p -> true);
-        orderTable.setItems(filteredOrderList);
+        // Rows are paged from the database in ID order, so client-side sorting is disabled
+        orderTable.getColumns().forEach(column -> column.setSortable(false));
+        orderTable.setItems(orderList);
 
         // Setup OrderDetail table
         detailIdColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().orderId()));
@@ -83,30 +102,46 @@ public class OrderController implements Initializable {
         // Load initial data
         showAllOrders();
 
+        // Apply row-level changes published by the DAOs instead of reloading the table.
+        // Deleting a customer or employee also deletes their orders, which may be on pages not loaded.
+        DataChangeBus.get().subscribe(OrderHead.class, OfflineMode.whenLive(orderList::apply));
+        DataChangeBus.get().subscribe(Customer.class, e -> {
+            if (e.type() == ChangeType.DELETE) {
+                Platform.runLater(orderList::refresh);
+            }
+        });
+        DataChangeBus.get().subscribe(Employee.class, e -> {
+            if (e.type() == ChangeType.DELETE) {
+                Platform.runLater(orderList::refresh);
+            }
+        });
+
         // Table row click handler for orders
         orderTable.setOnMouseClicked((MouseEvent me) -> {
             OrderHead sel = orderTable.getSelectionModel().getSelectedItem();
-            if (sel != null) {
+            if (sel != null && !orderList.isPlaceholder(sel)) {
                 populateOrderFields(sel);
                 feedbackLabel.setText("");
             }
         });
 
         // Real-time validation
-        customerIdField.textProperty().addListener((o, old, nw) -> validateField(customerIdField, "\\d+"));
-        employeeIdField.textProperty().addListener((o, old, nw) -> validateField(employeeIdField, "\\d+"));
-        orderIdField.textProperty().addListener((o, old, nw) -> validateField(orderIdField, "\\d+"));
+        customerIdField.textProperty().addListener((o, old, nw) -> validateField(customerIdField, FieldRule.DIGITS));
+        employeeIdField.textProperty().addListener((o, old, nw) -> validateField(employeeIdField, FieldRule.DIGITS));
+        orderIdField.textProperty().addListener((o, old, nw) -> validateField(orderIdField, FieldRule.DIGITS));
         orderDatePicker.valueProperty().addListener((o, old, nw) -> validateDatePicker(orderDatePicker));
 
-        // Filter field listener
+        // Filter field listener, the filter is applied by the database
+        filterField.setTooltip(new Tooltip(OrderSearchCriteria.SYNTAX));
         filterField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredOrderList.setPredicate(order -> {
-                if (newValue == null || newValue.trim().isEmpty()) {
-                    return true;
+            orderList.setFilter(newValue).whenComplete((count, ex) -> {
+                if (ex == null) {
+                    feedbackLabel.setText("");
+                } else {
+                    feedbackLabel.setText("Fel vid filtrering: " + ex.getMessage());
+                    feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
+                    logger.severe(ex.toString());
                 }
-                String lowerCaseFilter = newValue.toLowerCase();
-                return String.valueOf(order.customerId()).contains(lowerCaseFilter) ||
-                        String.valueOf(order.employeeId()).contains(lowerCaseFilter);
             });
         });
 
@@ -117,27 +152,40 @@ public class OrderController implements Initializable {
         showOrderDetailsButton.setOnAction(e -> showOrderDetailsForEmployee());
         deleteOrderButton.setOnAction(e -> deleteOrder());
         showOrderValueButton.setOnAction(e -> showOrderValue());
+
+        // Read-only while the offline snapshot (recent orders only) is shown. The employee views and the order
+        // value read order lines and prices, which the snapshot does not have. Reload once the database is reachable
+        for (Button button : List.of(createOrderButton, deleteOrderButton, showOrdersWithNamesButton,
+                showOrderDetailsButton, showOrderValueButton)) {
+            button.disableProperty().bind(OfflineMode.get().offlineProperty());
+        }
+        OfflineMode.get().offlineProperty().addListener((obs, wasOffline, offline) -> {
+            if (!offline) {
+                showAllOrders();
+                RecommendationIndex.loadInBackground();
+            }
+        });
+
+        // Co-purchase suggestions for the order line dialog; built from the order history in the background
+        if (!OfflineMode.get().isOffline()) {
+            RecommendationIndex.loadInBackground();
+        }
     }
 
     @FXML
     private void createOrder() {
         if (!collectAndValidateInput()) return;
         try {
-            long cid = Long.parseLong(customerIdField.getText().trim());
-            long eid = Long.parseLong(employeeIdField.getText().trim());
+            OrderHead order = formOrder();
+            long cid = order.customerId();
 
-            // Validate customer and employee existence
+            // Validate customer existence; the employee is checked when the order is written
             Customer customer = customerDao.getCustomerById(cid);
             if (customer == null) {
                 feedbackLabel.setText("Kund med ID " + cid + " finns inte.");
                 feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
                 return;
             }
-            if (employeeDao.getEmployeeById(eid) == null) {
-                feedbackLabel.setText("Anställd med ID " + eid + " finns inte.");
-                feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
-                return;
-            }
 
             // Dialog for adding order lines
             List<OrderLine> lines = new ArrayList<>();
@@ -160,7 +208,7 @@ public class OrderController implements Initializable {
 
                     TextInputDialog qtyDialog = new TextInputDialog("1");
                     qtyDialog.setTitle("Lägg till orderrad");
-                    qtyDialog.setHeaderText("Ange antal för möbel: " + f.name());
+                    qtyDialog.setHeaderText("Ange antal för möbel: " + f.name() + alsoBought(fid));
                     qtyDialog.setContentText("Antal:");
                     String qty = qtyDialog.showAndWait().orElse("");
                     int quantity = Integer.parseInt(qty);
@@ -183,12 +231,29 @@ public class OrderController implements Initializable {
                 return;
             }
 
-            OrderHead order = new OrderHead(0, orderDatePicker.getValue(), cid, eid);
-            orderDao.createOrder(order, lines);
-            feedbackLabel.setText("Order skapad!");
-            feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
-            showAllOrders();
-            clearFields();
+            OrderSubmissionQueue queue = OrderSubmissionQueue.getIfEnabled();
+            if (queue == null) {
+                orderDao.createOrder(order, lines);
+                feedbackLabel.setText("Order skapad!");
+                feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
+                clearFields();
+            } else {
+                // Written in this client's next group commit; the table updates from its event. The fields are
+                // kept until the order is written so that a failed order can be corrected and resubmitted.
+                queue.submit(order, lines).whenComplete((orderId, error) -> Platform.runLater(() -> {
+                    if (error == null) {
+                        feedbackLabel.setText("Order " + orderId + " skapad!");
+                        feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
+                        clearFields();
+                    } else {
+                        feedbackLabel.setText("Fel: " + error.getMessage());
+                        feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
+                        logger.severe(error.toString());
+                    }
+                }));
+                feedbackLabel.setText("Order skickad...");
+                feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
+            }
         } catch (Exception ex) {
             feedbackLabel.setText("Fel: " + ex.getMessage());
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
@@ -198,17 +263,18 @@ public class OrderController implements Initializable {
 
     @FXML
     private void showAllOrders() {
-        try {
-            orderList.setAll(orderDao.getAllOrders());
-            filterField.clear();
-            detailList.clear();
-            feedbackLabel.setText("Alla ordrar visas.");
-            feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
-        } catch (Exception ex) {
-            feedbackLabel.setText("Fel vid hämtning: " + ex.getMessage());
-            feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
-            logger.severe(ex.toString());
-        }
+        filterField.clear();
+        detailList.clear();
+        orderList.refresh().whenComplete((count, ex) -> {
+            if (ex == null) {
+                feedbackLabel.setText("Alla ordrar visas.");
+                feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
+            } else {
+                feedbackLabel.setText("Fel vid hämtning: " + ex.getMessage());
+                feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
+                logger.severe(ex.toString());
+            }
+        });
     }
 
     @FXML
@@ -220,17 +286,20 @@ public class OrderController implements Initializable {
         dialog.showAndWait().ifPresent(employeeId -> {
             try {
                 long eid = Long.parseLong(employeeId);
-                if (employeeDao.getEmployeeById(eid) == null) {
-                    feedbackLabel.setText("Anställd med ID " + eid + " finns inte.");
-                    feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
-                    return;
+                List<OrderDetail> rows = new ArrayList<>();
+                for (OrderSummary order : orderDao.listOrderSummariesForEmployee(eid)) {
+                    rows.addAll(order.toDetails());
                 }
-                detailList.setAll(orderDao.listOrdersWithCustomerNameForEmployee(eid));
+                detailList.setAll(rows);
                 feedbackLabel.setText("Ordrar med kundnamn för anställd " + eid + " visas.");
                 feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
             } catch (NumberFormatException ex) {
                 feedbackLabel.setText("Ogiltigt anställd-ID.");
                 feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
+            } catch (IllegalArgumentException ex) {
+                // The only IllegalArgumentException from listOrderSummariesForEmployee: no such employee
+                feedbackLabel.setText("Anställd med ID " + employeeId + " finns inte.");
+                feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             } catch (Exception ex) {
                 feedbackLabel.setText("Fel: " + ex.getMessage());
                 feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
@@ -248,17 +317,22 @@ public class OrderController implements Initializable {
         dialog.showAndWait().ifPresent(employeeId -> {
             try {
                 long eid = Long.parseLong(employeeId);
-                if (employeeDao.getEmployeeById(eid) == null) {
-                    feedbackLabel.setText("Anställd med ID " + eid + " finns inte.");
-                    feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
-                    return;
+                List<OrderDetail> rows = new ArrayList<>();
+                for (OrderSummary order : orderDao.listOrderSummariesForEmployee(eid)) {
+                    if (!order.lines().isEmpty()) {
+                        rows.addAll(order.toDetails());
+                    }
                 }
-                detailList.setAll(orderDao.listOrdersWithDetailsForEmployee(eid));
+                detailList.setAll(rows);
                 feedbackLabel.setText("Detaljerade ordrar för anställd " + eid + " visas.");
                 feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
             } catch (NumberFormatException ex) {
                 feedbackLabel.setText("Ogiltigt anställd-ID.");
                 feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
+            } catch (IllegalArgumentException ex) {
+                // The only IllegalArgumentException from listOrderSummariesForEmployee: no such employee
+                feedbackLabel.setText("Anställd med ID " + employeeId + " finns inte.");
+                feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             } catch (Exception ex) {
                 feedbackLabel.setText("Fel: " + ex.getMessage());
                 feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
@@ -279,7 +353,6 @@ public class OrderController implements Initializable {
                 orderDao.deleteOrder(oid);
                 feedbackLabel.setText("Order " + oid + " borttagen!");
                 feedbackLabel.setStyle("-fx-text-fill: #388e3c;");
-                showAllOrders();
                 clearFields();
             } catch (NumberFormatException ex) {
                 feedbackLabel.setText("Ogiltigt order-ID.");
@@ -315,6 +388,22 @@ public class OrderController implements Initializable {
         });
     }
 
+    /**
+     * "Köptes också med"-tips från {@link RecommendationIndex}, tom text om indexet inte är laddat eller saknar tips.
+     */
+    private String alsoBought(long furnitureId) {
+        RecommendationIndex index = RecommendationIndex.getIfLoaded();
+        long[] related = index == null ? new long[0] : index.related(furnitureId);
+        if (related.length == 0) {
+            return "";
+        }
+        StringJoiner ids = new StringJoiner(", ", "\nKöps ofta tillsammans med möbel-ID: ", "");
+        for (long id : related) {
+            ids.add(String.valueOf(id));
+        }
+        return ids.toString();
+    }
+
     private boolean collectAndValidateInput() {
         if (orderDatePicker.getValue() == null ||
                 customerIdField.getText().isBlank() ||
@@ -323,20 +412,37 @@ public class OrderController implements Initializable {
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return false;
         }
-        if (orderDatePicker.getValue().isAfter(LocalDate.now())) {
-            feedbackLabel.setText("Orderdatum kan inte vara i framtiden.");
+        if (!FieldRule.DIGITS.test(customerIdField.getText().trim()) ||
+                !FieldRule.DIGITS.test(employeeIdField.getText().trim())) {
+            feedbackLabel.setText("Kund-ID och anställd-ID måste vara numeriska.");
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return false;
         }
-        if (!Pattern.matches("\\d+", customerIdField.getText().trim()) ||
-                !Pattern.matches("\\d+", employeeIdField.getText().trim())) {
-            feedbackLabel.setText("Kund-ID och anställd-ID måste vara numeriska.");
+        // Same rules as in OrderDao.createOrder, checked before the order line dialogs
+        String violation;
+        try {
+            violation = Validator.ORDER_HEAD.violation(formOrder());
+        } catch (NumberFormatException ex) {
+            violation = "Kund-ID och anställd-ID måste vara numeriska.";
+        }
+        if (violation != null) {
+            feedbackLabel.setText(violation);
             feedbackLabel.setStyle("-fx-text-fill: #d32f2f;");
             return false;
         }
         return true;
     }
 
+    /**
+     * The new order head in the form; the fields must have passed the checks in {@link #collectAndValidateInput()}.
+     *
+     * @throws NumberFormatException if an ID is out of range.
+     */
+    private OrderHead formOrder() {
+        return new OrderHead(0, orderDatePicker.getValue(),
+                Long.parseLong(customerIdField.getText().trim()), Long.parseLong(employeeIdField.getText().trim()));
+    }
+
     private void populateOrderFields(OrderHead o) {
         orderIdField.setText(String.valueOf(o.id()));
         orderDatePicker.setValue(o.orderDate());
@@ -353,8 +459,8 @@ public class OrderController implements Initializable {
         feedbackLabel.setText("");
     }
 
-    private void validateField(TextField tf, String regex) {
-        if (tf.getText().trim().isEmpty() || Pattern.matches(regex, tf.getText().trim())) {
+    private void validateField(TextField tf, FieldRule rule) {
+        if (tf.getText().trim().isEmpty() || rule.test(tf.getText().trim())) {
             tf.setStyle("");
         } else {
             tf.setStyle("-fx-border-color: red;");
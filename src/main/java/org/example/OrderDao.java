@@ -3,7 +3,12 @@ package org.example;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,19 +18,49 @@ import java.util.logging.Logger;
 public class OrderDao {
     private static final Logger logger = Logger.getLogger(OrderDao.class.getName());
 
+    /**
+     * Tables read by the per-employee order views, which are served from {@link QueryCache}.
+     */
+    private static final Set<String> EMPLOYEE_ORDER_TABLES =
+            Set.of("employee", "customer", "furniture", "order_head", "order_line");
+    private static final Set<String> CUSTOMER_ORDER_TABLES =
+            Set.of("customer", "furniture", "order_head", "order_line");
+
+    /**
+     * Hot and archived order heads as one derived table, used when a read asks for archived data.
+     */
+    private static final String ALL_ORDER_HEADS =
+            "(SELECT id, order_date, customer_id, employee_id FROM order_head " +
+            "UNION ALL SELECT id, order_date, customer_id, employee_id FROM order_head_archive)";
+    /**
+     * Hot and archived order lines as one derived table, used when a read asks for archived data.
+     */
+    private static final String ALL_ORDER_LINES =
+            "(SELECT id, order_id, furniture_id, quantity FROM order_line " +
+            "UNION ALL SELECT id, order_id, furniture_id, quantity FROM order_line_archive)";
+
     /**
      * Hämta *alla* ordrar oavsett anställd.
      */
     public List<OrderHead> getAllOrders() {
+        return getAllOrders(false);
+    }
+
+    /**
+     * Hämta *alla* ordrar oavsett anställd.
+     *
+     * @param includeArchived true för att även ta med arkiverade ordrar.
+     */
+    public List<OrderHead> getAllOrders(boolean includeArchived) {
         List<OrderHead> all = new ArrayList<>();
         String sql = """
             SELECT id,
                    order_date,
                    customer_id,
                    employee_id
-              FROM order_head
-            """;
-        try (Connection conn = DBConnection.getConnection();
+              FROM %s oh
+            """.formatted(headTable(includeArchived));
+        try (Connection conn = DBConnection.getReadConnection(Workload.REPORTING);
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
@@ -48,12 +83,22 @@ public class OrderDao {
      * Hämta alla ordrar för en specifik anställd.
      */
     public List<OrderHead> listOrdersForEmployee(long employeeId) {
+        return listOrdersForEmployee(employeeId, false);
+    }
+
+    /**
+     * Hämta alla ordrar för en specifik anställd.
+     *
+     * @param includeArchived true för att även ta med arkiverade ordrar.
+     */
+    public List<OrderHead> listOrdersForEmployee(long employeeId, boolean includeArchived) {
         List<OrderHead> orders = new ArrayList<>();
-        String sql = "SELECT id, order_date, customer_id, employee_id FROM order_head WHERE employee_id = ?";
-        try (Connection conn = DBConnection.getConnection();
+        String sql = "SELECT id, order_date, customer_id, employee_id FROM " + headTable(includeArchived)
+                + " oh WHERE employee_id = ?";
+        try (Connection conn = DBConnection.getReadConnection(Workload.REPORTING);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            validateEmployee(employeeId);
+            requireExists(conn, "employee", employeeId, "Employee");
             stmt.setLong(1, employeeId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -73,58 +118,397 @@ public class OrderDao {
     }
 
     /**
-     * Creates a new order with associated order lines.
+     * Hämta ett orderhuvud med ID.
      *
-     * @param order The {@link OrderHead} object containing order details.
-     * @param orderLines A list of {@link OrderLine} objects representing the items in the order.
-     * @throws IllegalArgumentException if customer, employee, or furniture is invalid.
+     * @return Orderhuvudet, eller null om ordern inte finns.
+     */
+    public OrderHead getOrderById(long orderId) {
+        String sql = "SELECT id, order_date, customer_id, employee_id FROM order_head WHERE id = ?";
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, orderId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new OrderHead(
+                            rs.getLong("id"),
+                            rs.getDate("order_date").toLocalDate(),
+                            rs.getLong("customer_id"),
+                            rs.getLong("employee_id")
+                    );
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to retrieve order with ID: {0}", orderId);
+            throw new RuntimeException("Could not retrieve order: " + e.getMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Streams the order history, one row per order line with order head fields and the current furniture
+     * price, ordered by order ID, to {@code handler} without loading it into memory.
+     *
+     * @param includeArchived true to also include archived orders.
+     * @return The number of rows streamed.
      * @throws RuntimeException if a database error occurs.
      */
-    public void createOrder(OrderHead order, List<OrderLine> orderLines) {
-        String orderSql = "INSERT INTO order_head (order_date, customer_id, employee_id) VALUES (?, ?, ?)";
-        String lineSql = "INSERT INTO order_line (furniture_id, order_id, quantity) VALUES (?, ?, ?)";
+    public long streamOrderHistory(boolean includeArchived, RowHandler handler) {
+        String sql = "SELECT o.id AS order_id, o.order_date, o.customer_id, o.employee_id, " +
+                "ol.furniture_id, f.name AS furniture_name, ol.quantity, f.price " +
+                "FROM " + headTable(includeArchived) + " o " +
+                "JOIN " + lineTable(includeArchived) + " ol ON ol.order_id = o.id " +
+                "JOIN furniture f ON ol.furniture_id = f.id " +
+                "ORDER BY o.id, ol.id";
+        long rows = 0;
+        try (Connection conn = DBConnection.getReadConnection(Workload.BULK);
+             PreparedStatement stmt = DBConnection.prepareStreaming(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                handler.handle(rs);
+                rows++;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Kunde inte strömma orderhistorik", e);
+            throw new RuntimeException("Could not read order history: " + e.getMessage(), e);
+        }
+        return rows;
+    }
 
-        try (Connection conn = DBConnection.getConnection()) {
-            conn.setAutoCommit(false);
-            try {
-                validateCustomer(order.customerId());
-                validateEmployee(order.employeeId());
-                if (orderLines.isEmpty()) {
-                    throw new IllegalArgumentException("Order must contain at least one order line.");
+    /**
+     * Streams (order_id, furniture_id) for every order line, ordered by order ID so each order's lines arrive
+     * together. Reads only idx_order_line_order.
+     *
+     * @param includeArchived true to also include archived orders.
+     * @return The number of rows streamed.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public long streamOrderLineFurniture(boolean includeArchived, RowHandler handler) {
+        String sql = "SELECT order_id, furniture_id FROM " + lineTable(includeArchived) + " ol ORDER BY order_id";
+        long rows = 0;
+        try (Connection conn = DBConnection.getReadConnection(Workload.BULK);
+             PreparedStatement stmt = DBConnection.prepareStreaming(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                handler.handle(rs);
+                rows++;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to stream order lines", e);
+            throw new RuntimeException("Could not read order lines: " + e.getMessage(), e);
+        }
+        return rows;
+    }
+
+    /**
+     * Retrieves the furniture IDs on one current order.
+     *
+     * @throws RuntimeException if a database error occurs.
+     */
+    public List<Long> listFurnitureIdsForOrder(long orderId) {
+        String sql = "SELECT furniture_id FROM order_line WHERE order_id = ?";
+        List<Long> ids = new ArrayList<>();
+        try (Connection conn = DBConnection.getReadConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, orderId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
                 }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to retrieve furniture for order ID: {0}", orderId);
+            throw new RuntimeException("Could not retrieve order lines: " + e.getMessage(), e);
+        }
+        return ids;
+    }
 
-                // Insert OrderHead
-                long orderId;
-                try (PreparedStatement stmt = conn.prepareStatement(orderSql, Statement.RETURN_GENERATED_KEYS)) {
-                    stmt.setDate(1, Date.valueOf(order.orderDate()));
-                    stmt.setLong(2, order.customerId());
-                    stmt.setLong(3, order.employeeId());
-                    stmt.executeUpdate();
+    /**
+     * Retrieves the picks for all current orders dated {@code day} with one query: the day's orders on
+     * idx_order_head_date, their lines and each item's shelf, ordered by shelf and then by order.
+     *
+     * @throws RuntimeException if a database error occurs.
+     */
+    public List<PickList.Pick> listPicksForDate(LocalDate day) {
+        String sql = "SELECT ol.order_id, ol.furniture_id, f.name, f.shelf_nbr, ol.quantity, f.weight " +
+                "FROM order_head o JOIN order_line ol ON ol.order_id = o.id " +
+                "JOIN furniture f ON f.id = ol.furniture_id " +
+                "WHERE o.order_date = ? " +
+                "ORDER BY f.shelf_nbr, ol.order_id, ol.furniture_id";
+        List<PickList.Pick> picks = new ArrayList<>();
+        try (Connection conn = DBConnection.getReadConnection(Workload.REPORTING);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(day));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    picks.add(new PickList.Pick(rs.getLong("order_id"), rs.getLong("furniture_id"),
+                            rs.getString("name"), rs.getInt("shelf_nbr"), rs.getInt("quantity"),
+                            rs.getDouble("weight")));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to retrieve picks for date: {0}", day);
+            throw new RuntimeException("Could not retrieve picks: " + e.getMessage(), e);
+        }
+        return picks;
+    }
 
-                    try (ResultSet rs = stmt.getGeneratedKeys()) {
-                        if (rs.next()) {
-                            orderId = rs.getLong(1);
-                        } else {
-                            throw new SQLException("Failed to retrieve generated order ID.");
-                        }
-                    }
+    /**
+     * Streams the order heads dated on or after {@code since}, ordered by ID, to {@code handler}.
+     *
+     * @return The number of rows streamed.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public long streamOrderHeadsSince(LocalDate since, RowHandler handler) {
+        String sql = "SELECT id, order_date, customer_id, employee_id FROM order_head WHERE order_date >= ? ORDER BY id";
+        long rows = 0;
+        try (Connection conn = DBConnection.getReadConnection(Workload.BULK);
+             PreparedStatement stmt = DBConnection.prepareStreaming(conn, sql)) {
+            stmt.setDate(1, Date.valueOf(since));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(rs);
+                    rows++;
                 }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Kunde inte strömma ordrar sedan " + since, e);
+            throw new RuntimeException("Could not read orders: " + e.getMessage(), e);
+        }
+        return rows;
+    }
 
-                // Insert OrderLines
-                try (PreparedStatement lineStmt = conn.prepareStatement(lineSql)) {
-                    for (OrderLine line : orderLines) {
-                        validateFurniture(line.furnitureId());
-                        if (line.quantity() <= 0) {
-                            throw new IllegalArgumentException("Quantity must be greater than 0 for furniture ID: " + line.furnitureId());
-                        }
-                        lineStmt.setLong(1, line.furnitureId()); // Antagande: long furnitureId
-                        lineStmt.setLong(2, orderId);
-                        lineStmt.setInt(3, line.quantity());
-                        lineStmt.executeUpdate();
-                    }
+    /**
+     * Räknar ordrar vars kund-ID eller anställd-ID innehåller {@code filter}.
+     *
+     * @param filter Söktext, tom sträng matchar alla ordrar.
+     */
+    public int countOrders(String filter) {
+        String sql = "SELECT COUNT(*) FROM order_head" + filterClause(filter);
+        try (Connection conn = DBConnection.getReadConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindFilter(stmt, filter);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Kunde inte räkna ordrar", e);
+            throw new RuntimeException("Could not count orders: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hämta en sida orderhuvuden sorterade på ID, för {@link PagedList}.
+     *
+     * @param filter Söktext, tom sträng matchar alla ordrar.
+     * @param offset Antal rader att hoppa över.
+     * @param limit  Max antal rader.
+     */
+    public List<OrderHead> getOrderPage(String filter, int offset, int limit) {
+        String sql = "SELECT id, order_date, customer_id, employee_id FROM order_head"
+                + filterClause(filter) + " ORDER BY id LIMIT ? OFFSET ?";
+        List<OrderHead> orders = new ArrayList<>(limit);
+        try (Connection conn = DBConnection.getReadConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = bindFilter(stmt, filter);
+            stmt.setInt(i++, limit);
+            stmt.setInt(i, offset);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(new OrderHead(
+                            rs.getLong("id"),
+                            rs.getDate("order_date").toLocalDate(),
+                            rs.getLong("customer_id"),
+                            rs.getLong("employee_id")
+                    ));
                 }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Kunde inte hämta ordersida från rad " + offset, e);
+            throw new RuntimeException("Could not fetch orders: " + e.getMessage(), e);
+        }
+        return orders;
+    }
+
+    private static String filterClause(String filter) {
+        return filter == null || filter.isBlank()
+                ? ""
+                : " WHERE CAST(customer_id AS CHAR) LIKE ? OR CAST(employee_id AS CHAR) LIKE ?";
+    }
+
+    /**
+     * Binder filterparametrarna och returnerar nästa lediga parameterindex.
+     */
+    private static int bindFilter(PreparedStatement stmt, String filter) throws SQLException {
+        if (filter == null || filter.isBlank()) {
+            return 1;
+        }
+        String pattern = "%" + filter.trim() + "%";
+        stmt.setString(1, pattern);
+        stmt.setString(2, pattern);
+        return 3;
+    }
+
+    /**
+     * Söker ordrar med en sida i taget i id-ordning (keyset-paginering). Varje villkor blir ett eget
+     * indexerbart predikat på order_head ({@code order_date}, {@code customer_id}, {@code employee_id}) eller en
+     * korrelerad delfråga mot orderraderna via {@code order_id} (möbel och belopp), så sidor långt in i
+     * resultatet kostar lika lite som den första.
+     *
+     * @param criteria Sökvillkoren.
+     * @param page     Sidan; börja med {@link PageRequest#first(int)} och fortsätt med {@link OrderPage#next()}.
+     * @throws RuntimeException om ett databasfel uppstår.
+     */
+    public OrderPage searchOrders(OrderSearchCriteria criteria, PageRequest page) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT o.id, o.order_date, o.customer_id, o.employee_id FROM " + headTable(criteria.includeArchived())
+                + " o" + searchWhere(criteria, page.afterId(), params) + " ORDER BY o.id LIMIT ?";
+        params.add(page.size() + 1);
+        List<OrderHead> orders = new ArrayList<>(page.size() + 1);
+        try (Connection conn = DBConnection.getReadConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindSearch(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(new OrderHead(
+                            rs.getLong("id"),
+                            rs.getDate("order_date").toLocalDate(),
+                            rs.getLong("customer_id"),
+                            rs.getLong("employee_id")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Kunde inte söka ordrar med " + criteria, e);
+            throw new RuntimeException("Could not search orders: " + e.getMessage(), e);
+        }
+        // En extra rad visar om det finns en nästa sida.
+        if (orders.size() <= page.size()) {
+            return new OrderPage(orders, null);
+        }
+        orders.remove(orders.size() - 1);
+        return new OrderPage(orders, new PageRequest(orders.get(orders.size() - 1).id(), page.size()));
+    }
+
+    /**
+     * Räknar ordrar som uppfyller {@code criteria}.
+     *
+     * @throws RuntimeException om ett databasfel uppstår.
+     */
+    public int countOrders(OrderSearchCriteria criteria) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM " + headTable(criteria.includeArchived()) + " o"
+                + searchWhere(criteria, 0, params);
+        try (Connection conn = DBConnection.getReadConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindSearch(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Kunde inte räkna ordrar med " + criteria, e);
+            throw new RuntimeException("Could not count orders: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hämtar id för den {@code index}:e ordern (0-baserat) som uppfyller {@code criteria}, för att kunna börja
+     * keyset-paginera mitt i resultatet. Använder OFFSET och är därför bara avsedd för enstaka hopp.
+     *
+     * @return Orderns id, eller null om resultatet har färre rader.
+     * @throws RuntimeException om ett databasfel uppstår.
+     */
+    public Long findOrderIdAt(OrderSearchCriteria criteria, int index) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT o.id FROM " + headTable(criteria.includeArchived()) + " o"
+                + searchWhere(criteria, 0, params) + " ORDER BY o.id LIMIT 1 OFFSET ?";
+        params.add(index);
+        try (Connection conn = DBConnection.getReadConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindSearch(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Kunde inte hitta order nummer " + index + " med " + criteria, e);
+            throw new RuntimeException("Could not search orders: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Bygger WHERE-satsen för {@code criteria} och lägger parametrarna i {@code params}.
+     */
+    private static String searchWhere(OrderSearchCriteria criteria, long afterId, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        String lines = lineTable(criteria.includeArchived());
+        if (afterId > 0) {
+            conditions.add("o.id > ?");
+            params.add(afterId);
+        }
+        if (criteria.fromDate() != null) {
+            conditions.add("o.order_date >= ?");
+            params.add(Date.valueOf(criteria.fromDate()));
+        }
+        if (criteria.toDate() != null) {
+            conditions.add("o.order_date <= ?");
+            params.add(Date.valueOf(criteria.toDate()));
+        }
+        if (criteria.customerId() != null) {
+            conditions.add("o.customer_id = ?");
+            params.add(criteria.customerId());
+        }
+        if (criteria.employeeId() != null) {
+            conditions.add("o.employee_id = ?");
+            params.add(criteria.employeeId());
+        }
+        if (criteria.furnitureId() != null) {
+            conditions.add("EXISTS (SELECT 1 FROM " + lines + " fl WHERE fl.order_id = o.id AND fl.furniture_id = ?)");
+            params.add(criteria.furnitureId());
+        }
+        if (criteria.minTotal() != null || criteria.maxTotal() != null) {
+            String total = "(SELECT COALESCE(SUM(f.price * ol.quantity), 0) FROM " + lines + " ol "
+                    + "JOIN furniture f ON ol.furniture_id = f.id WHERE ol.order_id = o.id)";
+            if (criteria.minTotal() != null && criteria.maxTotal() != null) {
+                conditions.add(total + " BETWEEN ? AND ?");
+                params.add(criteria.minTotal());
+                params.add(criteria.maxTotal());
+            } else if (criteria.minTotal() != null) {
+                conditions.add(total + " >= ?");
+                params.add(criteria.minTotal());
+            } else {
+                conditions.add(total + " <= ?");
+                params.add(criteria.maxTotal());
+            }
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static void bindSearch(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * Creates a new order with associated order lines.
+     *
+     * @param order The {@link OrderHead} object containing order details.
+     * @param orderLines A list of {@link OrderLine} objects representing the items in the order.
+     * @return The generated order ID.
+     * @throws IllegalArgumentException if the order date is missing or in the future, there are no lines, or
+     *         customer, employee, or furniture is invalid.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public long createOrder(OrderHead order, List<OrderLine> orderLines) {
+        validateNewOrder(order, orderLines);
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE)) {
+            conn.setAutoCommit(false);
+            try {
+                long orderId = insertOrder(conn, order, orderLines);
                 conn.commit();
-                System.out.println("Order created with ID: " + orderId);
+                orderCommitted(orderId, order, orderLines);
+                return orderId;
             } catch (SQLException | IllegalArgumentException e) {
                 conn.rollback();
                 logger.log(Level.SEVERE, "Failed to create order: {0}", order);
@@ -136,6 +520,82 @@ public class OrderDao {
         }
     }
 
+    /**
+     * Checks the parts of a new order that need no database lookup.
+     *
+     * @throws IllegalArgumentException if the order date is missing or in the future, or there are no lines.
+     */
+    static void validateNewOrder(OrderHead order, List<OrderLine> orderLines) {
+        Validator.ORDER_HEAD.validate(order);
+        if (orderLines.isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one order line.");
+        }
+    }
+
+    /**
+     * Inserts an order head and its lines and records the change, on the caller's connection and inside the
+     * caller's transaction. Customer, employee, and furniture are looked up on the same connection. The caller
+     * commits and then calls {@link #orderCommitted}, or rolls back.
+     *
+     * @return The generated order ID.
+     * @throws IllegalArgumentException if customer, employee, furniture, or a quantity is invalid.
+     */
+    long insertOrder(Connection conn, OrderHead order, List<OrderLine> orderLines) throws SQLException {
+        String orderSql = "INSERT INTO order_head (order_date, customer_id, employee_id) VALUES (?, ?, ?)";
+        String lineSql = "INSERT INTO order_line (furniture_id, order_id, quantity) VALUES (?, ?, ?)";
+
+        requireExists(conn, "customer", order.customerId(), "Customer");
+        requireExists(conn, "employee", order.employeeId(), "Employee");
+        for (OrderLine line : orderLines) {
+            requireExists(conn, "furniture", line.furnitureId(), "Furniture");
+            if (line.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than 0 for furniture ID: " + line.furnitureId());
+            }
+        }
+
+        // Insert OrderHead
+        long orderId;
+        try (PreparedStatement stmt = conn.prepareStatement(orderSql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setDate(1, Date.valueOf(order.orderDate()));
+            stmt.setLong(2, order.customerId());
+            stmt.setLong(3, order.employeeId());
+            stmt.executeUpdate();
+
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    orderId = rs.getLong(1);
+                } else {
+                    throw new SQLException("Failed to retrieve generated order ID.");
+                }
+            }
+        }
+
+        // Insert OrderLines
+        try (PreparedStatement lineStmt = conn.prepareStatement(lineSql)) {
+            for (OrderLine line : orderLines) {
+                lineStmt.setLong(1, line.furnitureId());
+                lineStmt.setLong(2, orderId);
+                lineStmt.setInt(3, line.quantity());
+                lineStmt.addBatch();
+            }
+            lineStmt.executeBatch();
+        }
+        ChangeLog.record(conn, "order_head", orderId, ChangeType.ADD);
+        return orderId;
+    }
+
+    /**
+     * Announces an order inserted by {@link #insertOrder} once its transaction has committed: invalidates
+     * cached order views, counts it for recommendations, and publishes its {@link ChangeEvent}.
+     */
+    void orderCommitted(long orderId, OrderHead order, List<OrderLine> orderLines) {
+        QueryCache.get().invalidate("order_head", ChangeType.ADD);
+        RecommendationIndex.orderCommitted(orderId, orderLines);
+        System.out.println("Order created with ID: " + orderId);
+        OrderHead created = new OrderHead(orderId, order.orderDate(), order.customerId(), order.employeeId());
+        DataChangeBus.get().publish(ChangeEvent.added(OrderHead.class, orderId, created));
+    }
+
     /**
      * Deletes an order and its associated order lines.
      *
@@ -146,12 +606,10 @@ public class OrderDao {
     public void deleteOrder(long orderId) {
         String deleteLinesSql = "DELETE FROM order_line WHERE order_id = ?";
         String deleteOrderSql = "DELETE FROM order_head WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection()) {
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE)) {
             conn.setAutoCommit(false);
             try {
-                if (!orderExists(orderId)) {
-                    throw new IllegalArgumentException("Order with ID " + orderId + " does not exist.");
-                }
+                requireExists(conn, "order_head", orderId, "Order");
                 try (PreparedStatement stmt = conn.prepareStatement(deleteLinesSql)) {
                     stmt.setLong(1, orderId);
                     stmt.executeUpdate();
@@ -163,8 +621,11 @@ public class OrderDao {
                         throw new SQLException("No order was deleted, check ID: " + orderId);
                     }
                 }
+                ChangeLog.record(conn, "order_head", orderId, ChangeType.DELETE);
                 conn.commit();
+                QueryCache.get().invalidate("order_head", ChangeType.DELETE);
                 System.out.println("Order with ID " + orderId + " deleted successfully!");
+                DataChangeBus.get().publish(ChangeEvent.deleted(OrderHead.class, orderId));
             } catch (SQLException | IllegalArgumentException e) {
                 conn.rollback();
                 logger.log(Level.SEVERE, "Failed to delete order with ID: {0}", orderId);
@@ -185,12 +646,25 @@ public class OrderDao {
      * @throws RuntimeException if a database error occurs.
      */
     public double getTotalOrderValue(long orderId) {
+        return getTotalOrderValue(orderId, false);
+    }
+
+    /**
+     * Calculates the total value of an order based on furniture prices and quantities.
+     *
+     * @param orderId The ID of the order.
+     * @param includeArchived true to also look for the order among archived orders.
+     * @return The total value of the order.
+     * @throws IllegalArgumentException if the order does not exist.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public double getTotalOrderValue(long orderId, boolean includeArchived) {
         String sql = "SELECT SUM(f.price * ol.quantity) AS total " +
-                "FROM order_line ol JOIN furniture f ON ol.furniture_id = f.id " +
+                "FROM " + lineTable(includeArchived) + " ol JOIN furniture f ON ol.furniture_id = f.id " +
                 "WHERE ol.order_id = ?";
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            if (!orderExists(orderId)) {
+            if (!exists(conn, "order_head", orderId) && !(includeArchived && exists(conn, "order_head_archive", orderId))) {
                 throw new IllegalArgumentException("Order with ID " + orderId + " does not exist.");
             }
             stmt.setLong(1, orderId);
@@ -207,47 +681,63 @@ public class OrderDao {
     }
 
     /**
-     * Checks if a customer exists in the database.
+     * Calculates the total value of several orders with one grouped query.
      *
-     * @param customerId The ID of the customer.
-     * @return true if the customer exists, false otherwise.
+     * @param orderIds        The IDs of the orders.
+     * @param includeArchived true to also include archived orders.
+     * @return The total value per order ID, in ascending ID order. Orders that do not exist, or have no
+     *         lines, are missing from the map.
      * @throws RuntimeException if a database error occurs.
      */
-    public boolean customerExists(long customerId) {
-        return exists("customer", customerId);
+    public Map<Long, Double> getTotalOrderValues(Collection<Long> orderIds, boolean includeArchived) {
+        Map<Long, Double> totals = new TreeMap<>();
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        if (ids.isEmpty()) {
+            return totals;
+        }
+        String sql = "SELECT ol.order_id, SUM(f.price * ol.quantity) AS total " +
+                "FROM " + lineTable(includeArchived) + " ol JOIN furniture f ON ol.furniture_id = f.id " +
+                "WHERE ol.order_id IN (" + OrderPurger.placeholders(ids.size()) + ") GROUP BY ol.order_id";
+        try (Connection conn = DBConnection.getReadConnection(Workload.REPORTING);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setLong(i + 1, ids.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    totals.put(rs.getLong("order_id"), rs.getDouble("total"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to calculate order values for " + ids.size() + " orders", e);
+            throw new RuntimeException("Could not calculate order values: " + e.getMessage(), e);
+        }
+        return totals;
     }
 
     /**
-     * Checks if an employee exists in the database.
+     * Checks if a customer exists in the database.
      *
-     * @param employeeId The ID of the employee.
-     * @return true if the employee exists, false otherwise.
+     * @param customerId The ID of the customer.
+     * @return true if the customer exists, false otherwise.
      * @throws RuntimeException if a database error occurs.
      */
-    private boolean employeeExists(long employeeId) {
-        return exists("employee", employeeId);
+    public boolean customerExists(long customerId) {
+        return exists("customer", customerId);
     }
 
     /**
-     * Checks if a furniture item exists in the database.
-     *
-     * @param furnitureId The ID of the furniture.
-     * @return true if the furniture exists, false otherwise.
-     * @throws RuntimeException if a database error occurs.
+     * Returns the order head table to read from: only the hot table, or hot and archived orders combined.
      */
-    private boolean furnitureExists(long furnitureId) {
-        return exists("furniture", furnitureId);
+    static String headTable(boolean includeArchived) {
+        return includeArchived ? ALL_ORDER_HEADS : "order_head";
     }
 
     /**
-     * Checks if an order exists in the database.
-     *
-     * @param orderId The ID of the order.
-     * @return true if the order exists, false otherwise.
-     * @throws RuntimeException if a database error occurs.
+     * Returns the order line table to read from: only the hot table, or hot and archived lines combined.
      */
-    private boolean orderExists(long orderId) {
-        return exists("order_head", orderId);
+    static String lineTable(boolean includeArchived) {
+        return includeArchived ? ALL_ORDER_LINES : "order_line";
     }
 
     /**
@@ -260,7 +750,7 @@ public class OrderDao {
      */
     private boolean exists(String tableName, long id) {
         String sql = "SELECT COUNT(*) FROM " + tableName + " WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -276,73 +766,83 @@ public class OrderDao {
     }
 
     /**
-     * Validates that a customer exists.
+     * Checks on {@code conn} that the row exists, for lookups on a connection that is already held
+     * (e.g. inside a write transaction), so no second connection is borrowed from the pool.
      *
-     * @param customerId The ID of the customer.
-     * @throws IllegalArgumentException if the customer does not exist.
+     * @param label The entity name used in the error message, e.g. "Customer".
+     * @throws IllegalArgumentException if there is no row with {@code id}.
      */
-    private void validateCustomer(long customerId) {
-        if (!customerExists(customerId)) {
-            throw new IllegalArgumentException("Customer with ID " + customerId + " does not exist.");
+    private static void requireExists(Connection conn, String tableName, long id, String label) throws SQLException {
+        if (!exists(conn, tableName, id)) {
+            throw new IllegalArgumentException(label + " with ID " + id + " does not exist.");
         }
     }
 
     /**
-     * Validates that an employee exists.
-     *
-     * @param employeeId The ID of the employee.
-     * @throws IllegalArgumentException if the employee does not exist.
+     * Like {@link #exists(String, long)}, on a connection that is already held.
      */
-    private void validateEmployee(long employeeId) {
-        if (!employeeExists(employeeId)) {
-            throw new IllegalArgumentException("Employee with ID " + employeeId + " does not exist.");
+    private static boolean exists(Connection conn, String tableName, long id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM " + tableName + " WHERE id = ?")) {
+            stmt.setLong(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
         }
     }
 
     /**
-     * Validates that a furniture item exists.
+     * Retrieves orders with customer names and furniture details for a specific employee.
      *
-     * @param furnitureId The ID of the furniture.
-     * @throws IllegalArgumentException if the furniture does not exist.
+     * @param employeeId The ID of the employee.
+     * @return A list of {@link OrderDetail} objects with customer and furniture information.
+     * @throws IllegalArgumentException if the employee does not exist.
+     * @throws RuntimeException if a database error occurs.
      */
-    private void validateFurniture(long furnitureId) {
-        if (!furnitureExists(furnitureId)) {
-            throw new IllegalArgumentException("Furniture with ID " + furnitureId + " does not exist.");
-        }
+    public List<OrderDetail> listOrdersWithCustomerNameForEmployee(long employeeId) {
+        return listOrdersWithCustomerNameForEmployee(employeeId, false);
     }
 
     /**
      * Retrieves orders with customer names and furniture details for a specific employee.
      *
      * @param employeeId The ID of the employee.
-     * @return A list of {@link OrderDetail} objects with customer and furniture information.
+     * @param includeArchived true to also include archived orders.
+     * @return An unmodifiable, cached list of {@link OrderDetail} objects with customer and furniture information.
      * @throws IllegalArgumentException if the employee does not exist.
      * @throws RuntimeException if a database error occurs.
      */
-    public List<OrderDetail> listOrdersWithCustomerNameForEmployee(long employeeId) {
+    public List<OrderDetail> listOrdersWithCustomerNameForEmployee(long employeeId, boolean includeArchived) {
+        return QueryCache.get().get("ordersWithCustomerNameForEmployee", List.of(employeeId, includeArchived),
+                EMPLOYEE_ORDER_TABLES, () -> loadOrdersWithCustomerNameForEmployee(employeeId, includeArchived));
+    }
+
+    private List<OrderDetail> loadOrdersWithCustomerNameForEmployee(long employeeId, boolean includeArchived) {
         List<OrderDetail> orderDetails = new ArrayList<>();
         String sql = "SELECT o.id AS order_id, o.order_date, c.first_name AS customer_first_name, c.last_name AS customer_last_name, " +
                 "ol.quantity, f.name AS furniture_name, f.price " +
-                "FROM order_head o " +
+                "FROM " + headTable(includeArchived) + " o " +
                 "JOIN customer c ON o.customer_id = c.id " +
-                "LEFT JOIN order_line ol ON o.id = ol.order_id " +
+                "LEFT JOIN " + lineTable(includeArchived) + " ol ON o.id = ol.order_id " +
                 "LEFT JOIN furniture f ON ol.furniture_id = f.id " +
-                "WHERE o.employee_id = ?";
-        try (Connection conn = DBConnection.getConnection();
+                "WHERE o.employee_id = ? " +
+                "ORDER BY o.id, ol.id";
+        try (Connection conn = DBConnection.getConnection(Workload.REPORTING);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            validateEmployee(employeeId);
+            requireExists(conn, "employee", employeeId, "Employee");
             stmt.setLong(1, employeeId);
             try (ResultSet rs = stmt.executeQuery()) {
+                // Rows arrive ordered by order, so consecutive lines of one order share a header
+                StringPool pool = StringPool.get();
+                OrderDetail.Header header = null;
                 while (rs.next()) {
-                    orderDetails.add(new OrderDetail(
-                            rs.getLong("order_id"), // Antagande: long orderId
-                            rs.getDate("order_date").toLocalDate(),
-                            rs.getString("customer_first_name"),
-                            rs.getString("customer_last_name"),
-                            rs.getString("furniture_name") != null ? rs.getString("furniture_name") : "No furniture",
-                            rs.getDouble("price"),
-                            rs.getInt("quantity")
-                    ));
+                    long orderId = rs.getLong("order_id");
+                    if (header == null || header.orderId() != orderId) {
+                        header = new OrderDetail.Header(orderId, rs.getDate("order_date").toLocalDate(),
+                                pool.intern(rs.getString("customer_first_name")),
+                                pool.intern(rs.getString("customer_last_name")));
+                    }
+                    String furnitureName = rs.getString("furniture_name");
+                    orderDetails.add(new OrderDetail(header, furnitureName != null ? pool.intern(furnitureName) : "No furniture", rs.getDouble("price"), rs.getInt("quantity")));
                 }
             }
         } catch (SQLException e) {
@@ -361,29 +861,49 @@ public class OrderDao {
      * @throws RuntimeException if a database error occurs.
      */
     public List<OrderDetail> listOrdersWithDetailsForEmployee(long employeeId) {
+        return listOrdersWithDetailsForEmployee(employeeId, false);
+    }
+
+    /**
+     * Retrieves detailed order information for a specific employee.
+     *
+     * @param employeeId The ID of the employee.
+     * @param includeArchived true to also include archived orders.
+     * @return An unmodifiable, cached list of {@link OrderDetail} objects with detailed order information.
+     * @throws IllegalArgumentException if the employee does not exist.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public List<OrderDetail> listOrdersWithDetailsForEmployee(long employeeId, boolean includeArchived) {
+        return QueryCache.get().get("ordersWithDetailsForEmployee", List.of(employeeId, includeArchived),
+                EMPLOYEE_ORDER_TABLES, () -> loadOrdersWithDetailsForEmployee(employeeId, includeArchived));
+    }
+
+    private List<OrderDetail> loadOrdersWithDetailsForEmployee(long employeeId, boolean includeArchived) {
         List<OrderDetail> orderDetails = new ArrayList<>();
         String sql = "SELECT o.id AS order_id, o.order_date, c.first_name AS customer_first_name, c.last_name AS customer_last_name, " +
                 "ol.quantity, f.name AS furniture_name, f.price " +
-                "FROM order_head o " +
+                "FROM " + headTable(includeArchived) + " o " +
                 "JOIN customer c ON o.customer_id = c.id " +
-                "JOIN order_line ol ON o.id = ol.order_id " +
+                "JOIN " + lineTable(includeArchived) + " ol ON o.id = ol.order_id " +
                 "JOIN furniture f ON ol.furniture_id = f.id " +
-                "WHERE o.employee_id = ?";
-        try (Connection conn = DBConnection.getConnection();
+                "WHERE o.employee_id = ? " +
+                "ORDER BY o.id, ol.id";
+        try (Connection conn = DBConnection.getConnection(Workload.REPORTING);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            validateEmployee(employeeId);
+            requireExists(conn, "employee", employeeId, "Employee");
             stmt.setLong(1, employeeId);
             try (ResultSet rs = stmt.executeQuery()) {
+                // Rows arrive ordered by order, so consecutive lines of one order share a header
+                StringPool pool = StringPool.get();
+                OrderDetail.Header header = null;
                 while (rs.next()) {
-                    orderDetails.add(new OrderDetail(
-                            rs.getLong("order_id"), // Antagande: long orderId
-                            rs.getDate("order_date").toLocalDate(),
-                            rs.getString("customer_first_name"),
-                            rs.getString("customer_last_name"),
-                            rs.getString("furniture_name"),
-                            rs.getDouble("price"),
-                            rs.getInt("quantity")
-                    ));
+                    long orderId = rs.getLong("order_id");
+                    if (header == null || header.orderId() != orderId) {
+                        header = new OrderDetail.Header(orderId, rs.getDate("order_date").toLocalDate(),
+                                pool.intern(rs.getString("customer_first_name")),
+                                pool.intern(rs.getString("customer_last_name")));
+                    }
+                    orderDetails.add(new OrderDetail(header, pool.intern(rs.getString("furniture_name")), rs.getDouble("price"), rs.getInt("quantity")));
                 }
             }
         } catch (SQLException e) {
@@ -392,4 +912,205 @@ public class OrderDao {
         }
         return orderDetails;
     }
+
+    /**
+     * Retrieves fully assembled orders (head, customer name, lines and total) for a specific employee
+     * in one round-trip. The employee check is part of the same query, and the rows are grouped into
+     * {@link OrderSummary} objects in a single pass over the result set.
+     *
+     * @param employeeId The ID of the employee.
+     * @return The employee's orders ordered by order ID, empty if the employee has no orders.
+     * @throws IllegalArgumentException if the employee does not exist.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public List<OrderSummary> listOrderSummariesForEmployee(long employeeId) {
+        return listOrderSummariesForEmployee(employeeId, false);
+    }
+
+    /**
+     * Retrieves fully assembled orders (head, customer name, lines and total) for a specific employee
+     * in one round-trip.
+     *
+     * @param employeeId The ID of the employee.
+     * @param includeArchived true to also include archived orders.
+     * @return The employee's orders ordered by order ID as an unmodifiable, cached list, empty if the employee
+     *         has no orders.
+     * @throws IllegalArgumentException if the employee does not exist.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public List<OrderSummary> listOrderSummariesForEmployee(long employeeId, boolean includeArchived) {
+        return QueryCache.get().get("orderSummariesForEmployee", List.of(employeeId, includeArchived),
+                EMPLOYEE_ORDER_TABLES, () -> loadOrderSummariesForEmployee(employeeId, includeArchived));
+    }
+
+    private List<OrderSummary> loadOrderSummariesForEmployee(long employeeId, boolean includeArchived) {
+        // LEFT JOIN from employee: no rows means no such employee, a row with NULL order_id means no orders.
+        String sql = "SELECT e.id AS owner_id, o.id AS order_id, o.order_date, o.customer_id, o.employee_id, " +
+                "c.first_name AS customer_first_name, c.last_name AS customer_last_name, " +
+                "ol.id AS line_id, ol.furniture_id, ol.quantity, f.name AS furniture_name, f.price " +
+                "FROM employee e " +
+                "LEFT JOIN " + headTable(includeArchived) + " o ON o.employee_id = e.id " +
+                "LEFT JOIN customer c ON o.customer_id = c.id " +
+                "LEFT JOIN " + lineTable(includeArchived) + " ol ON o.id = ol.order_id " +
+                "LEFT JOIN furniture f ON ol.furniture_id = f.id " +
+                "WHERE e.id = ? " +
+                "ORDER BY o.id, ol.id";
+        try (Connection conn = DBConnection.getConnection(Workload.REPORTING);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, employeeId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<OrderSummary> summaries = groupSummaries(rs);
+                if (summaries == null) {
+                    throw new IllegalArgumentException("Employee with ID " + employeeId + " does not exist.");
+                }
+                return summaries;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to retrieve order summaries for employee ID: {0}", employeeId);
+            throw new RuntimeException("Could not retrieve order summaries: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieves a customer's purchase history (head, lines and total per order) in one round-trip.
+     * Lifetime value, order count and last purchase are read with {@link CustomerDao#getCustomerStats}.
+     *
+     * @param customerId The ID of the customer.
+     * @param includeArchived true to also include archived orders.
+     * @return The customer's orders ordered by order ID as an unmodifiable, cached list, empty if the customer
+     *         has no orders.
+     * @throws IllegalArgumentException if the customer does not exist.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public List<OrderSummary> listOrderSummariesForCustomer(long customerId, boolean includeArchived) {
+        return QueryCache.get().get("orderSummariesForCustomer", List.of(customerId, includeArchived),
+                CUSTOMER_ORDER_TABLES, () -> loadOrderSummariesForCustomer(customerId, includeArchived));
+    }
+
+    private List<OrderSummary> loadOrderSummariesForCustomer(long customerId, boolean includeArchived) {
+        // Hot and archived orders are read separately rather than through the UNION ALL derived tables, so each
+        // query is served by its customer index (idx_order_head_customer_id, idx_order_head_archive_customer)
+        // and the covering order line index; the two ID-ordered results are merged here. The hot tables are read
+        // first: an order archived between the two reads then shows up in both (never in neither), and the
+        // merge keeps one copy.
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE)) {
+            List<OrderSummary> summaries = loadCustomerSummaries(conn, customerId, "order_head", "order_line");
+            if (summaries == null) {
+                throw new IllegalArgumentException("Customer with ID " + customerId + " does not exist.");
+            }
+            if (!includeArchived) {
+                return summaries;
+            }
+            List<OrderSummary> archived =
+                    loadCustomerSummaries(conn, customerId, "order_head_archive", "order_line_archive");
+            return archived == null ? summaries : mergeById(archived, summaries);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to retrieve order summaries for customer ID: {0}", customerId);
+            throw new RuntimeException("Could not retrieve order summaries: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * One customer's orders from one pair of head/line tables, or null if the customer does not exist.
+     */
+    private static List<OrderSummary> loadCustomerSummaries(Connection conn, long customerId, String headTable,
+                                                            String lineTable) throws SQLException {
+        String sql = "SELECT c.id AS owner_id, o.id AS order_id, o.order_date, o.customer_id, o.employee_id, " +
+                "c.first_name AS customer_first_name, c.last_name AS customer_last_name, " +
+                "ol.id AS line_id, ol.furniture_id, ol.quantity, f.name AS furniture_name, f.price " +
+                "FROM customer c " +
+                "LEFT JOIN " + headTable + " o ON o.customer_id = c.id " +
+                "LEFT JOIN " + lineTable + " ol ON o.id = ol.order_id " +
+                "LEFT JOIN furniture f ON ol.furniture_id = f.id " +
+                "WHERE c.id = ? " +
+                "ORDER BY o.id, ol.id";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, customerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return groupSummaries(rs);
+            }
+        }
+    }
+
+    /**
+     * Merges two lists of summaries that are each ordered by order ID into one ordered list. An order present
+     * in both lists is taken once, from {@code a}.
+     */
+    private static List<OrderSummary> mergeById(List<OrderSummary> a, List<OrderSummary> b) {
+        List<OrderSummary> merged = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            long aId = a.get(i).head().id();
+            long bId = b.get(j).head().id();
+            if (aId == bId) {
+                j++;
+            }
+            merged.add(aId <= bId ? a.get(i++) : b.get(j++));
+        }
+        merged.addAll(a.subList(i, a.size()));
+        merged.addAll(b.subList(j, b.size()));
+        return merged;
+    }
+
+    /**
+     * Groups rows ordered by order_id into {@link OrderSummary} objects in one pass.
+     * Expects the columns owner_id, order_id, order_date, customer_id, employee_id, customer_first_name,
+     * customer_last_name, line_id, furniture_id, quantity, furniture_name and price; order and line columns
+     * may be NULL for an owner without orders or an order without lines. Customer and furniture names are
+     * deduplicated through {@link StringPool}; a NULL name (the customer or furniture was deleted) is shown as
+     * {@link OrderSummary#MISSING_CUSTOMER} or {@link OrderSummary#MISSING_FURNITURE} with the id.
+     *
+     * @return The grouped orders, or null if the result set had no rows at all (the owner does not exist).
+     */
+    private static List<OrderSummary> groupSummaries(ResultSet rs) throws SQLException {
+        List<OrderSummary> summaries = new ArrayList<>();
+        StringPool pool = StringPool.get();
+        boolean anyRow = false;
+        OrderHead head = null;
+        String firstName = null;
+        String lastName = null;
+        List<OrderSummary.Line> lines = new ArrayList<>();
+        double total = 0;
+
+        while (rs.next()) {
+            anyRow = true;
+            long orderId = rs.getLong("order_id");
+            if (rs.wasNull()) {
+                continue;
+            }
+            if (head == null || head.id() != orderId) {
+                if (head != null) {
+                    summaries.add(new OrderSummary(head, firstName, lastName, lines, total));
+                    lines = new ArrayList<>();
+                    total = 0;
+                }
+                head = new OrderHead(orderId, rs.getDate("order_date").toLocalDate(),
+                        rs.getLong("customer_id"), rs.getLong("employee_id"));
+                firstName = pool.intern(rs.getString("customer_first_name"));
+                lastName = pool.intern(rs.getString("customer_last_name"));
+                if (firstName == null) {
+                    // Customer deleted while the order still referenced it (archived rows in older databases)
+                    firstName = OrderSummary.MISSING_CUSTOMER;
+                    lastName = "#" + head.customerId();
+                }
+            }
+            long lineId = rs.getLong("line_id");
+            if (!rs.wasNull()) {
+                long furnitureId = rs.getLong("furniture_id");
+                String furnitureName = pool.intern(rs.getString("furniture_name"));
+                if (furnitureName == null) {
+                    furnitureName = OrderSummary.MISSING_FURNITURE + " #" + furnitureId;
+                }
+                OrderSummary.Line line = new OrderSummary.Line(lineId, furnitureId, furnitureName,
+                        rs.getDouble("price"), rs.getInt("quantity"));
+                lines.add(line);
+                total += line.lineTotal();
+            }
+        }
+        if (head != null) {
+            summaries.add(new OrderSummary(head, firstName, lastName, lines, total));
+        }
+        return anyRow ? summaries : null;
+    }
 }
\ No newline at end of file
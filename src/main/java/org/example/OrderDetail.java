@@ -3,26 +3,38 @@ package org.example;
 import java.time.LocalDate;
 
 /**
- * Representerar detaljerad information om en order.
+ * Representerar detaljerad information om en order, en rad per orderrad.
+ * <p>
+ * Ordernumret, datumet och kundnamnet är gemensamma för alla rader i samma order och ligger i en delad
+ * {@link Header} i stället för att kopieras in i varje rad. Mappare som bygger flera rader för samma order
+ * skapar därför ett {@code Header}-objekt per order och återanvänder det.
  */
 public record OrderDetail(
-        long orderId,
-        LocalDate orderDate,
-        String customerFirstName,
-        String customerLastName,
+        Header header,
         String furnitureName,
         double price,
         int quantity
 ) {
-    public OrderDetail {
-        if (orderDate == null) {
-            throw new IllegalArgumentException("Order date cannot be null");
-        }
-        if (customerFirstName == null || customerFirstName.isEmpty()) {
-            throw new IllegalArgumentException("Customer first name cannot be null or empty");
+    /**
+     * Den del av en orderdetalj som är lika för alla rader i samma order.
+     */
+    public record Header(long orderId, LocalDate orderDate, String customerFirstName, String customerLastName) {
+        public Header {
+            if (orderDate == null) {
+                throw new IllegalArgumentException("Order date cannot be null");
+            }
+            if (customerFirstName == null || customerFirstName.isEmpty()) {
+                throw new IllegalArgumentException("Customer first name cannot be null or empty");
+            }
+            if (customerLastName == null || customerLastName.isEmpty()) {
+                throw new IllegalArgumentException("Customer last name cannot be null or empty");
+            }
         }
-        if (customerLastName == null || customerLastName.isEmpty()) {
-            throw new IllegalArgumentException("Customer last name cannot be null or empty");
+    }
+
+    public OrderDetail {
+        if (header == null) {
+            throw new IllegalArgumentException("Order header cannot be null");
         }
         if (furnitureName == null || furnitureName.isEmpty()) {
             throw new IllegalArgumentException("Furniture name cannot be null or empty");
@@ -35,9 +47,34 @@ public record OrderDetail(
         }
     }
 
+    /**
+     * Skapar en rad med ett eget orderhuvud. Använd {@link #OrderDetail(Header, String, double, int)} när
+     * flera rader hör till samma order.
+     */
+    public OrderDetail(long orderId, LocalDate orderDate, String customerFirstName, String customerLastName,
+                       String furnitureName, double price, int quantity) {
+        this(new Header(orderId, orderDate, customerFirstName, customerLastName), furnitureName, price, quantity);
+    }
+
+    public long orderId() {
+        return header.orderId();
+    }
+
+    public LocalDate orderDate() {
+        return header.orderDate();
+    }
+
+    public String customerFirstName() {
+        return header.customerFirstName();
+    }
+
+    public String customerLastName() {
+        return header.customerLastName();
+    }
+
     @Override
     public String toString() {
-        return "Order ID: " + orderId + ", Order Date: " + orderDate + ", Customer: " + customerFirstName + " " + customerLastName +
+        return "Order ID: " + orderId() + ", Order Date: " + orderDate() + ", Customer: " + customerFirstName() + " " + customerLastName() +
                 ", Furniture: " + furnitureName + ", Quantity: " + quantity + ", Price: " + price;
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * En sida med ordrar från {@link OrderDao#searchOrders(OrderSearchCriteria, PageRequest)} i id-ordning.
+ *
+ * @param next Nästa sida, eller null om det inte finns fler ordrar.
+ */
+public record OrderPage(List<OrderHead> orders, PageRequest next) {
+    public OrderPage {
+        orders = List.copyOf(orders);
+    }
+}
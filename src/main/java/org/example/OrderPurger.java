@@ -0,0 +1,142 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Removes the orders owned by one or more customers or employees in bounded chunks.
+ * <p>
+ * Each chunk selects at most {@code chunkSize} order ids, deletes their lines and heads by primary key
+ * and commits, so locks and undo records never grow beyond one chunk regardless of how many orders
+ * the owner has. The hot tables are purged first, then the archive tables, which reference the same
+ * customers and employees.
+ */
+final class OrderPurger {
+    static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private OrderPurger() {
+    }
+
+    /**
+     * Deletes all orders, hot and archived, whose {@code ownerColumn} matches one of {@code ownerIds}, committing
+     * after every chunk.
+     *
+     * @param conn        Connection with auto-commit disabled.
+     * @param start       Progress so far; its owner label and totals are carried into the reports.
+     * @param ownerColumn Column in order_head that references the owner (customer_id or employee_id).
+     * @param ownerIds    The owner ids; must not be empty.
+     * @param chunkSize   Maximum number of orders per chunk.
+     * @param progress    Receives a report after every committed chunk, may be null.
+     * @return The final progress report.
+     * @throws SQLException if a statement fails; the current chunk is then left uncommitted.
+     */
+    static DeleteProgress purge(Connection conn, DeleteProgress start, String ownerColumn, List<Long> ownerIds,
+                                int chunkSize, Consumer<DeleteProgress> progress) throws SQLException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0.");
+        }
+        DeleteProgress current = purgeTables(conn, start, "order_head", "order_line", ownerColumn, ownerIds,
+                chunkSize, progress);
+        return purgeTables(conn, current, "order_head_archive", "order_line_archive", ownerColumn, ownerIds,
+                chunkSize, progress);
+    }
+
+    private static DeleteProgress purgeTables(Connection conn, DeleteProgress start, String headTable,
+                                              String lineTable, String ownerColumn, List<Long> ownerIds,
+                                              int chunkSize, Consumer<DeleteProgress> progress) throws SQLException {
+        String selectSql = "SELECT id FROM " + headTable + " WHERE " + ownerColumn + " IN (" + placeholders(ownerIds.size()) + ")"
+                + " ORDER BY id LIMIT ?";
+
+        DeleteProgress current = start;
+        try (PreparedStatement select = conn.prepareStatement(selectSql)) {
+            while (true) {
+                int idx = 1;
+                for (Long ownerId : ownerIds) {
+                    select.setLong(idx++, ownerId);
+                }
+                select.setInt(idx, chunkSize);
+
+                List<Long> orderIds = new ArrayList<>(chunkSize);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        orderIds.add(rs.getLong(1));
+                    }
+                }
+                if (orderIds.isEmpty()) {
+                    return current;
+                }
+
+                int lines = executeWithIds(conn, "DELETE FROM " + lineTable + " WHERE order_id IN (", orderIds);
+                int heads = executeWithIds(conn, "DELETE FROM " + headTable + " WHERE id IN (", orderIds);
+                conn.commit();
+                QueryCache.get().invalidate("order_head", "order_line");
+
+                current = new DeleteProgress(current.owner(), current.chunk() + 1,
+                        current.ordersDeleted() + heads, current.linesDeleted() + lines);
+                if (progress != null) {
+                    progress.accept(current);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the archived orders of one customer or employee in the caller's transaction, for the single-row
+     * deletes that remove the hot orders with one statement each.
+     *
+     * @param ownerColumn Column in order_head_archive that references the owner (customer_id or employee_id).
+     */
+    static void deleteArchivedOrders(Connection conn, String ownerColumn, long ownerId) throws SQLException {
+        String deleteLines = "DELETE FROM order_line_archive WHERE order_id IN "
+                + "(SELECT id FROM order_head_archive WHERE " + ownerColumn + " = ?)";
+        String deleteHeads = "DELETE FROM order_head_archive WHERE " + ownerColumn + " = ?";
+        try (PreparedStatement lines = conn.prepareStatement(deleteLines);
+             PreparedStatement heads = conn.prepareStatement(deleteHeads)) {
+            lines.setLong(1, ownerId);
+            lines.executeUpdate();
+            heads.setLong(1, ownerId);
+            heads.executeUpdate();
+        }
+    }
+
+    /**
+     * Executes {@code sqlPrefix + "?, ?, ...)"} with the given ids bound in order.
+     *
+     * @return The number of affected rows.
+     */
+    static int executeWithIds(Connection conn, String sqlPrefix, List<Long> ids) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sqlPrefix + placeholders(ids.size()) + ")")) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setLong(i + 1, ids.get(i));
+            }
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Splits {@code ids} into consecutive sublists of at most {@code size} elements.
+     */
+    static List<List<Long>> partition(List<Long> ids, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0.");
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<List<Long>> parts = new ArrayList<>((ids.size() + size - 1) / size);
+        for (int from = 0; from < ids.size(); from += size) {
+            parts.add(ids.subList(from, Math.min(from + size, ids.size())));
+        }
+        return parts;
+    }
+
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
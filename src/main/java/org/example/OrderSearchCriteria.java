@@ -0,0 +1,123 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Sökvillkor för {@link OrderDao#searchOrders(OrderSearchCriteria, PageRequest)}. Villkor som är null används
+ * inte; alla satta villkor måste uppfyllas. Datumgränserna och beloppsgränserna är inklusiva.
+ * <p>
+ * Villkoren byggs ihop med {@code with*}-metoderna, t.ex.
+ * {@code OrderSearchCriteria.all().withCustomer(3).withDates(from, to)}, eller tolkas från filterfältets
+ * text med {@link #parse(String)}.
+ */
+public record OrderSearchCriteria(
+        LocalDate fromDate,
+        LocalDate toDate,
+        Long customerId,
+        Long employeeId,
+        Double minTotal,
+        Double maxTotal,
+        Long furnitureId,
+        boolean includeArchived
+) {
+    /**
+     * Syntaxen som {@link #parse(String)} förstår, för felmeddelanden och hjälptexter.
+     */
+    public static final String SYNTAX =
+            "kund:ID anställd:ID möbel:ID från:ÅÅÅÅ-MM-DD till:ÅÅÅÅ-MM-DD min:belopp max:belopp arkiv (ett tal = kund-ID)";
+
+    public OrderSearchCriteria {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("Från-datum kan inte vara efter till-datum");
+        }
+        if (minTotal != null && maxTotal != null && minTotal > maxTotal) {
+            throw new IllegalArgumentException("Min-belopp kan inte vara större än max-belopp");
+        }
+    }
+
+    /**
+     * Villkor som matchar alla aktuella (ej arkiverade) ordrar.
+     */
+    public static OrderSearchCriteria all() {
+        return new OrderSearchCriteria(null, null, null, null, null, null, null, false);
+    }
+
+    public OrderSearchCriteria withDates(LocalDate from, LocalDate to) {
+        return new OrderSearchCriteria(from, to, customerId, employeeId, minTotal, maxTotal, furnitureId, includeArchived);
+    }
+
+    public OrderSearchCriteria withCustomer(long id) {
+        return new OrderSearchCriteria(fromDate, toDate, id, employeeId, minTotal, maxTotal, furnitureId, includeArchived);
+    }
+
+    public OrderSearchCriteria withEmployee(long id) {
+        return new OrderSearchCriteria(fromDate, toDate, customerId, id, minTotal, maxTotal, furnitureId, includeArchived);
+    }
+
+    public OrderSearchCriteria withTotal(Double min, Double max) {
+        return new OrderSearchCriteria(fromDate, toDate, customerId, employeeId, min, max, furnitureId, includeArchived);
+    }
+
+    public OrderSearchCriteria withFurniture(long id) {
+        return new OrderSearchCriteria(fromDate, toDate, customerId, employeeId, minTotal, maxTotal, id, includeArchived);
+    }
+
+    public OrderSearchCriteria withArchived(boolean include) {
+        return new OrderSearchCriteria(fromDate, toDate, customerId, employeeId, minTotal, maxTotal, furnitureId, include);
+    }
+
+    /**
+     * Om villkoren kräver orderrader (belopp eller möbel), som inte finns i orderhuvudet.
+     */
+    public boolean needsLines() {
+        return minTotal != null || maxTotal != null || furnitureId != null;
+    }
+
+    /**
+     * Om orderhuvudet uppfyller villkoren för datum, kund och anställd. Villkor på orderrader
+     * ({@link #needsLines()}) kan inte prövas här och ger false.
+     */
+    public boolean matches(OrderHead order) {
+        return !needsLines()
+                && (fromDate == null || !order.orderDate().isBefore(fromDate))
+                && (toDate == null || !order.orderDate().isAfter(toDate))
+                && (customerId == null || order.customerId() == customerId)
+                && (employeeId == null || order.employeeId() == employeeId);
+    }
+
+    /**
+     * Tolkar filtertext som {@code "kund:3 från:2024-01-01 min:500"}, se {@link #SYNTAX}. Tom text ger {@link #all()}.
+     *
+     * @throws IllegalArgumentException om texten inte följer syntaxen.
+     */
+    public static OrderSearchCriteria parse(String text) {
+        OrderSearchCriteria criteria = all();
+        if (text == null || text.isBlank()) {
+            return criteria;
+        }
+        for (String token : text.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+            int colon = token.indexOf(':');
+            String key = colon < 0 ? "" : token.substring(0, colon);
+            String value = colon < 0 ? token : token.substring(colon + 1);
+            try {
+                criteria = switch (key) {
+                    case "", "kund" -> colon < 0 && value.equals("arkiv")
+                            ? criteria.withArchived(true)
+                            : criteria.withCustomer(Long.parseLong(value));
+                    case "anställd" -> criteria.withEmployee(Long.parseLong(value));
+                    case "möbel" -> criteria.withFurniture(Long.parseLong(value));
+                    case "från" -> criteria.withDates(LocalDate.parse(value), criteria.toDate());
+                    case "till" -> criteria.withDates(criteria.fromDate(), LocalDate.parse(value));
+                    case "min" -> criteria.withTotal(Double.parseDouble(value), criteria.maxTotal());
+                    case "max" -> criteria.withTotal(criteria.minTotal(), Double.parseDouble(value));
+                    default -> throw new IllegalArgumentException("Okänt sökvillkor \"" + key + "\". Använd " + SYNTAX);
+                };
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Ogiltigt värde i \"" + token + "\". Använd " + SYNTAX, e);
+            }
+        }
+        return criteria;
+    }
+}
@@ -0,0 +1,253 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind order creation with group commit.
+ * <p>
+ * {@link #submit} queues an order and returns a future for its ID. A few writer threads take queued orders
+ * in batches of up to {@code orderqueue.maxBatch}, insert each with {@link OrderDao#insertOrder} on one
+ * connection, and commit the whole batch once, so orders submitted at the same time share one commit (and one
+ * log flush) instead of paying one each. A writer waits at most {@code orderqueue.maxWaitMillis} after the
+ * first order of a batch for more to arrive, which bounds the added latency when the load is light; under
+ * heavy load batches fill without waiting.
+ * <p>
+ * The queue lives in one JVM, so only orders submitted from the same process are batched together. Each
+ * counter runs its own client, and orders from different counters are still committed separately; the
+ * queue pays off for processes that create many orders themselves, such as batch imports or a shared
+ * backend serving several counters.
+ * <p>
+ * Each order is written under its own savepoint, so an invalid order (e.g. an unknown customer) fails only
+ * its own future. If the commit fails, every order in the batch fails. The queue holds at most
+ * {@code orderqueue.capacity} orders; when it is full, {@link #submit} waits up to
+ * {@code orderqueue.submitTimeoutMillis} for room and then rejects the order, which pushes back on callers
+ * instead of letting the backlog grow.
+ * <p>
+ * The shared queue is used only when {@code orderqueue.writers} is above 0; otherwise orders are created
+ * directly with {@link OrderDao#createOrder}.
+ */
+public final class OrderSubmissionQueue {
+    private static final Logger logger = Logger.getLogger(OrderSubmissionQueue.class.getName());
+    /** How often an idle writer checks whether the queue has been shut down. */
+    private static final long IDLE_POLL_MILLIS = 200;
+
+    private static OrderSubmissionQueue shared;
+
+    private record Submission(OrderHead order, List<OrderLine> lines, CompletableFuture<Long> result) {
+    }
+
+    private final OrderDao orderDao;
+    private final BlockingQueue<Submission> queue;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final long submitTimeoutMillis;
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean closed;
+
+    OrderSubmissionQueue(OrderDao orderDao, int capacity, int writerCount, int maxBatch, long maxWaitMillis,
+                         long submitTimeoutMillis) {
+        if (capacity <= 0 || writerCount <= 0 || maxBatch <= 0) {
+            throw new IllegalArgumentException("Capacity, writers and batch size must be positive");
+        }
+        this.orderDao = orderDao;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.submitTimeoutMillis = submitTimeoutMillis;
+        for (int i = 0; i < writerCount; i++) {
+            Thread writer = new Thread(this::runWriter, "order-writer-" + (i + 1));
+            writer.setDaemon(true);
+            writers.add(writer);
+            writer.start();
+        }
+    }
+
+    /**
+     * The shared queue, started on the first call, or null if {@code orderqueue.writers} is 0 (the default).
+     */
+    public static synchronized OrderSubmissionQueue getIfEnabled() {
+        if (shared == null) {
+            int writers = DBConnection.getIntProperty("orderqueue.writers", 0);
+            if (writers <= 0) {
+                return null;
+            }
+            shared = new OrderSubmissionQueue(new OrderDao(),
+                    DBConnection.getIntProperty("orderqueue.capacity", 1000),
+                    writers,
+                    DBConnection.getIntProperty("orderqueue.maxBatch", 50),
+                    DBConnection.getIntProperty("orderqueue.maxWaitMillis", 5),
+                    DBConnection.getIntProperty("orderqueue.submitTimeoutMillis", 2000));
+            logger.info("Order submission queue started with " + writers + " writers");
+        }
+        return shared;
+    }
+
+    /**
+     * Writes the orders still queued and stops the shared queue, if it was started.
+     */
+    public static synchronized void shutdownShared() {
+        if (shared != null) {
+            shared.shutdown();
+            shared = null;
+        }
+    }
+
+    /**
+     * Queues an order for creation.
+     *
+     * @return A future completed with the generated order ID once the order's batch has committed, or
+     *         exceptionally with a {@link RuntimeException} if the order could not be created.
+     * @throws IllegalArgumentException if the order date is missing or in the future, or there are no lines.
+     * @throws RejectedExecutionException if the queue is shut down or stays full for the submit timeout.
+     */
+    public CompletableFuture<Long> submit(OrderHead order, List<OrderLine> orderLines) {
+        OrderDao.validateNewOrder(order, orderLines);
+        if (closed) {
+            throw new RejectedExecutionException("Order queue is shut down");
+        }
+        Submission submission = new Submission(order, List.copyOf(orderLines), new CompletableFuture<>());
+        try {
+            if (!queue.offer(submission, submitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Order queue is full, try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room in the order queue", e);
+        }
+        // Shut down while this order was being queued: the writers may already have stopped. If a writer
+        // took the order before it could be removed, the order is written and the future completes as usual.
+        if (closed && queue.remove(submission)) {
+            throw new RejectedExecutionException("Order queue is shut down");
+        }
+        return submission.result();
+    }
+
+    /**
+     * Number of orders waiting for a writer.
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    /**
+     * Stops accepting orders, lets the writers write everything already queued, and waits for them to finish.
+     * Orders still queued after that (a writer was interrupted) fail with {@link RejectedExecutionException}.
+     */
+    public void shutdown() {
+        closed = true;
+        for (Thread writer : writers) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        List<Submission> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            logger.warning(leftover.size() + " queued orders were not written before shutdown");
+            RejectedExecutionException rejected = new RejectedExecutionException("Order queue is shut down");
+            leftover.forEach(s -> s.result().completeExceptionally(rejected));
+        }
+        logger.info("Order submission queue stopped");
+    }
+
+    private void runWriter() {
+        List<Submission> batch = new ArrayList<>(maxBatch);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                // Not expected (flush fails the futures itself), but a writer must never die with orders queued
+                logger.log(Level.SEVERE, "Order writer failed", e);
+                batch.forEach(s -> s.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds queued orders to {@code batch} until it is full or {@code maxWaitNanos} has passed since the first.
+     */
+    private void collect(List<Submission> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatch) {
+            // Take what is already queued without waiting, then wait only for the rest of the window
+            if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            Submission next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction and completes each order's future.
+     */
+    private void flush(List<Submission> batch) {
+        List<Submission> written = new ArrayList<>(batch.size());
+        List<Long> ids = new ArrayList<>(batch.size());
+        try (Connection conn = DBConnection.getConnection(Workload.INTERACTIVE)) {
+            conn.setAutoCommit(false);
+            try {
+                for (Submission s : batch) {
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        ids.add(orderDao.insertOrder(conn, s.order(), s.lines()));
+                        written.add(s);
+                        conn.releaseSavepoint(savepoint);
+                    } catch (SQLException | IllegalArgumentException e) {
+                        conn.rollback(savepoint);
+                        logger.log(Level.WARNING, "Failed to create queued order: {0}", s.order());
+                        s.result().completeExceptionally(
+                                new RuntimeException("Could not create order: " + e.getMessage(), e));
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Database error while writing " + batch.size() + " queued orders", e);
+            RuntimeException failure = new RuntimeException("Database error: " + e.getMessage(), e);
+            batch.forEach(s -> s.result().completeExceptionally(failure));
+            return;
+        }
+        logger.log(Level.FINE, "Group commit of {0} orders", written.size());
+        for (int i = 0; i < written.size(); i++) {
+            Submission s = written.get(i);
+            orderDao.orderCommitted(ids.get(i), s.order(), s.lines());
+            s.result().complete(ids.get(i));
+        }
+    }
+}
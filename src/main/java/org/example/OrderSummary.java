@@ -0,0 +1,72 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Representerar en komplett order: orderhuvud, kundnamn, orderrader och totalsumma.
+ */
+public record OrderSummary(OrderHead head, String customerFirstName, String customerLastName,
+                           List<Line> lines, double total) {
+    /**
+     * Förnamn som visas när kunden eller möbeln inte längre finns, följt av "#" och ID:t som efternamn.
+     */
+    static final String MISSING_CUSTOMER = "Borttagen kund";
+    static final String MISSING_FURNITURE = "Borttagen möbel";
+
+    /**
+     * En orderrad med möbelns namn och pris.
+     */
+    public record Line(long id, long furnitureId, String furnitureName, double price, int quantity) {
+        public double lineTotal() {
+            return price * quantity;
+        }
+    }
+
+    public OrderSummary {
+        if (head == null) {
+            throw new IllegalArgumentException("Order head cannot be null");
+        }
+        if (customerFirstName == null || customerFirstName.isEmpty()) {
+            throw new IllegalArgumentException("Customer first name cannot be null or empty");
+        }
+        if (customerLastName == null || customerLastName.isEmpty()) {
+            throw new IllegalArgumentException("Customer last name cannot be null or empty");
+        }
+        lines = List.copyOf(lines);
+    }
+
+    public String customerName() {
+        return customerFirstName + " " + customerLastName;
+    }
+
+    /**
+     * Plattar ut ordern till en {@link OrderDetail} per orderrad med ett gemensamt orderhuvud, eller en rad "No furniture" om ordern saknar rader.
+     */
+    public List<OrderDetail> toDetails() {
+        List<OrderDetail> details = new ArrayList<>(Math.max(1, lines.size()));
+        OrderDetail.Header header = new OrderDetail.Header(head.id(), head.orderDate(), customerFirstName, customerLastName);
+        if (lines.isEmpty()) {
+            details.add(new OrderDetail(header, "No furniture", 0, 0));
+        }
+        for (Line line : lines) {
+            details.add(new OrderDetail(header, line.furnitureName(), line.price(), line.quantity()));
+        }
+        return details;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Order ID: ").append(head.id())
+                .append(", Order Date: ").append(head.orderDate())
+                .append(", Customer: ").append(customerName())
+                .append(", Total: ").append(String.format("%.2f", total));
+        for (Line line : lines) {
+            sb.append("\n    ").append(line.furnitureName())
+                    .append(" x").append(line.quantity())
+                    .append(" à ").append(line.price());
+        }
+        return sb.toString();
+    }
+}
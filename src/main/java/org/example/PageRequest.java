@@ -0,0 +1,20 @@
+package org.example;
+
+/**
+ * En sida i en keyset-paginerad sökning: högst {@code size} rader med id större än {@code afterId}.
+ * Till skillnad från OFFSET kostar en sida lika mycket oavsett hur långt in i resultatet den ligger.
+ */
+public record PageRequest(long afterId, int size) {
+    public PageRequest {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+    }
+
+    /**
+     * Första sidan.
+     */
+    public static PageRequest first(int size) {
+        return new PageRequest(0, size);
+    }
+}
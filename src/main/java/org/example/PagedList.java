@@ -0,0 +1,325 @@
+package org.example;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A read-only {@link javafx.collections.ObservableList} for TableViews that loads its rows page by page.
+ * <p>
+ * Only the row count is read up front. A page is fetched with one query the first time a row on it is requested
+ * (LIMIT/OFFSET, or a keyset query after the previous page's last row for sources that support it), the
+ * following page is then prefetched, and the least recently used pages are evicted once more than
+ * {@code maxCachedPages} are held. Since a TableView only asks for its visible rows, opening a tab costs one
+ * count and one page regardless of table size.
+ * <p>
+ * The count and all pages are read on a background thread. Until a page has arrived its rows are returned as
+ * the {@code placeholder} row, and the rows are replaced when it does. If a page comes back shorter than
+ * expected (rows were deleted since the count), the list shrinks to match.
+ * <p>
+ * All methods except the background loader must be called on the JavaFX thread.
+ *
+ * @param <T> The row type.
+ */
+public final class PagedList<T> extends ObservableListBase<T> {
+    private static final Logger logger = Logger.getLogger(PagedList.class.getName());
+
+    /**
+     * Count and page queries for one table. The filter is applied server side; an empty filter matches all rows.
+     * Rows must be returned in a stable order (e.g. by id) so that pages line up.
+     */
+    public interface PageSource<T> {
+        int count(String filter);
+
+        List<T> fetch(String filter, int offset, int limit);
+
+        /**
+         * Like {@link #fetch(String, int, int)}, with the row just before {@code offset} when it is loaded
+         * (null otherwise), so a source can continue after that row's key instead of skipping rows with OFFSET.
+         */
+        default List<T> fetch(String filter, int offset, int limit, T previous) {
+            return fetch(filter, offset, limit);
+        }
+    }
+
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "paged-list-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final PageSource<T> source;
+    private final ToLongFunction<T> idOf;
+    private final T placeholder;
+    private final int pageSize;
+    private final int maxCachedPages;
+    private final Map<Integer, List<T>> pages;
+    private final Set<Integer> loading = new HashSet<>();
+    // Pages whose rows have been handed out as placeholders and must be replaced when they arrive.
+    private final Set<Integer> waiting = new HashSet<>();
+
+    private String filter = "";
+    private int size;
+    // Bumped whenever cached pages become invalid, so late page results are dropped.
+    private int generation;
+    // Bumped by every refresh, so only the latest count is applied.
+    private int refreshes;
+
+    public PagedList(PageSource<T> source, ToLongFunction<T> idOf, T placeholder) {
+        this(source, idOf, placeholder, 100, 10);
+    }
+
+    public PagedList(PageSource<T> source, ToLongFunction<T> idOf, T placeholder, int pageSize, int maxCachedPages) {
+        if (pageSize <= 0 || maxCachedPages <= 0) {
+            throw new IllegalArgumentException("pageSize and maxCachedPages must be positive");
+        }
+        this.source = source;
+        this.idOf = idOf;
+        this.placeholder = placeholder;
+        this.pageSize = pageSize;
+        this.maxCachedPages = maxCachedPages;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > PagedList.this.maxCachedPages;
+            }
+        };
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        int page = index / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            waiting.add(page);
+            load(page);
+            return placeholder;
+        }
+        load(page + 1);
+        int offset = index % pageSize;
+        return offset < rows.size() ? rows.get(offset) : placeholder;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether {@code row} is the placeholder shown for a row whose page has not arrived yet.
+     */
+    public boolean isPlaceholder(T row) {
+        return row == placeholder;
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    /**
+     * Sets the server-side filter and reloads the row count.
+     *
+     * @return See {@link #refresh()}.
+     */
+    public CompletableFuture<Integer> setFilter(String filter) {
+        this.filter = filter == null ? "" : filter.trim();
+        return refresh();
+    }
+
+    /**
+     * Drops all cached pages and re-reads the row count in the background.
+     *
+     * @return A future completed on the JavaFX thread with the new row count, or exceptionally with the
+     *         {@link RuntimeException} thrown by the count query.
+     */
+    public CompletableFuture<Integer> refresh() {
+        invalidatePages();
+        pages.clear();
+        int refresh = ++refreshes;
+        String countFilter = filter;
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        loader.execute(() -> {
+            try {
+                int count = source.count(countFilter);
+                Platform.runLater(() -> {
+                    if (refresh == refreshes) {
+                        resize(count);
+                    }
+                    result.complete(count);
+                });
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Row count failed", e);
+                Platform.runLater(() -> result.completeExceptionally(e));
+            }
+        });
+        return result;
+    }
+
+    private void resize(int newSize) {
+        int oldSize = size;
+        size = newSize;
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, Collections.nCopies(oldSize, placeholder));
+        }
+        if (size > 0) {
+            nextAdd(0, size);
+        }
+        endChange();
+    }
+
+    /**
+     * Applies a published change to the cached pages. Updates replace the row in place; inserts and deletes
+     * shift rows between pages, so pages from the affected position onwards are dropped and re-read on demand.
+     * Safe to call from any thread.
+     */
+    public void apply(ChangeEvent<T> event) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> apply(event));
+            return;
+        }
+        int index = indexOf(event.id());
+        switch (event.type()) {
+            case UPDATE -> {
+                if (index >= 0) {
+                    List<T> rows = pages.get(index / pageSize);
+                    T old = rows.set(index % pageSize, event.entity());
+                    beginChange();
+                    nextSet(index, old);
+                    endChange();
+                }
+            }
+            case ADD -> {
+                if (!filter.isEmpty()) {
+                    // Whether the new row matches is decided by the database.
+                    refresh();
+                } else if (index < 0) {
+                    // Rows are ordered by id and new ids are the largest, so the row goes last.
+                    dropPagesFrom(size / pageSize);
+                    size++;
+                    beginChange();
+                    nextAdd(size - 1, size);
+                    endChange();
+                }
+            }
+            case DELETE -> {
+                if (index >= 0) {
+                    T removed = get(index);
+                    dropPagesFrom(index / pageSize);
+                    size--;
+                    beginChange();
+                    nextRemove(index, removed);
+                    endChange();
+                } else if (size > 0) {
+                    // The row is on a page that is not loaded; its position is unknown.
+                    refresh();
+                }
+            }
+        }
+    }
+
+    private int indexOf(long id) {
+        for (Map.Entry<Integer, List<T>> e : pages.entrySet()) {
+            List<T> rows = e.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                if (idOf.applyAsLong(rows.get(i)) == id) {
+                    return e.getKey() * pageSize + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The last row of a cached, full page, or null.
+     */
+    private T lastRowOf(int page) {
+        List<T> rows = page < 0 ? null : pages.get(page);
+        return rows == null || rows.size() != pageSize ? null : rows.get(pageSize - 1);
+    }
+
+    private void dropPagesFrom(int firstPage) {
+        invalidatePages();
+        pages.keySet().removeIf(page -> page >= firstPage);
+    }
+
+    private void invalidatePages() {
+        generation++;
+        loading.clear();
+        waiting.clear();
+    }
+
+    /**
+     * Reads a page on the loader thread unless it is cached, already being read, or past the end.
+     */
+    private void load(int page) {
+        if (page * pageSize >= size || pages.containsKey(page) || !loading.add(page)) {
+            return;
+        }
+        int gen = generation;
+        String pageFilter = filter;
+        T previous = lastRowOf(page - 1);
+        loader.execute(() -> {
+            try {
+                List<T> rows = source.fetch(pageFilter, page * pageSize, pageSize, previous);
+                Platform.runLater(() -> {
+                    if (gen == generation) {
+                        loaded(page, rows);
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Loading page " + page + " failed", e);
+                Platform.runLater(() -> {
+                    if (gen == generation) {
+                        // Requested again the next time the table asks for one of its rows.
+                        loading.remove(page);
+                    }
+                });
+            }
+        });
+    }
+
+    private void loaded(int page, List<T> fetched) {
+        loading.remove(page);
+        // Sources may return immutable lists or views (e.g. of the offline snapshot); apply() updates rows in place.
+        List<T> rows = new ArrayList<>(fetched);
+        pages.put(page, rows);
+        int from = page * pageSize;
+        int end = Math.min(size, from + pageSize);
+        int available = from + rows.size();
+        if (available < end) {
+            // Rows were deleted since the count: the list ends within this page.
+            pages.keySet().removeIf(p -> p > page);
+            loading.removeIf(p -> p > page);
+            waiting.removeIf(p -> p > page);
+            int oldSize = size;
+            size = available;
+            beginChange();
+            if (waiting.remove(page) && from < available) {
+                nextReplace(from, available, Collections.nCopies(available - from, placeholder));
+            }
+            nextRemove(available, Collections.nCopies(oldSize - available, placeholder));
+            endChange();
+        } else if (waiting.remove(page)) {
+            beginChange();
+            nextReplace(from, end, Collections.nCopies(end - from, placeholder));
+            endChange();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The picks for a batch of orders, grouped into one stop per shelf in walking order.
+ *
+ * @param stops The shelves to visit, in the order to visit them.
+ */
+public record PickList(LocalDate date, int orderCount, List<Stop> stops) {
+
+    /**
+     * One item to take from a shelf for one order.
+     */
+    public record Pick(long orderId, long furnitureId, String furnitureName, int shelf, int quantity, double weight) {
+    }
+
+    /**
+     * All picks from one shelf, ordered by order ID.
+     */
+    public record Stop(int shelf, List<Pick> picks) {
+        public Stop {
+            picks = List.copyOf(picks);
+        }
+
+        public double totalWeight() {
+            double total = 0;
+            for (Pick pick : picks) {
+                total += pick.weight() * pick.quantity();
+            }
+            return total;
+        }
+    }
+
+    public PickList {
+        stops = List.copyOf(stops);
+    }
+
+    public int lineCount() {
+        int count = 0;
+        for (Stop stop : stops) {
+            count += stop.picks().size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Builds warehouse pick lists for a whole day's orders in one pass.
+ * <p>
+ * The day's picks are read with a single join that already carries each item's shelf and is ordered by shelf
+ * number, so consecutive picks from one shelf form one stop and there is no per-order or per-item lookup.
+ * The stops are then ordered along the walk through the warehouse. Shelves are numbered along the
+ * aisles, {@code picklist.shelvesPerAisle} to an aisle. The walk is S-shaped: even aisles (0, 2, ...) are walked
+ * towards higher shelf numbers and odd aisles back towards lower ones, so the picker never walks an aisle
+ * twice. With the default of 0 all shelves count as one aisle and the walk is simply by shelf number.
+ */
+public class PickListGenerator {
+    private final OrderDao orderDao;
+    private final int shelvesPerAisle;
+
+    public PickListGenerator() {
+        this(new OrderDao(), DBConnection.getIntProperty("picklist.shelvesPerAisle", 0));
+    }
+
+    PickListGenerator(OrderDao orderDao, int shelvesPerAisle) {
+        this.orderDao = orderDao;
+        this.shelvesPerAisle = shelvesPerAisle;
+    }
+
+    /**
+     * The pick list for all current orders dated {@code day}.
+     *
+     * @throws RuntimeException if a database error occurs.
+     */
+    public PickList forDate(LocalDate day) {
+        return build(day, orderDao.listPicksForDate(day));
+    }
+
+    /**
+     * Groups {@code picks}, ordered by shelf and then by order, into stops in walking order.
+     */
+    PickList build(LocalDate day, List<PickList.Pick> picks) {
+        Set<Long> orderIds = new HashSet<>();
+        // Keyed by position along the walk, so iterating the map gives the stops in walking order
+        TreeMap<Integer, PickList.Stop> byPosition = new TreeMap<>();
+        int from = 0;
+        for (int i = 0; i < picks.size(); i++) {
+            orderIds.add(picks.get(i).orderId());
+            if (i + 1 == picks.size() || picks.get(i + 1).shelf() != picks.get(from).shelf()) {
+                int shelf = picks.get(from).shelf();
+                byPosition.put(walkPosition(shelf), new PickList.Stop(shelf, picks.subList(from, i + 1)));
+                from = i + 1;
+            }
+        }
+        return new PickList(day, orderIds.size(), new ArrayList<>(byPosition.values()));
+    }
+
+    /**
+     * The position of {@code shelf} along the S-shaped walk; distinct shelves get distinct positions.
+     */
+    int walkPosition(int shelf) {
+        if (shelvesPerAisle <= 0) {
+            return shelf;
+        }
+        int aisle = shelf / shelvesPerAisle;
+        int offset = shelf % shelvesPerAisle;
+        return aisle * shelvesPerAisle + (aisle % 2 == 0 ? offset : shelvesPerAisle - 1 - offset);
+    }
+}
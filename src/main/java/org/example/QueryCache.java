@@ -0,0 +1,134 @@
+package org.example;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded LRU cache for results of expensive read queries.
+ * <p>
+ * Each entry is tagged with the tables its query reads. Writers invalidate by table after committing
+ * ({@link #invalidate(String, ChangeType)}), and {@link ChangeLogPoller} does the same for changes made by
+ * other clients, so an entry lives until data it depends on actually changes. Every table has a version
+ * counter: a result is only stored if none of its tables was invalidated while the query ran, so a slow
+ * query can never cache rows that a concurrent write has already replaced.
+ * <p>
+ * Loaders must read from the primary ({@link DBConnection#getConnection}), not the read replica: a replica
+ * that has not yet applied a write could return the old rows after the invalidation, and they would then be
+ * cached until the next change to those tables.
+ * <p>
+ * Cached lists are immutable and shared between callers.
+ */
+final class QueryCache {
+    // Holder so that a standalone cache (as in QueryCacheTest) does not load the database settings.
+    private static final class Holder {
+        static final QueryCache INSTANCE = new QueryCache(DBConnection.getIntProperty("cache.maxEntries", 200));
+    }
+
+    private record Key(String query, List<Object> params) {
+    }
+
+    private record Entry(List<?> rows, Set<String> tables) {
+    }
+
+    private final Map<Key, Entry> entries;
+    private final Map<String, Long> versions = new HashMap<>();
+
+    QueryCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    static QueryCache get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the cached rows for {@code query} with {@code params}, or runs {@code loader} and caches its result.
+     * Exceptions from the loader are not cached.
+     *
+     * @param query  A name identifying the query, unique per SQL statement.
+     * @param params The query parameters; must have proper equals/hashCode.
+     * @param tables The tables the query reads; archive tables are tagged with their base table name.
+     */
+    @SuppressWarnings("unchecked")
+    <T> List<T> get(String query, List<Object> params, Set<String> tables, Supplier<List<T>> loader) {
+        Key key = new Key(query, params);
+        long version;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                return (List<T>) entry.rows();
+            }
+            version = versionOf(tables);
+        }
+        List<T> rows = List.copyOf(loader.get());
+        synchronized (this) {
+            if (versionOf(tables) == version) {
+                entries.put(key, new Entry(rows, tables));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Drops every entry that reads one of {@code tables}.
+     */
+    synchronized void invalidate(String... tables) {
+        for (String table : tables) {
+            versions.merge(table, 1L, Long::sum);
+        }
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Set<String> read = it.next().tables();
+            for (String table : tables) {
+                if (read.contains(table)) {
+                    it.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every entry that reads a table touched by a DAO write of {@code type} on {@code table}, as
+     * recorded in change_log. Deleting a customer, employee or furniture row also deletes the order rows
+     * that reference it; adding or deleting an order writes both order tables.
+     */
+    void invalidate(String table, ChangeType type) {
+        switch (table) {
+            case "customer", "employee" -> {
+                if (type == ChangeType.DELETE) {
+                    invalidate(table, "order_head", "order_line");
+                } else {
+                    invalidate(table);
+                }
+            }
+            case "furniture" -> {
+                if (type == ChangeType.DELETE) {
+                    invalidate(table, "order_line");
+                } else {
+                    invalidate(table);
+                }
+            }
+            case "order_head" -> invalidate("order_head", "order_line");
+            default -> invalidate(table);
+        }
+    }
+
+    private long versionOf(Set<String> tables) {
+        long sum = 0;
+        for (String table : tables) {
+            sum += versions.getOrDefault(table, 0L);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,232 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * "Customers also bought" index: for each furniture item, the {@code recommend.topK} items that most often
+ * appear on the same order.
+ * <p>
+ * The index is built by streaming order_line (hot and archived) ordered by order ID, so each order's items
+ * are counted pairwise as soon as the next order starts. Co-occurrence counts are kept per item in a
+ * {@link LongIntMap}, and the top-K list of each item is precomputed, so {@link #related(long)} is a hash
+ * lookup and an array copy. New orders are counted as they commit: {@link OrderDao#orderCommitted} reports
+ * their lines directly, and orders from other clients arrive as {@link OrderHead} events from
+ * {@link ChangeLogPoller}, whose lines are read with one query. The counts are approximate by design: orders
+ * committed while the index is loading may be missed, and deleted orders stay counted until the index is
+ * rebuilt at the next start. Neither changes the rankings noticeably.
+ */
+public final class RecommendationIndex {
+    private static final Logger logger = Logger.getLogger(RecommendationIndex.class.getName());
+    /** Larger orders (bulk purchases) say little about which items belong together and are not counted. */
+    private static final int MAX_ORDER_ITEMS = 50;
+    private static final long[] NONE = new long[0];
+
+    private static volatile RecommendationIndex instance;
+    private static boolean loading;
+
+    private static final class Entry {
+        final LongIntMap counts = new LongIntMap(8);
+        long[] top = NONE;
+    }
+
+    /**
+     * The lines of the order currently being streamed in {@link #load()}.
+     */
+    private static final class OrderBuffer {
+        long orderId;
+        long[] ids = new long[16];
+        int size;
+
+        void add(long furnitureId) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = furnitureId;
+        }
+    }
+
+    private final int topK;
+    /** Furniture id to index in {@link #entries} plus one, so that 0 means absent. */
+    private final LongIntMap slots = new LongIntMap(1024);
+    private final List<Entry> entries = new ArrayList<>();
+    /** Orders counted through {@link #orderCommitted}, whose bus event must not count them again. */
+    private final Set<Long> countedLocally = ConcurrentHashMap.newKeySet();
+    private final OrderDao orderDao = new OrderDao();
+
+    RecommendationIndex(int topK) {
+        this.topK = topK;
+    }
+
+    /**
+     * The loaded index, or null while it has not been loaded; callers then show no suggestions.
+     */
+    public static RecommendationIndex getIfLoaded() {
+        return instance;
+    }
+
+    /**
+     * Starts loading the index on a daemon thread unless it is loaded or loading. A failed load (e.g. while
+     * offline) is logged and may be retried by calling this again.
+     */
+    public static synchronized void loadInBackground() {
+        if (instance != null || loading) {
+            return;
+        }
+        loading = true;
+        Thread thread = new Thread(() -> {
+            RecommendationIndex index = new RecommendationIndex(DBConnection.getIntProperty("recommend.topK", 5));
+            try {
+                long start = System.nanoTime();
+                long rows = index.load();
+                logger.log(Level.INFO, "Recommendation index loaded from {0} order lines in {1} ms",
+                        new Object[]{rows, (System.nanoTime() - start) / 1_000_000});
+                DataChangeBus.get().subscribe(OrderHead.class, index::apply);
+                instance = index;
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Could not load recommendation index", e);
+            } finally {
+                synchronized (RecommendationIndex.class) {
+                    loading = false;
+                }
+            }
+        }, "recommendation-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Counts a just-committed order if the index is loaded. Called by {@link OrderDao#orderCommitted} before it
+     * publishes the order's event.
+     */
+    static void orderCommitted(long orderId, List<OrderLine> lines) {
+        RecommendationIndex index = instance;
+        if (index == null) {
+            return;
+        }
+        long[] ids = new long[lines.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = lines.get(i).furnitureId();
+        }
+        index.countedLocally.add(orderId);
+        index.addOrder(ids, ids.length, true);
+    }
+
+    /**
+     * The items most often bought together with {@code furnitureId}, most frequent first; empty if none.
+     */
+    public synchronized long[] related(long furnitureId) {
+        int slot = slots.get(furnitureId);
+        return slot == 0 ? NONE : entries.get(slot - 1).top.clone();
+    }
+
+    private long load() {
+        OrderBuffer order = new OrderBuffer();
+        long rows = orderDao.streamOrderLineFurniture(true, rs -> {
+            long orderId = rs.getLong(1);
+            if (orderId != order.orderId) {
+                addOrder(order.ids, order.size, false);
+                order.orderId = orderId;
+                order.size = 0;
+            }
+            order.add(rs.getLong(2));
+        });
+        addOrder(order.ids, order.size, false);
+        synchronized (this) {
+            for (Entry entry : entries) {
+                entry.top = topOf(entry.counts, topK);
+            }
+        }
+        return rows;
+    }
+
+    private void apply(ChangeEvent<OrderHead> event) {
+        if (event.type() != ChangeType.ADD || countedLocally.remove(event.id())) {
+            return;
+        }
+        List<Long> furnitureIds = orderDao.listFurnitureIdsForOrder(event.id());
+        long[] ids = new long[furnitureIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = furnitureIds.get(i);
+        }
+        addOrder(ids, ids.length, true);
+    }
+
+    /**
+     * Counts every pair of distinct items among the first {@code n} of {@code ids}; the array is sorted in place.
+     *
+     * @param updateTop true to recompute the top-K lists of the affected items now, false while bulk loading.
+     */
+    private synchronized void addOrder(long[] ids, int n, boolean updateTop) {
+        if (n < 2 || n > MAX_ORDER_ITEMS) {
+            return;
+        }
+        Arrays.sort(ids, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        for (int i = 0; i < distinct; i++) {
+            Entry entry = entry(ids[i]);
+            for (int j = 0; j < distinct; j++) {
+                if (i != j) {
+                    entry.counts.add(ids[j], 1);
+                }
+            }
+            if (updateTop) {
+                entry.top = topOf(entry.counts, topK);
+            }
+        }
+    }
+
+    private Entry entry(long furnitureId) {
+        int slot = slots.get(furnitureId);
+        if (slot == 0) {
+            entries.add(new Entry());
+            slot = entries.size();
+            slots.put(furnitureId, slot);
+        }
+        return entries.get(slot - 1);
+    }
+
+    /**
+     * The {@code topK} keys with the highest counts, highest first and ties by lower id, by insertion into a
+     * K-sized array.
+     */
+    static long[] topOf(LongIntMap counts, int topK) {
+        int k = Math.min(topK, counts.size());
+        long[] ids = new long[k];
+        int[] best = new int[k];
+        int filled = 0;
+        for (int slot = 0; slot < counts.capacity(); slot++) {
+            long id = counts.keyAt(slot);
+            if (id == 0) {
+                continue;
+            }
+            int count = counts.valueAt(slot);
+            int pos = filled;
+            while (pos > 0 && (best[pos - 1] < count || (best[pos - 1] == count && ids[pos - 1] > id))) {
+                pos--;
+            }
+            if (pos >= k) {
+                continue;
+            }
+            int last = Math.min(filled, k - 1);
+            System.arraycopy(ids, pos, ids, pos + 1, last - pos);
+            System.arraycopy(best, pos, best, pos + 1, last - pos);
+            ids[pos] = id;
+            best[pos] = count;
+            if (filled < k) {
+                filled++;
+            }
+        }
+        return ids;
+    }
+}
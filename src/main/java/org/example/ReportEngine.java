@@ -0,0 +1,188 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Produces revenue reports by furniture type, color, employee and customer city. The furniture table has no
+ * type column, so the furniture name (e.g. "Stol", "Soffa") serves as the type.
+ * <p>
+ * The order_line ⨝ furniture ⨝ order_head ⨝ customer join is read once as a streamed result set.
+ * Rows are buffered into fixed-size chunks and every full chunk is handed to a fork/join pool, where it is
+ * split recursively and aggregated into private {@link RevenueReport} accumulators that are merged on the
+ * way back up. Reading continues while earlier chunks are aggregated, so the job scales with the number of
+ * cores instead of the number of queries. Finished chunks are merged into the report while reading, and at
+ * most two chunks per worker are in flight, so memory stays bounded by the chunk size rather than the
+ * number of rows.
+ */
+public class ReportEngine {
+    private static final Logger logger = Logger.getLogger(ReportEngine.class.getName());
+    private static final int CHUNK_SIZE = 8192;
+    private static final int SPLIT_THRESHOLD = 1024;
+
+    private final ForkJoinPool pool;
+
+    public ReportEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ReportEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Builds the revenue report for one calendar month.
+     *
+     * @param month           The month to report.
+     * @param includeArchived true to also include archived orders.
+     */
+    public RevenueReport monthlyRevenue(YearMonth month, boolean includeArchived) {
+        return revenue(month.atDay(1), month.plusMonths(1).atDay(1), includeArchived);
+    }
+
+    /**
+     * Builds the revenue report for orders with {@code from <= order_date < toExclusive}.
+     *
+     * @throws RuntimeException if a database error occurs.
+     */
+    public RevenueReport revenue(LocalDate from, LocalDate toExclusive, boolean includeArchived) {
+        String sql = "SELECT f.name, f.color, f.price, ol.quantity, o.employee_id, c.city " +
+                "FROM " + OrderDao.headTable(includeArchived) + " o " +
+                "JOIN " + OrderDao.lineTable(includeArchived) + " ol ON ol.order_id = o.id " +
+                "JOIN furniture f ON ol.furniture_id = f.id " +
+                "JOIN customer c ON o.customer_id = c.id " +
+                "WHERE o.order_date >= ? AND o.order_date < ?";
+
+        long start = System.nanoTime();
+        int maxInFlight = 2 * pool.getParallelism();
+        Deque<ForkJoinTask<RevenueReport>> tasks = new ArrayDeque<>();
+        RevenueReport report = new RevenueReport();
+        int chunks = 0;
+        long rows = 0;
+        try (Connection conn = DBConnection.getReadConnection(Workload.REPORTING);
+             PreparedStatement stmt = DBConnection.prepareStreaming(conn, sql)) {
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(toExclusive));
+            try (ResultSet rs = stmt.executeQuery()) {
+                Chunk chunk = new Chunk();
+                while (rs.next()) {
+                    chunk.add(rs.getString(1), rs.getString(2), rs.getDouble(3), rs.getInt(4),
+                            rs.getLong(5), rs.getString(6));
+                    rows++;
+                    if (chunk.size == CHUNK_SIZE) {
+                        tasks.add(pool.submit(new ChunkTask(chunk, 0, chunk.size)));
+                        chunks++;
+                        chunk = new Chunk();
+                        // Merge finished chunks so they can be collected; wait for the oldest when too many are queued
+                        while (!tasks.isEmpty() && (tasks.peek().isDone() || tasks.size() > maxInFlight)) {
+                            report.merge(tasks.poll().join());
+                        }
+                    }
+                }
+                if (chunk.size > 0) {
+                    tasks.add(pool.submit(new ChunkTask(chunk, 0, chunk.size)));
+                    chunks++;
+                }
+            }
+        } catch (SQLException e) {
+            tasks.forEach(t -> t.cancel(true));
+            logger.log(Level.SEVERE, "Failed to read order history for revenue report", e);
+            throw new RuntimeException("Could not build revenue report: " + e.getMessage(), e);
+        }
+
+        for (ForkJoinTask<RevenueReport> task : tasks) {
+            report.merge(task.join());
+        }
+        logger.info(String.format("Revenue report %s..%s: %d order lines in %d chunks, %.1f ms on %d workers",
+                from, toExclusive, rows, chunks, (System.nanoTime() - start) / 1e6, pool.getParallelism()));
+        return report;
+    }
+
+    /**
+     * Builds the monthly report and writes it as CSV to {@code out}.
+     *
+     * @return The report that was written.
+     */
+    public RevenueReport writeMonthlyRevenueCsv(YearMonth month, boolean includeArchived, Path out) throws IOException {
+        RevenueReport report = monthlyRevenue(month, includeArchived);
+        try (Writer writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            report.writeCsv(writer);
+        }
+        return report;
+    }
+
+    /**
+     * A column-oriented buffer of joined rows read from the result set.
+     */
+    private static final class Chunk {
+        final String[] types = new String[CHUNK_SIZE];
+        final String[] colors = new String[CHUNK_SIZE];
+        final double[] prices = new double[CHUNK_SIZE];
+        final int[] quantities = new int[CHUNK_SIZE];
+        final long[] employees = new long[CHUNK_SIZE];
+        final String[] cities = new String[CHUNK_SIZE];
+        int size;
+
+        void add(String type, String color, double price, int quantity, long employeeId, String city) {
+            types[size] = type;
+            colors[size] = color;
+            prices[size] = price;
+            quantities[size] = quantity;
+            employees[size] = employeeId;
+            cities[size] = city;
+            size++;
+        }
+    }
+
+    /**
+     * Aggregates rows {@code [from, to)} of a chunk, splitting in halves until the range is small.
+     */
+    private static final class ChunkTask extends RecursiveTask<RevenueReport> {
+        private static final long serialVersionUID = 1L;
+
+        // Tasks are never serialized; the chunk is shared between the halves of one split
+        private final transient Chunk chunk;
+        private final int from;
+        private final int to;
+
+        ChunkTask(Chunk chunk, int from, int to) {
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected RevenueReport compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                RevenueReport report = new RevenueReport();
+                for (int i = from; i < to; i++) {
+                    report.add(chunk.types[i], chunk.colors[i], chunk.employees[i], chunk.cities[i],
+                            chunk.prices[i], chunk.quantities[i]);
+                }
+                return report;
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(chunk, from, mid);
+            left.fork();
+            RevenueReport right = new ChunkTask(chunk, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
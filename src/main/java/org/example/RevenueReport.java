@@ -0,0 +1,144 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Mergeable revenue totals by furniture type (the furniture name, as there is no type column), color, employee
+ * and customer city.
+ * <p>
+ * Each worker aggregates its own chunk of rows into a private instance; instances are then combined with
+ * {@link #merge(RevenueReport)}, so no locking is needed while aggregating.
+ */
+public final class RevenueReport {
+
+    /**
+     * The dimensions a report is grouped by.
+     */
+    public enum Dimension {
+        FURNITURE_TYPE, COLOR, EMPLOYEE, CUSTOMER_CITY
+    }
+
+    /**
+     * Running totals for one key in one dimension.
+     */
+    public static final class Totals {
+        private double revenue;
+        private long units;
+        private long lines;
+
+        public double revenue() {
+            return revenue;
+        }
+
+        public long units() {
+            return units;
+        }
+
+        public long lines() {
+            return lines;
+        }
+
+        void add(double lineRevenue, int quantity) {
+            revenue += lineRevenue;
+            units += quantity;
+            lines++;
+        }
+
+        void add(Totals other) {
+            revenue += other.revenue;
+            units += other.units;
+            lines += other.lines;
+        }
+    }
+
+    private final Map<String, Totals> byType = new HashMap<>();
+    private final Map<String, Totals> byColor = new HashMap<>();
+    private final Map<String, Totals> byEmployee = new HashMap<>();
+    private final Map<String, Totals> byCity = new HashMap<>();
+
+    /**
+     * Adds one order line to all dimensions.
+     */
+    void add(String furnitureType, String color, long employeeId, String city, double price, int quantity) {
+        double lineRevenue = price * quantity;
+        byType.computeIfAbsent(furnitureType, k -> new Totals()).add(lineRevenue, quantity);
+        byColor.computeIfAbsent(color, k -> new Totals()).add(lineRevenue, quantity);
+        byEmployee.computeIfAbsent(Long.toString(employeeId), k -> new Totals()).add(lineRevenue, quantity);
+        byCity.computeIfAbsent(city, k -> new Totals()).add(lineRevenue, quantity);
+    }
+
+    /**
+     * Adds all totals of {@code other} into this report and returns this report.
+     */
+    public RevenueReport merge(RevenueReport other) {
+        mergeInto(byType, other.byType);
+        mergeInto(byColor, other.byColor);
+        mergeInto(byEmployee, other.byEmployee);
+        mergeInto(byCity, other.byCity);
+        return this;
+    }
+
+    public Map<String, Totals> totals(Dimension dimension) {
+        return switch (dimension) {
+            case FURNITURE_TYPE -> byType;
+            case COLOR -> byColor;
+            case EMPLOYEE -> byEmployee;
+            case CUSTOMER_CITY -> byCity;
+        };
+    }
+
+    public double totalRevenue() {
+        double sum = 0;
+        for (Totals t : byType.values()) {
+            sum += t.revenue;
+        }
+        return sum;
+    }
+
+    /**
+     * Writes the report as CSV with the columns dimension, key, revenue, units and lines,
+     * each dimension sorted by descending revenue.
+     */
+    public void writeCsv(Writer out) throws IOException {
+        BufferedWriter writer = out instanceof BufferedWriter bw ? bw : new BufferedWriter(out);
+        writer.write("dimension,key,revenue,units,lines");
+        writer.newLine();
+        for (Dimension dimension : Dimension.values()) {
+            List<Map.Entry<String, Totals>> entries = new ArrayList<>(totals(dimension).entrySet());
+            entries.sort((a, b) -> Double.compare(b.getValue().revenue, a.getValue().revenue));
+            for (Map.Entry<String, Totals> e : entries) {
+                writer.write(dimension.name());
+                writer.write(',');
+                writer.write(csvField(e.getKey()));
+                writer.write(',');
+                writer.write(String.format(Locale.ROOT, "%.2f", e.getValue().revenue));
+                writer.write(',');
+                writer.write(Long.toString(e.getValue().units));
+                writer.write(',');
+                writer.write(Long.toString(e.getValue().lines));
+                writer.newLine();
+            }
+        }
+        writer.flush();
+    }
+
+    private static void mergeInto(Map<String, Totals> target, Map<String, Totals> source) {
+        for (Map.Entry<String, Totals> e : source.entrySet()) {
+            target.computeIfAbsent(e.getKey(), k -> new Totals()).add(e.getValue());
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,13 @@
+package org.example;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Receives the rows of a streamed query one at a time, without materialising them as records.
+ * The result set is positioned on the current row and must not be advanced or closed by the handler.
+ */
+@FunctionalInterface
+public interface RowHandler {
+    void handle(ResultSet row) throws SQLException;
+}
@@ -0,0 +1,179 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory index of which furniture stands on which shelf, with the item count and total weight per shelf.
+ * <p>
+ * The shared instance is loaded with one query and then kept current from {@link DataChangeBus} furniture
+ * events, which cover this client's own writes and, through {@link ChangeLogPoller}, those of other clients.
+ * Events that arrive while the load query runs are held back and applied after its rows, so a change committed
+ * during the load is never overwritten by the older row the query returned. Listeners added with
+ * {@link #addListener(Runnable)} are told when the index has loaded and after every change.
+ * <p>
+ * The index is used by the furniture tab to show shelf occupancy. The pick-list command reads shelves with
+ * the day's order lines instead ({@link OrderDao#listPicksForDate}), since it runs once and has no change feed.
+ */
+public final class ShelfIndex {
+    private static final Logger logger = Logger.getLogger(ShelfIndex.class.getName());
+
+    /**
+     * Occupancy of one shelf.
+     */
+    public record ShelfSummary(int shelf, int count, double totalWeight) {
+    }
+
+    private static final class Shelf {
+        final Map<Long, Furniture> items = new LinkedHashMap<>();
+        double totalWeight;
+    }
+
+    private static final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private static volatile ShelfIndex instance;
+    private static boolean loading;
+
+    private final Map<Long, Furniture> byId = new HashMap<>();
+    private final TreeMap<Integer, Shelf> shelves = new TreeMap<>();
+    // Events received while the load query runs; null once the index is loaded.
+    private List<ChangeEvent<Furniture>> pending = new ArrayList<>();
+
+    ShelfIndex() {
+    }
+
+    /**
+     * The shared index, or null if it has not been loaded yet.
+     */
+    public static ShelfIndex getIfLoaded() {
+        return instance;
+    }
+
+    /**
+     * Adds a listener that is run, on the loading or publishing thread, once the shared index has loaded and
+     * after each change applied to it.
+     */
+    public static void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Loads the shared index on a background thread unless it is already loaded or loading. A failed load
+     * (e.g. offline) is logged and can be retried by calling this method again.
+     */
+    public static synchronized void loadInBackground() {
+        if (instance != null || loading) {
+            return;
+        }
+        loading = true;
+        Thread thread = new Thread(() -> {
+            ShelfIndex index = new ShelfIndex();
+            Runnable unsubscribe = DataChangeBus.get().subscribe(Furniture.class, index::apply);
+            try {
+                index.load(new FurnitureDao().getAllFurniture());
+                instance = index;
+                logger.info("Shelf index loaded with " + index.summaries().size() + " shelves");
+                notifyListeners();
+            } catch (RuntimeException e) {
+                unsubscribe.run();
+                logger.log(Level.WARNING, "Could not load shelf index", e);
+            } finally {
+                synchronized (ShelfIndex.class) {
+                    loading = false;
+                }
+            }
+        }, "shelf-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Adds the loaded rows, then the events held back while they were read.
+     */
+    synchronized void load(List<Furniture> furniture) {
+        furniture.forEach(this::put);
+        pending.forEach(this::applyNow);
+        pending = null;
+    }
+
+    /**
+     * Applies a committed furniture change, or holds it back until the load has finished.
+     */
+    void apply(ChangeEvent<Furniture> event) {
+        synchronized (this) {
+            if (pending != null) {
+                pending.add(event);
+                return;
+            }
+            applyNow(event);
+        }
+        notifyListeners();
+    }
+
+    private static void notifyListeners() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    private void applyNow(ChangeEvent<Furniture> event) {
+        switch (event.type()) {
+            case ADD, UPDATE -> put(event.entity());
+            case DELETE -> remove(event.id());
+        }
+    }
+
+    /**
+     * The items on {@code shelf} in the order they were indexed, empty if the shelf is unused.
+     */
+    public synchronized List<Furniture> items(int shelf) {
+        Shelf s = shelves.get(shelf);
+        return s == null ? List.of() : List.copyOf(s.items.values());
+    }
+
+    /**
+     * The occupancy of {@code shelf}; an unused shelf has count 0.
+     */
+    public synchronized ShelfSummary summary(int shelf) {
+        Shelf s = shelves.get(shelf);
+        return s == null ? new ShelfSummary(shelf, 0, 0) : new ShelfSummary(shelf, s.items.size(), s.totalWeight);
+    }
+
+    /**
+     * The occupancy of every used shelf, ordered by shelf number.
+     */
+    public synchronized List<ShelfSummary> summaries() {
+        List<ShelfSummary> result = new ArrayList<>(shelves.size());
+        shelves.forEach((number, s) -> result.add(new ShelfSummary(number, s.items.size(), s.totalWeight)));
+        return result;
+    }
+
+    private void put(Furniture furniture) {
+        remove(furniture.id());
+        byId.put(furniture.id(), furniture);
+        Shelf shelf = shelves.computeIfAbsent(furniture.shelfNbr(), k -> new Shelf());
+        shelf.items.put(furniture.id(), furniture);
+        shelf.totalWeight += furniture.weight();
+    }
+
+    private void remove(long furnitureId) {
+        Furniture old = byId.remove(furnitureId);
+        if (old == null) {
+            return;
+        }
+        Shelf shelf = shelves.get(old.shelfNbr());
+        shelf.items.remove(furnitureId);
+        if (shelf.items.isEmpty()) {
+            // Dropping the empty shelf also resets any rounding drift in its running total
+            shelves.remove(old.shelfNbr());
+        } else {
+            shelf.totalWeight -= old.weight();
+        }
+    }
+}
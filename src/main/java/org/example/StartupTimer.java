@@ -0,0 +1,34 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Logs startup milestones as milliseconds since the JVM was launched.
+ * Each milestone is logged only the first time it is reached.
+ */
+final class StartupTimer {
+    private static final Logger logger = Logger.getLogger(StartupTimer.class.getName());
+    private static final Set<String> reached = ConcurrentHashMap.newKeySet();
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Milliseconds since the JVM process was started.
+     */
+    static long sinceLaunchMillis() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    /**
+     * Logs {@code milestone} with the time since launch, unless it has been logged before.
+     */
+    static void mark(String milestone) {
+        if (reached.add(milestone)) {
+            logger.info("Startup: " + milestone + " after " + sinceLaunchMillis() + " ms");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Load-time deduplication of repeated column values.
+ * <p>
+ * A result set hands out a new {@code String} for every cell, so loading thousands of customers or order
+ * lines keeps thousands of copies of the same city, color, furniture name or customer name. The DAO mappers
+ * pass low-cardinality columns through {@link #intern(String)} so equal values share one instance. Unlike
+ * {@link String#intern()} the pool is private to the application and bounded: once it holds
+ * {@code strings.poolMaxEntries} values, new values are returned as they are instead of being pooled.
+ * Free-text columns such as addresses and comments are rarely repeated and are not pooled.
+ */
+final class StringPool {
+    // Holder so that a standalone pool (as in EntityHeapBenchmark) does not load the database settings.
+    private static final class Holder {
+        static final StringPool INSTANCE = new StringPool(DBConnection.getIntProperty("strings.poolMaxEntries", 100_000));
+    }
+
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    StringPool(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    static StringPool get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the pooled instance equal to {@code value}, adding it if the pool has room.
+     *
+     * @return The shared instance, {@code value} itself if the pool is full, or null if {@code value} is null.
+     */
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = values.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (values.size() >= maxEntries) {
+            return value;
+        }
+        pooled = values.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    /**
+     * The number of distinct values in the pool.
+     */
+    int size() {
+        return values.size();
+    }
+}
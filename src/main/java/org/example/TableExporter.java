@@ -0,0 +1,154 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Exports whole tables to CSV or the compact binary format for the accountant.
+ * <p>
+ * Rows are streamed from the DAOs ({@link RowHandler}) and encoded column by column straight into the
+ * writer's reusable buffer, so no row objects or strings per row are built and multi-million-row exports
+ * run in constant heap.
+ */
+public final class TableExporter {
+    private static final Logger logger = Logger.getLogger(TableExporter.class.getName());
+
+    /**
+     * The tables that can be exported.
+     */
+    public enum Table {
+        FURNITURE, CUSTOMERS, ORDER_HISTORY;
+
+        public static Table parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    public enum Format {
+        CSV, BINARY;
+
+        public static Format parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final FurnitureDao furnitureDao = new FurnitureDao();
+    private final CustomerDao customerDao = new CustomerDao();
+    private final OrderDao orderDao = new OrderDao();
+
+    /**
+     * Exports {@code table} to {@code out}, replacing the file if it exists.
+     *
+     * @param includeArchived For {@link Table#ORDER_HISTORY}: also export archived orders.
+     * @return The number of exported rows.
+     * @throws IOException if the file cannot be written.
+     * @throws RuntimeException if a database error occurs.
+     */
+    public long export(Table table, Format format, Path out, boolean includeArchived) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             ExportWriter writer = format == Format.CSV ? new CsvExportWriter(channel) : new BinaryExportWriter(channel)) {
+            RowEncoder encoder = new RowEncoder(table.name().toLowerCase(Locale.ROOT), writer);
+            try {
+                switch (table) {
+                    case FURNITURE -> furnitureDao.streamFurniture(encoder);
+                    case CUSTOMERS -> customerDao.streamCustomers(encoder);
+                    case ORDER_HISTORY -> orderDao.streamOrderHistory(includeArchived, encoder);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (!encoder.started()) {
+                // Empty table: header without columns.
+                writer.begin(table.name().toLowerCase(Locale.ROOT), new String[0], new ExportWriter.ColumnType[0]);
+            }
+            writer.finish();
+            logger.info(String.format("Exported %d %s rows as %s to %s in %.0f ms",
+                    writer.rowCount(), table, format, out, (System.nanoTime() - start) / 1e6));
+            return writer.rowCount();
+        }
+    }
+
+    /**
+     * Encodes each streamed row with the column types taken from the result set metadata.
+     * Also used by {@link OfflineSnapshot} to write its sections.
+     */
+    static final class RowEncoder implements RowHandler {
+        private final String table;
+        private final ExportWriter writer;
+        private ExportWriter.ColumnType[] types;
+
+        RowEncoder(String table, ExportWriter writer) {
+            this.table = table;
+            this.writer = writer;
+        }
+
+        @Override
+        public void handle(ResultSet row) throws SQLException {
+            try {
+                beginIfNeeded(row.getMetaData());
+                for (int i = 0; i < types.length; i++) {
+                    int column = i + 1;
+                    switch (types[i]) {
+                        case LONG -> {
+                            long value = row.getLong(column);
+                            if (row.wasNull()) writer.writeNull(types[i]); else writer.writeLong(value);
+                        }
+                        case DOUBLE -> {
+                            double value = row.getDouble(column);
+                            if (row.wasNull()) writer.writeNull(types[i]); else writer.writeDouble(value);
+                        }
+                        case DATE -> {
+                            Date value = row.getDate(column);
+                            if (value == null) writer.writeNull(types[i]); else writer.writeDate(value.toLocalDate().toEpochDay());
+                        }
+                        case STRING -> {
+                            String value = row.getString(column);
+                            if (value == null) writer.writeNull(types[i]); else writer.writeString(value);
+                        }
+                    }
+                }
+                writer.endRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        boolean started() {
+            return types != null;
+        }
+
+        /**
+         * Writes the header with column names and types from the first row's metadata.
+         */
+        private void beginIfNeeded(ResultSetMetaData meta) throws SQLException, IOException {
+            if (types != null) {
+                return;
+            }
+            int count = meta.getColumnCount();
+            String[] names = new String[count];
+            types = new ExportWriter.ColumnType[count];
+            for (int i = 0; i < count; i++) {
+                names[i] = meta.getColumnLabel(i + 1);
+                types[i] = switch (meta.getColumnType(i + 1)) {
+                    case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> ExportWriter.ColumnType.LONG;
+                    case Types.DOUBLE, Types.FLOAT, Types.REAL, Types.DECIMAL, Types.NUMERIC -> ExportWriter.ColumnType.DOUBLE;
+                    case Types.DATE -> ExportWriter.ColumnType.DATE;
+                    default -> ExportWriter.ColumnType.STRING;
+                };
+            }
+            writer.begin(table, names, types);
+        }
+    }
+}
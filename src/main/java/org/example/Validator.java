@@ -0,0 +1,175 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Field rules for one entity type, declared once and used by both the DAOs and the controllers.
+ * <p>
+ * Rules are checked in declaration order and the first failing rule's message is reported. Rules and
+ * messages are built when the validator is declared, so checking a value allocates nothing; this makes
+ * {@link #firstInvalid(List)} cheap enough for imports of thousands of rows. Validation never touches the
+ * database: DAOs run it before their existence checks, so invalid input is rejected without a round-trip.
+ *
+ * @param <T> The validated entity type.
+ */
+final class Validator<T> {
+
+    static final Validator<Customer> CUSTOMER = Validator.<Customer>builder()
+            .notBlank(Customer::firstName, "Förnamn måste fyllas i.")
+            .notBlank(Customer::lastName, "Efternamn måste fyllas i.")
+            .notBlank(Customer::address, "Adress måste fyllas i.")
+            .notBlank(Customer::city, "Stad måste fyllas i.")
+            .matches(Customer::postalCode, FieldRule.POSTAL_CODE, "Postnummer måste vara 5 siffror.")
+            .pastOrToday(Customer::birthDate, "Födelsedatum måste anges och får inte vara i framtiden.")
+            .build();
+
+    static final Validator<Employee> EMPLOYEE = Validator.<Employee>builder()
+            .notBlank(Employee::firstName, "Förnamn måste fyllas i.")
+            .notBlank(Employee::lastName, "Efternamn måste fyllas i.")
+            .matches(Employee::email, FieldRule.EMAIL, "E-post måste vara en giltig adress.")
+            .matches(Employee::phone, FieldRule.PHONE, "Telefonnummer måste vara 10 siffror.")
+            .pastOrToday(Employee::hireDate, "Anställningsdatum måste anges och får inte vara i framtiden.")
+            .build();
+
+    static final Validator<Furniture> FURNITURE = Validator.<Furniture>builder()
+            .notBlank(Furniture::name, "Namn måste fyllas i.")
+            .notBlank(Furniture::color, "Färg måste fyllas i.")
+            .nonNegative(Furniture::price, "Pris får inte vara negativt.")
+            .nonNegative(Furniture::shelfNbr, "Hyllnummer får inte vara negativt.")
+            .nonNegative(Furniture::weight, "Vikt får inte vara negativ.")
+            .pastOrToday(Furniture::purchaseDate, "Inköpsdatum måste anges och får inte vara i framtiden.")
+            .build();
+
+    static final Validator<OrderHead> ORDER_HEAD = Validator.<OrderHead>builder()
+            .pastOrToday(OrderHead::orderDate, "Orderdatum måste anges och får inte vara i framtiden.")
+            .build();
+
+    /**
+     * One check; {@code today} is passed in so date rules do not read the clock per row.
+     */
+    private interface Check<T> {
+        boolean test(T value, LocalDate today);
+    }
+
+    private record Rule<T>(Check<T> check, String message) {
+    }
+
+    private final List<Rule<T>> rules;
+
+    private Validator(List<Rule<T>> rules) {
+        this.rules = rules;
+    }
+
+    static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Checks every rule for {@code value}.
+     *
+     * @throws IllegalArgumentException with the message of the first failing rule.
+     */
+    void validate(T value) {
+        String message = firstViolation(value, LocalDate.now());
+        if (message != null) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * The message of the first rule {@code value} fails, or null if it is valid.
+     */
+    String violation(T value) {
+        return firstViolation(value, LocalDate.now());
+    }
+
+    /**
+     * Checks all {@code values} in one pass without allocating per row.
+     *
+     * @return The index of the first invalid value, or -1 if all are valid. Use {@link #violation(Object)}
+     *         on that value for the message.
+     */
+    int firstInvalid(List<? extends T> values) {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < values.size(); i++) {
+            if (firstViolation(values.get(i), today) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks all {@code values} and names the first invalid one.
+     *
+     * @param label Prefix for the row number in the message, e.g. "Item" or "Line".
+     * @throws IllegalArgumentException as "label n: message" for the first invalid value (1-based).
+     */
+    void validateAll(List<? extends T> values, String label) {
+        int index = firstInvalid(values);
+        if (index >= 0) {
+            throw new IllegalArgumentException(label + " " + (index + 1) + ": " + violation(values.get(index)));
+        }
+    }
+
+    private String firstViolation(T value, LocalDate today) {
+        // Indexed loop: an iterator would be allocated per checked value
+        for (int i = 0; i < rules.size(); i++) {
+            Rule<T> rule = rules.get(i);
+            if (!rule.check().test(value, today)) {
+                return rule.message();
+            }
+        }
+        return null;
+    }
+
+    static final class Builder<T> {
+        private final List<Rule<T>> rules = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        Builder<T> rule(Predicate<T> check, String message) {
+            rules.add(new Rule<>((value, today) -> check.test(value), message));
+            return this;
+        }
+
+        Builder<T> notBlank(Function<T, String> field, String message) {
+            rules.add(new Rule<>((value, today) -> {
+                String text = field.apply(value);
+                return text != null && !text.isBlank();
+            }, message));
+            return this;
+        }
+
+        Builder<T> matches(Function<T, String> field, FieldRule format, String message) {
+            rules.add(new Rule<>((value, today) -> format.test(field.apply(value)), message));
+            return this;
+        }
+
+        Builder<T> nonNegative(ToDoubleFunction<T> field, String message) {
+            rules.add(new Rule<>((value, today) -> field.applyAsDouble(value) >= 0, message));
+            return this;
+        }
+
+        /**
+         * The date must be set and must not be after today.
+         */
+        Builder<T> pastOrToday(Function<T, LocalDate> field, String message) {
+            rules.add(new Rule<>((value, today) -> {
+                LocalDate date = field.apply(value);
+                return date != null && !date.isAfter(today);
+            }, message));
+            return this;
+        }
+
+        Validator<T> build() {
+            return new Validator<>(List.copyOf(rules));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.example;
+
+import java.util.Locale;
+
+/**
+ * Arbetsklass för en databasanslutning. Varje klass har en egen kvot av poolens anslutningar, en egen
+ * kö och en egen väntetid ({@code db.workload.<namn>.maxConnections} och {@code .timeoutMillis}), så långa
+ * rapporter och massoperationer inte kan ta alla anslutningar från kassans korta transaktioner.
+ */
+public enum Workload {
+    /**
+     * Korta frågor och transaktioner som en användare väntar på, t.ex. att skapa en order eller hämta en rad.
+     */
+    INTERACTIVE(Integer.MAX_VALUE),
+    /**
+     * Massoperationer som importer, exporter, arkivering och borttagning i omgångar.
+     */
+    BULK(2),
+    /**
+     * Hela tabeller, listningar över många rader och rapporter.
+     */
+    REPORTING(2);
+
+    private final int defaultMaxConnections;
+
+    Workload(int defaultMaxConnections) {
+        this.defaultMaxConnections = defaultMaxConnections;
+    }
+
+    /**
+     * Standardkvoten; begränsas alltid av poolens storlek.
+     */
+    int defaultMaxConnections() {
+        return defaultMaxConnections;
+    }
+
+    /**
+     * Namnet i inställningsnycklarna, t.ex. "reporting".
+     */
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -3,6 +3,9 @@
 -- Defines tables for employees, customers, furniture, orders, and order lines
 
 -- Drop tables if they exist to ensure a clean setup
+DROP TABLE IF EXISTS `change_log`;
+DROP TABLE IF EXISTS `order_line_archive`;
+DROP TABLE IF EXISTS `order_head_archive`;
 DROP TABLE IF EXISTS `order_line`;
 DROP TABLE IF EXISTS `order_head`;
 DROP TABLE IF EXISTS `furniture`;
@@ -52,6 +55,14 @@ CREATE TABLE `order_head` (
     `customer_id` BIGINT NOT NULL,
     `employee_id` BIGINT NOT NULL,
     PRIMARY KEY (`id`),
+    KEY `idx_order_head_date` (`order_date`),
+    -- Order search (OrderDao.searchOrders) pages on id: equality on customer/employee, then id order, so a page
+    -- is read in index order after the previous page's last id without sorting the customer's/employee's orders
+    KEY `idx_order_head_customer_id` (`customer_id`, `id`),
+    KEY `idx_order_head_employee_id` (`employee_id`, `id`),
+    -- Searches that also restrict the date range: equality on customer/employee, then date range
+    KEY `idx_order_head_customer_date` (`customer_id`, `order_date`),
+    KEY `idx_order_head_employee_date` (`employee_id`, `order_date`),
     FOREIGN KEY (`customer_id`) REFERENCES `customer`(`id`) ON DELETE CASCADE,
     FOREIGN KEY (`employee_id`) REFERENCES `employee`(`id`) ON DELETE RESTRICT
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -63,10 +74,53 @@ CREATE TABLE `order_line` (
     `furniture_id` BIGINT NOT NULL,
     `quantity` INT NOT NULL,
     PRIMARY KEY (`id`),
+    KEY `idx_order_line_order` (`order_id`, `furniture_id`, `quantity`),
+    KEY `idx_order_line_furniture` (`furniture_id`, `order_id`),
     FOREIGN KEY (`order_id`) REFERENCES `order_head`(`id`) ON DELETE CASCADE,
     FOREIGN KEY (`furniture_id`) REFERENCES `furniture`(`id`) ON DELETE RESTRICT
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Archive (cold) tables for orders moved out of order_head/order_line by OrderArchiver.
+-- Rows keep their original ids. The foreign keys mirror the hot tables, so an archived order can never
+-- point at a deleted customer, employee or furniture item; the DAO delete paths remove archived rows too.
+CREATE TABLE `order_head_archive` (
+    `id` BIGINT NOT NULL,
+    `order_date` DATE NOT NULL,
+    `customer_id` BIGINT NOT NULL,
+    `employee_id` BIGINT NOT NULL,
+    `archived_at` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`id`),
+    KEY `idx_order_head_archive_customer` (`customer_id`),
+    KEY `idx_order_head_archive_employee` (`employee_id`),
+    FOREIGN KEY (`customer_id`) REFERENCES `customer`(`id`) ON DELETE CASCADE,
+    FOREIGN KEY (`employee_id`) REFERENCES `employee`(`id`) ON DELETE RESTRICT
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE `order_line_archive` (
+    `id` BIGINT NOT NULL,
+    `order_id` BIGINT NOT NULL,
+    `furniture_id` BIGINT NOT NULL,
+    `quantity` INT NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `idx_order_line_archive_order` (`order_id`, `furniture_id`, `quantity`),
+    KEY `idx_order_line_archive_furniture` (`furniture_id`, `order_id`),
+    FOREIGN KEY (`order_id`) REFERENCES `order_head_archive`(`id`) ON DELETE CASCADE,
+    FOREIGN KEY (`furniture_id`) REFERENCES `furniture`(`id`) ON DELETE RESTRICT
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Outbox of committed changes, written in the same transaction as every DAO mutation.
+-- Each client polls for ids greater than the last one it has seen (ChangeLogPoller).
+CREATE TABLE `change_log` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `table_name` VARCHAR(64) NOT NULL,
+    `entity_id` BIGINT NOT NULL,
+    `change_type` VARCHAR(10) NOT NULL,
+    `origin` CHAR(36) NOT NULL,
+    `changed_at` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`id`),
+    KEY `idx_change_log_changed_at` (`changed_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 -- Insert sample data for employees
 INSERT INTO `employee` (`id`, `first_name`, `last_name`, `address`, `city`, `postal_code`) VALUES
 (1, 'Erik', 'Johansson', 'Vägen 123', 'Stockholm', '111 22'),
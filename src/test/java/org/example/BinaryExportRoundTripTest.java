@@ -0,0 +1,146 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryExportRoundTripTest {
+    private static final String[] COLUMNS = {"id", "price", "date", "name"};
+    private static final ExportWriter.ColumnType[] TYPES = {
+            ExportWriter.ColumnType.LONG, ExportWriter.ColumnType.DOUBLE,
+            ExportWriter.ColumnType.DATE, ExportWriter.ColumnType.STRING};
+
+    @TempDir
+    Path dir;
+
+    private ByteBuffer write(Path file, ExportBody body) throws IOException {
+        try (BinaryExportWriter writer = new BinaryExportWriter(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE))) {
+            body.writeTo(writer);
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(file));
+    }
+
+    private interface ExportBody {
+        void writeTo(BinaryExportWriter writer) throws IOException;
+    }
+
+    @Test
+    void valuesAndNullsRoundTrip() throws IOException {
+        long epochDay = LocalDate.of(2024, 2, 29).toEpochDay();
+        ByteBuffer buffer = write(dir.resolve("one.bin"), writer -> {
+            writer.begin("furniture", COLUMNS, TYPES);
+            writer.writeLong(1);
+            writer.writeDouble(1499.5);
+            writer.writeDate(epochDay);
+            writer.writeString("Fåtölj");
+            writer.endRow();
+            writer.writeLong(-300_000_000_000L);
+            writer.writeDouble(-0.25);
+            writer.writeDate(LocalDate.of(1901, 1, 1).toEpochDay());
+            writer.writeString("");
+            writer.endRow();
+            writer.writeNull(ExportWriter.ColumnType.LONG);
+            writer.writeNull(ExportWriter.ColumnType.DOUBLE);
+            writer.writeNull(ExportWriter.ColumnType.DATE);
+            writer.writeNull(ExportWriter.ColumnType.STRING);
+            writer.endRow();
+            writer.finish();
+        });
+
+        BinaryExportReader reader = new BinaryExportReader(buffer);
+        assertTrue(reader.nextSection());
+        assertEquals("furniture", reader.table());
+        assertArrayEquals(COLUMNS, reader.columns());
+
+        assertTrue(reader.nextRow());
+        assertEquals(1, reader.readLong());
+        assertEquals(1499.5, reader.readDouble());
+        assertEquals(epochDay, reader.readDate());
+        assertEquals("Fåtölj", reader.readString());
+
+        assertTrue(reader.nextRow());
+        assertEquals(-300_000_000_000L, reader.readLong());
+        assertEquals(-0.25, reader.readDouble());
+        assertEquals(LocalDate.of(1901, 1, 1).toEpochDay(), reader.readDate());
+        assertEquals("", reader.readString());
+
+        assertTrue(reader.nextRow());
+        assertEquals(Long.MIN_VALUE, reader.readLong());
+        assertTrue(Double.isNaN(reader.readDouble()));
+        assertEquals(Integer.MIN_VALUE, reader.readDate());
+        assertNull(reader.readString());
+
+        assertFalse(reader.nextRow());
+        assertFalse(reader.nextSection());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void emptySectionsFollowEachOther() throws IOException {
+        ByteBuffer buffer = write(dir.resolve("empty.bin"), writer -> {
+            writer.begin("customer", new String[0], new ExportWriter.ColumnType[0]);
+            writer.finish();
+            writer.begin("employee", new String[]{"id"}, new ExportWriter.ColumnType[]{ExportWriter.ColumnType.LONG});
+            writer.writeLong(5);
+            writer.endRow();
+            writer.finish();
+        });
+
+        BinaryExportReader reader = new BinaryExportReader(buffer);
+        assertTrue(reader.nextSection());
+        assertEquals("customer", reader.table());
+        assertEquals(0, reader.columns().length);
+        assertFalse(reader.nextRow());
+        assertTrue(reader.nextSection());
+        assertEquals("employee", reader.table());
+        assertTrue(reader.nextRow());
+        assertEquals(5, reader.readLong());
+        assertFalse(reader.nextRow());
+        assertFalse(reader.nextSection());
+    }
+
+    @Test
+    void rowsSpanningSeveralBufferFlushesRoundTrip() throws IOException {
+        int rows = 20_000;
+        String longName = "Skänk i ek med tre lådor och glasdörrar 🪑".repeat(3);
+        ByteBuffer buffer = write(dir.resolve("many.bin"), writer -> {
+            writer.begin("order_line", COLUMNS, TYPES);
+            for (int i = 1; i <= rows; i++) {
+                writer.writeLong(i * 1_000_003L);
+                writer.writeDouble(i / 4.0);
+                writer.writeDate(i);
+                writer.writeString(i % 7 == 0 ? longName : "rad " + i);
+                writer.endRow();
+            }
+            writer.finish();
+        });
+        assertTrue(buffer.capacity() > 4 * 64 * 1024);
+
+        BinaryExportReader reader = new BinaryExportReader(buffer);
+        assertTrue(reader.nextSection());
+        int read = 0;
+        while (reader.nextRow()) {
+            read++;
+            assertEquals(read * 1_000_003L, reader.readLong());
+            assertEquals(read / 4.0, reader.readDouble());
+            assertEquals(read, reader.readDate());
+            assertEquals(read % 7 == 0 ? longName : "rad " + read, reader.readString());
+        }
+        assertEquals(rows, read);
+        assertFalse(reader.nextSection());
+    }
+}
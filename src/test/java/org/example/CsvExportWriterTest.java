@@ -0,0 +1,113 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvExportWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private String write(ExportBody body) throws IOException {
+        Path file = dir.resolve("export.csv");
+        try (CsvExportWriter writer = new CsvExportWriter(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            body.writeTo(writer);
+            writer.finish();
+        }
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    private interface ExportBody {
+        void writeTo(CsvExportWriter writer) throws IOException;
+    }
+
+    private String doubles(double... values) throws IOException {
+        return write(writer -> {
+            for (double value : values) {
+                writer.writeDouble(value);
+            }
+            writer.endRow();
+        });
+    }
+
+    @Test
+    void writesHeaderAndRows() throws IOException {
+        String csv = write(writer -> {
+            writer.begin("furniture", new String[]{"id", "price", "date", "name", "comment"}, new ExportWriter.ColumnType[]{
+                    ExportWriter.ColumnType.LONG, ExportWriter.ColumnType.DOUBLE, ExportWriter.ColumnType.DATE,
+                    ExportWriter.ColumnType.STRING, ExportWriter.ColumnType.STRING});
+            writer.writeLong(7);
+            writer.writeDouble(1499.5);
+            writer.writeDate(LocalDate.of(2024, 2, 9).toEpochDay());
+            writer.writeString("Fåtölj");
+            writer.writeNull(ExportWriter.ColumnType.STRING);
+            writer.endRow();
+        });
+        assertEquals("id,price,date,name,comment\n7,1499.50,2024-02-09,Fåtölj,\n", csv);
+    }
+
+    @Test
+    void quotesOnlyWhenNeeded() throws IOException {
+        String csv = write(writer -> {
+            writer.writeString("Soffa, tresits");
+            writer.writeString("Modell \"Klippan\"");
+            writer.writeString("\"");
+            writer.writeString("två\nrader");
+            writer.writeString("vanlig text");
+            writer.writeString("");
+            writer.endRow();
+        });
+        assertEquals("\"Soffa, tresits\",\"Modell \"\"Klippan\"\"\",\"\"\"\",\"två\nrader\",vanlig text,\n", csv);
+    }
+
+    @Test
+    void decimalsWithAtMostTwoFractionDigitsGetExactlyTwo() throws IOException {
+        assertEquals("0.00,5.00,12.30,-0.25,-1499.99,9999999999.99\n",
+                doubles(0, 5, 12.3, -0.25, -1499.99, 9_999_999_999.99));
+    }
+
+    @Test
+    void otherDecimalsKeepFullPrecision() throws IOException {
+        assertEquals("0.125,0.30000000000000004,1.0E15,NaN,-Infinity\n",
+                doubles(0.125, 0.1 + 0.2, 1e15, Double.NaN, Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    void writesLongAndDateExtremes() throws IOException {
+        String csv = write(writer -> {
+            writer.writeLong(0);
+            writer.writeLong(-42);
+            writer.writeLong(Long.MAX_VALUE);
+            writer.writeLong(Long.MIN_VALUE);
+            writer.writeDate(LocalDate.of(999, 1, 5).toEpochDay());
+            writer.endRow();
+        });
+        assertEquals("0,-42,9223372036854775807,-9223372036854775808,0999-01-05\n", csv);
+    }
+
+    @Test
+    void rowsSpanningSeveralBufferFlushes() throws IOException {
+        int rows = 20_000;
+        String csv = write(writer -> {
+            for (int i = 0; i < rows; i++) {
+                writer.writeLong(i);
+                writer.writeString("rad, " + i);
+                writer.endRow();
+            }
+        });
+        String[] lines = csv.split("\n");
+        assertEquals(rows, lines.length);
+        assertEquals("19999,\"rad, 19999\"", lines[rows - 1]);
+    }
+}
@@ -0,0 +1,99 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomerMatcherTest {
+
+    @Test
+    void normalizeStripsDiacriticsAndPunctuation() {
+        assertEquals("angstrom", CustomerMatcher.normalize("Ångström"));
+        assertEquals("anna lena bjork", CustomerMatcher.normalize("  Anna-Lena   Björk. "));
+        assertEquals("storgatan 12b", CustomerMatcher.normalize("Storgatan 12B"));
+        assertEquals("", CustomerMatcher.normalize(null));
+    }
+
+    @Test
+    void postalCodeKeepsDigitsOnly() {
+        assertEquals("12345", CustomerMatcher.normalizePostalCode("123 45"));
+        assertEquals("12345", CustomerMatcher.normalizePostalCode("SE-123 45"));
+        assertEquals("", CustomerMatcher.normalizePostalCode(null));
+    }
+
+    @Test
+    void spellingVariantsAreWrittenAlike() {
+        assertEquals("karlson", CustomerMatcher.spelling("Carlsson"));
+        assertEquals("karlson", CustomerMatcher.spelling("Karlson"));
+        assertEquals("filip", CustomerMatcher.spelling("Philip"));
+        assertEquals("erikson", CustomerMatcher.spelling("Ericsson"));
+        assertEquals("erikson", CustomerMatcher.spelling("Eriksson"));
+        assertEquals("sesilia", CustomerMatcher.spelling("Cecilia"));
+        assertEquals("aksel", CustomerMatcher.spelling("Axel"));
+        assertEquals("valin", CustomerMatcher.spelling("Wallin"));
+    }
+
+    @Test
+    void phoneticKeyIsLetterAndThreeDigits() {
+        String key = CustomerMatcher.phonetic("Lindqvist");
+        assertTrue(key.matches("[A-Z][0-9]{3}"), key);
+        assertEquals("", CustomerMatcher.phonetic(""));
+        assertEquals("", CustomerMatcher.phonetic("--"));
+    }
+
+    @Test
+    void phoneticKeyMatchesSwedishVariants() {
+        assertEquals(CustomerMatcher.phonetic("Carlsson"), CustomerMatcher.phonetic("Karlsson"));
+        assertEquals(CustomerMatcher.phonetic("Eriksson"), CustomerMatcher.phonetic("Ericsson"));
+        assertEquals(CustomerMatcher.phonetic("Lindqvist"), CustomerMatcher.phonetic("Lindkvist"));
+        assertEquals(CustomerMatcher.phonetic("Wikström"), CustomerMatcher.phonetic("Vikström"));
+        assertNotEquals(CustomerMatcher.phonetic("Karlsson"), CustomerMatcher.phonetic("Persson"));
+    }
+
+    @Test
+    void similarityIsJaccardOfTrigrams() {
+        int[] a = CustomerMatcher.trigrams("Storgatan 1");
+        assertEquals(1.0, CustomerMatcher.similarity(a, a));
+        assertEquals(1.0, CustomerMatcher.similarity(a, CustomerMatcher.trigrams("storgatan  1.")));
+        assertEquals(0.0, CustomerMatcher.similarity(CustomerMatcher.trigrams("abc"), CustomerMatcher.trigrams("xyz")));
+        assertEquals(0.0, CustomerMatcher.similarity(new int[0], new int[0]));
+
+        // " ab", "abc", "bc " mot " ab", "abd", "bd ": 1 delat av 5
+        assertEquals(0.2, CustomerMatcher.similarity(CustomerMatcher.trigrams("abc"), CustomerMatcher.trigrams("abd")), 1e-9);
+    }
+
+    @Test
+    void trigramsAreSortedAndDistinct() {
+        int[] grams = CustomerMatcher.trigrams("aaaaaa");
+        int[] sorted = grams.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, grams);
+        // " aa", "aaa", "aa "
+        assertEquals(3, grams.length);
+    }
+
+    @Test
+    void scoreWeighsNameBirthDatePostalCodeAndAddress() {
+        Customer anna = new Customer(1, "Anna", "Karlsson", "Storgatan 1", LocalDate.of(1980, 5, 17), "Umeå", "903 25");
+        CustomerMatcher.Profile profile = CustomerMatcher.Profile.of(anna);
+        assertEquals(1.0, CustomerMatcher.score(profile, profile), 1e-9);
+
+        Customer variant = new Customer(2, "Ana", "Carlson", "Storgatan 1 A", LocalDate.of(1980, 5, 17), "Umeå", "90325");
+        double score = CustomerMatcher.score(profile, CustomerMatcher.Profile.of(variant));
+        assertTrue(score > 0.85 && score < 1.0, "score " + score);
+
+        Customer other = new Customer(3, "Per", "Olsson", "Kungsgatan 9", LocalDate.of(1975, 1, 2), "Luleå", "971 86");
+        assertTrue(CustomerMatcher.score(profile, CustomerMatcher.Profile.of(other)) < 0.2);
+
+        Customer sameNameOnly = new Customer(4, "Anna", "Karlsson", "Kungsgatan 9", LocalDate.of(1975, 1, 2), "Luleå", "971 86");
+        double nameOnly = CustomerMatcher.score(profile, CustomerMatcher.Profile.of(sameNameOnly));
+        assertTrue(nameOnly >= CustomerMatcher.NAME_WEIGHT
+                && nameOnly < CustomerMatcher.NAME_WEIGHT + CustomerMatcher.ADDRESS_WEIGHT, "score " + nameOnly);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FurnitureCsvTest {
+
+    private static List<Furniture> parse(String csv) throws IOException {
+        return FurnitureCsv.parse(new StringReader(csv));
+    }
+
+    private static String parseError(String csv) {
+        return assertThrows(IllegalArgumentException.class, () -> parse(csv)).getMessage();
+    }
+
+    @Test
+    void parsesRows() throws IOException {
+        List<Furniture> items = parse(FurnitureCsv.HEADER + "\n"
+                + "Stol,Röd,,499.5,2024-05-31,3,4.25\n"
+                + " Bord , Ek , Utdragbart , 2500 , 2023-01-02 , 0 , 30\n");
+        assertEquals(List.of(
+                new Furniture(0, "Stol", "Röd", "", 499.5, LocalDate.of(2024, 5, 31), 3, 4.25),
+                new Furniture(0, "Bord", "Ek", "Utdragbart", 2500, LocalDate.of(2023, 1, 2), 0, 30)), items);
+    }
+
+    @Test
+    void headerIsCaseAndSpaceInsensitive() throws IOException {
+        assertEquals(List.of(), parse("Name, Color, Comment, Price, Purchase_Date, Shelf_Nbr, Weight\n"));
+    }
+
+    @Test
+    void quotedFieldsMayContainCommasAndQuotes() throws IOException {
+        List<Furniture> items = parse(FurnitureCsv.HEADER + "\n"
+                + "\"Soffa, tresits\",Grå,\"Modell \"\"Klippan\"\"\",3995,2024-02-29,12,45\n");
+        assertEquals("Soffa, tresits", items.get(0).name());
+        assertEquals("Modell \"Klippan\"", items.get(0).comment());
+    }
+
+    @Test
+    void blankLinesAreSkipped() throws IOException {
+        List<Furniture> items = parse(FurnitureCsv.HEADER + "\n\n"
+                + "Stol,Röd,,100,2024-01-01,1,2\n   \n"
+                + "Pall,Vit,,50,2024-01-01,1,1\n");
+        assertEquals(List.of("Stol", "Pall"), items.stream().map(Furniture::name).toList());
+    }
+
+    @Test
+    void rejectsMissingOrWrongHeader() {
+        assertEquals("Line 1: expected header " + FurnitureCsv.HEADER, parseError(""));
+        assertEquals("Line 1: expected header " + FurnitureCsv.HEADER,
+                parseError("name,color,price\nStol,Röd,100\n"));
+    }
+
+    @Test
+    void errorsNameTheLineCountingBlankLines() {
+        assertEquals("Line 4: expected 7 fields, got 6",
+                parseError(FurnitureCsv.HEADER + "\nStol,Röd,,100,2024-01-01,1,2\n\nPall,Vit,,50,2024-01-01,1\n"));
+        assertTrue(parseError(FurnitureCsv.HEADER + "\nStol,Röd,,billig,2024-01-01,1,2\n").startsWith("Line 2: "));
+        assertTrue(parseError(FurnitureCsv.HEADER + "\nStol,Röd,,100,31/05/2024,1,2\n").startsWith("Line 2: "));
+    }
+
+    @Test
+    void valuesTheRecordRejectsAreReportedWithTheLine() {
+        assertEquals("Line 2: Price cannot be negative",
+                parseError(FurnitureCsv.HEADER + "\nStol,Röd,,-1,2024-01-01,1,2\n"));
+    }
+}
@@ -0,0 +1,85 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongIntMapTest {
+
+    @Test
+    void missingKeyReadsAsZero() {
+        LongIntMap map = new LongIntMap(4);
+        assertEquals(0, map.get(42));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void putOverwritesValue() {
+        LongIntMap map = new LongIntMap(4);
+        map.put(7, 3);
+        map.put(7, 5);
+        assertEquals(5, map.get(7));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void addStartsFromZeroAndReturnsNewValue() {
+        LongIntMap map = new LongIntMap(4);
+        assertEquals(2, map.add(9, 2));
+        assertEquals(5, map.add(9, 3));
+        assertEquals(4, map.add(9, -1));
+        assertEquals(4, map.get(9));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void growKeepsAllEntries() {
+        LongIntMap map = new LongIntMap(2);
+        int initialCapacity = map.capacity();
+        for (long key = 1; key <= 1_000; key++) {
+            map.put(key * 1_000_003L, (int) key);
+        }
+        assertTrue(map.capacity() > initialCapacity);
+        assertEquals(1_000, map.size());
+        for (long key = 1; key <= 1_000; key++) {
+            assertEquals((int) key, map.get(key * 1_000_003L));
+        }
+    }
+
+    @Test
+    void iterationVisitsEveryEntryOnce() {
+        LongIntMap map = new LongIntMap(8);
+        for (long key = 1; key <= 100; key++) {
+            map.add(key, (int) key);
+        }
+        int entries = 0;
+        long sum = 0;
+        for (int slot = 0; slot < map.capacity(); slot++) {
+            if (map.keyAt(slot) != 0) {
+                entries++;
+                sum += map.valueAt(slot);
+                assertEquals(map.get(map.keyAt(slot)), map.valueAt(slot));
+            }
+        }
+        assertEquals(100, entries);
+        assertEquals(5_050, sum);
+    }
+
+    @Test
+    void keyZeroIsRejected() {
+        LongIntMap map = new LongIntMap(4);
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> map.add(0, 1));
+    }
+
+    @Test
+    void negativeKeysAreStored() {
+        LongIntMap map = new LongIntMap(4);
+        map.put(-1, 10);
+        map.put(Long.MIN_VALUE, 20);
+        assertEquals(10, map.get(-1));
+        assertEquals(20, map.get(Long.MIN_VALUE));
+    }
+}
@@ -0,0 +1,84 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderSearchCriteriaTest {
+
+    @Test
+    void blankTextMatchesAll() {
+        assertEquals(OrderSearchCriteria.all(), OrderSearchCriteria.parse(null));
+        assertEquals(OrderSearchCriteria.all(), OrderSearchCriteria.parse(""));
+        assertEquals(OrderSearchCriteria.all(), OrderSearchCriteria.parse("   "));
+    }
+
+    @Test
+    void bareNumberIsCustomerId() {
+        assertEquals(OrderSearchCriteria.all().withCustomer(42), OrderSearchCriteria.parse("42"));
+        assertEquals(OrderSearchCriteria.all().withCustomer(42), OrderSearchCriteria.parse("kund:42"));
+    }
+
+    @Test
+    void parsesAllKeys() {
+        OrderSearchCriteria expected = OrderSearchCriteria.all()
+                .withCustomer(3)
+                .withEmployee(7)
+                .withFurniture(11)
+                .withDates(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31))
+                .withTotal(500.0, 2500.5)
+                .withArchived(true);
+        assertEquals(expected, OrderSearchCriteria.parse(
+                "kund:3 anställd:7 möbel:11 från:2024-01-01 till:2024-12-31 min:500 max:2500.5 arkiv"));
+    }
+
+    @Test
+    void keysAreCaseInsensitiveAndSpacingIsFree() {
+        assertEquals(OrderSearchCriteria.all().withEmployee(5).withArchived(true),
+                OrderSearchCriteria.parse("  ANSTÄLLD:5 \t Arkiv "));
+    }
+
+    @Test
+    void laterTokenOverridesEarlier() {
+        assertEquals(OrderSearchCriteria.all().withCustomer(2), OrderSearchCriteria.parse("kund:1 2"));
+    }
+
+    @Test
+    void onlyOneDateBound() {
+        OrderSearchCriteria criteria = OrderSearchCriteria.parse("till:2024-06-30");
+        assertEquals(null, criteria.fromDate());
+        assertEquals(LocalDate.of(2024, 6, 30), criteria.toDate());
+    }
+
+    @Test
+    void lineConditionsNeedLines() {
+        assertFalse(OrderSearchCriteria.parse("kund:1 från:2024-01-01").needsLines());
+        assertTrue(OrderSearchCriteria.parse("min:100").needsLines());
+        assertTrue(OrderSearchCriteria.parse("möbel:4").needsLines());
+    }
+
+    @Test
+    void rejectsUnknownKey() {
+        assertThrows(IllegalArgumentException.class, () -> OrderSearchCriteria.parse("stad:Umeå"));
+    }
+
+    @Test
+    void rejectsBadValues() {
+        assertThrows(IllegalArgumentException.class, () -> OrderSearchCriteria.parse("kund:abc"));
+        assertThrows(IllegalArgumentException.class, () -> OrderSearchCriteria.parse("arkivet"));
+        assertThrows(IllegalArgumentException.class, () -> OrderSearchCriteria.parse("från:2024-13-01"));
+        assertThrows(IllegalArgumentException.class, () -> OrderSearchCriteria.parse("min:mycket"));
+    }
+
+    @Test
+    void rejectsReversedRanges() {
+        assertThrows(IllegalArgumentException.class,
+                () -> OrderSearchCriteria.parse("från:2024-02-01 till:2024-01-01"));
+        assertThrows(IllegalArgumentException.class, () -> OrderSearchCriteria.parse("min:500 max:100"));
+    }
+}
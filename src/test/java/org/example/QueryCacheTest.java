@@ -0,0 +1,127 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueryCacheTest {
+    private static final Set<String> CUSTOMER = Set.of("customer");
+    private static final Set<String> ORDERS = Set.of("order_head", "order_line");
+
+    private static final class CountingLoader implements Supplier<List<String>> {
+        final AtomicInteger calls = new AtomicInteger();
+        private final String row;
+
+        CountingLoader(String row) {
+            this.row = row;
+        }
+
+        @Override
+        public List<String> get() {
+            calls.incrementAndGet();
+            return List.of(row);
+        }
+    }
+
+    @Test
+    void repeatedQueryIsLoadedOnce() {
+        QueryCache cache = new QueryCache(10);
+        CountingLoader loader = new CountingLoader("a");
+        assertEquals(List.of("a"), cache.get("q", List.of(1), CUSTOMER, loader));
+        assertEquals(List.of("a"), cache.get("q", List.of(1), CUSTOMER, loader));
+        assertEquals(1, loader.calls.get());
+
+        // Other parameters are a different entry
+        cache.get("q", List.of(2), CUSTOMER, loader);
+        assertEquals(2, loader.calls.get());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        QueryCache cache = new QueryCache(2);
+        CountingLoader a = new CountingLoader("a");
+        CountingLoader b = new CountingLoader("b");
+        CountingLoader c = new CountingLoader("c");
+        cache.get("a", List.of(), CUSTOMER, a);
+        cache.get("b", List.of(), CUSTOMER, b);
+        // Touching a makes b the eldest, so adding c evicts b
+        cache.get("a", List.of(), CUSTOMER, a);
+        cache.get("c", List.of(), CUSTOMER, c);
+
+        cache.get("a", List.of(), CUSTOMER, a);
+        cache.get("c", List.of(), CUSTOMER, c);
+        assertEquals(1, a.calls.get());
+        assertEquals(1, c.calls.get());
+        cache.get("b", List.of(), CUSTOMER, b);
+        assertEquals(2, b.calls.get());
+    }
+
+    @Test
+    void invalidateDropsOnlyEntriesReadingTheTable() {
+        QueryCache cache = new QueryCache(10);
+        CountingLoader customers = new CountingLoader("c");
+        CountingLoader orders = new CountingLoader("o");
+        cache.get("customers", List.of(), CUSTOMER, customers);
+        cache.get("orders", List.of(), ORDERS, orders);
+
+        cache.invalidate("order_line", ChangeType.UPDATE);
+        cache.get("customers", List.of(), CUSTOMER, customers);
+        cache.get("orders", List.of(), ORDERS, orders);
+        assertEquals(1, customers.calls.get());
+        assertEquals(2, orders.calls.get());
+    }
+
+    @Test
+    void deletingACustomerAlsoDropsOrderEntries() {
+        QueryCache cache = new QueryCache(10);
+        CountingLoader orders = new CountingLoader("o");
+        cache.get("orders", List.of(), ORDERS, orders);
+
+        cache.invalidate("customer", ChangeType.UPDATE);
+        cache.get("orders", List.of(), ORDERS, orders);
+        assertEquals(1, orders.calls.get());
+
+        cache.invalidate("customer", ChangeType.DELETE);
+        cache.get("orders", List.of(), ORDERS, orders);
+        assertEquals(2, orders.calls.get());
+    }
+
+    @Test
+    void resultIsNotStoredIfATableChangesWhileLoading() {
+        QueryCache cache = new QueryCache(10);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<List<String>> racingLoader = () -> {
+            // A write commits after the query has read its rows
+            if (calls.incrementAndGet() == 1) {
+                cache.invalidate("customer", ChangeType.UPDATE);
+                return List.of("old");
+            }
+            return List.of("new");
+        };
+        assertEquals(List.of("old"), cache.get("q", List.of(), CUSTOMER, racingLoader));
+        assertEquals(List.of("new"), cache.get("q", List.of(), CUSTOMER, racingLoader));
+        assertEquals(List.of("new"), cache.get("q", List.of(), CUSTOMER, racingLoader));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void loaderFailureIsNotCached() {
+        QueryCache cache = new QueryCache(10);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<List<String>> loader = () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new RuntimeException("Kunde inte läsa");
+            }
+            return List.of("a");
+        };
+        assertThrows(RuntimeException.class, () -> cache.get("q", List.of(), CUSTOMER, loader));
+        assertEquals(List.of("a"), cache.get("q", List.of(), CUSTOMER, loader));
+        assertEquals(2, calls.get());
+    }
+}
@@ -0,0 +1,63 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class RecommendationIndexTest {
+
+    private static LongIntMap counts(long... idCountPairs) {
+        LongIntMap map = new LongIntMap(idCountPairs.length / 2);
+        for (int i = 0; i < idCountPairs.length; i += 2) {
+            map.put(idCountPairs[i], (int) idCountPairs[i + 1]);
+        }
+        return map;
+    }
+
+    @Test
+    void highestCountsFirst() {
+        LongIntMap counts = counts(1, 2, 2, 9, 3, 4, 4, 7, 5, 1);
+        assertArrayEquals(new long[]{2, 4, 3}, RecommendationIndex.topOf(counts, 3));
+    }
+
+    @Test
+    void tiesGoToLowerId() {
+        LongIntMap counts = counts(50, 3, 10, 3, 30, 3, 20, 5, 40, 3);
+        assertArrayEquals(new long[]{20, 10, 30}, RecommendationIndex.topOf(counts, 3));
+    }
+
+    @Test
+    void tieAtTheCutIsDecidedById() {
+        LongIntMap counts = counts(8, 4, 6, 2, 7, 2, 5, 2);
+        assertArrayEquals(new long[]{8, 5}, RecommendationIndex.topOf(counts, 2));
+    }
+
+    @Test
+    void fewerKeysThanK() {
+        LongIntMap counts = counts(3, 1, 1, 1);
+        assertArrayEquals(new long[]{1, 3}, RecommendationIndex.topOf(counts, 5));
+    }
+
+    @Test
+    void emptyCounts() {
+        assertArrayEquals(new long[0], RecommendationIndex.topOf(new LongIntMap(4), 5));
+    }
+
+    @Test
+    void matchesFullSortOnLargerInput() {
+        LongIntMap counts = new LongIntMap(1_000);
+        for (long id = 1; id <= 1_000; id++) {
+            counts.put(id, (int) (id * 7919 % 50));
+        }
+        long[] expected = LongStream.rangeClosed(1, 1_000).boxed()
+                .sorted((a, b) -> counts.get(a) != counts.get(b)
+                        ? Integer.compare(counts.get(b), counts.get(a))
+                        : Long.compare(a, b))
+                .limit(10)
+                .mapToLong(Long::longValue)
+                .toArray();
+        assertArrayEquals(expected, RecommendationIndex.topOf(counts, 10));
+    }
+}
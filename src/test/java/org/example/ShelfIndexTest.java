@@ -0,0 +1,63 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShelfIndexTest {
+
+    private static Furniture furniture(long id, int shelf, double weight) {
+        return new Furniture(id, "Möbel " + id, null, null, 100, LocalDate.of(2024, 1, 1), shelf, weight);
+    }
+
+    private static ShelfIndex loaded(Furniture... furniture) {
+        ShelfIndex index = new ShelfIndex();
+        index.load(List.of(furniture));
+        return index;
+    }
+
+    @Test
+    void summarisesEachShelf() {
+        ShelfIndex index = loaded(furniture(1, 3, 10), furniture(2, 3, 5.5), furniture(3, 1, 2));
+        assertEquals(List.of(new ShelfIndex.ShelfSummary(1, 1, 2), new ShelfIndex.ShelfSummary(3, 2, 15.5)),
+                index.summaries());
+        assertEquals(new ShelfIndex.ShelfSummary(7, 0, 0), index.summary(7));
+        assertEquals(List.of(1L, 2L), index.items(3).stream().map(Furniture::id).toList());
+    }
+
+    @Test
+    void addUpdateAndDeleteAreAppliedIncrementally() {
+        ShelfIndex index = loaded(furniture(1, 3, 10), furniture(2, 3, 5));
+
+        index.apply(ChangeEvent.added(Furniture.class, 3, furniture(3, 4, 8)));
+        assertEquals(new ShelfIndex.ShelfSummary(4, 1, 8), index.summary(4));
+
+        // Moving an item takes it off its old shelf
+        index.apply(ChangeEvent.updated(Furniture.class, 2, furniture(2, 4, 6)));
+        assertEquals(new ShelfIndex.ShelfSummary(3, 1, 10), index.summary(3));
+        assertEquals(new ShelfIndex.ShelfSummary(4, 2, 14), index.summary(4));
+
+        index.apply(ChangeEvent.deleted(Furniture.class, 1));
+        assertEquals(new ShelfIndex.ShelfSummary(3, 0, 0), index.summary(3));
+        assertEquals(1, index.summaries().size());
+
+        // Unknown ids are ignored
+        index.apply(ChangeEvent.deleted(Furniture.class, 99));
+        assertEquals(1, index.summaries().size());
+    }
+
+    @Test
+    void eventsDuringLoadAreAppliedAfterTheLoadedRows() {
+        ShelfIndex index = new ShelfIndex();
+        index.apply(ChangeEvent.updated(Furniture.class, 1, furniture(1, 5, 12)));
+        index.apply(ChangeEvent.deleted(Furniture.class, 2));
+        assertEquals(List.of(), index.summaries());
+
+        // The load query read both rows before the events were committed
+        index.load(List.of(furniture(1, 3, 10), furniture(2, 3, 5)));
+        assertEquals(List.of(new ShelfIndex.ShelfSummary(5, 1, 12)), index.summaries());
+    }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ValidatorTest {
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private static Furniture furniture(String name, String color, LocalDate purchased) {
+        return new Furniture(0, name, color, "", 100, purchased, 3, 12.5);
+    }
+
+    private static Employee employee(String email, String phone, LocalDate hired) {
+        return new Employee(0, "Eva", "Ek", email, phone, hired);
+    }
+
+    @Test
+    void validValuesHaveNoViolation() {
+        assertNull(Validator.FURNITURE.violation(furniture("Stol", "Röd", TODAY)));
+        assertNull(Validator.EMPLOYEE.violation(employee("eva@example.se", "0701234567", TODAY.minusYears(2))));
+        assertNull(Validator.ORDER_HEAD.violation(new OrderHead(0, TODAY, 1, 1)));
+        assertDoesNotThrow(() -> Validator.CUSTOMER.validate(
+                new Customer(0, "Anna", "Berg", "Storgatan 1", LocalDate.of(1980, 5, 17), "Umeå", "90325")));
+    }
+
+    @Test
+    void futureDatesAreRejectedWithTheFormMessages() {
+        LocalDate tomorrow = TODAY.plusDays(1);
+        assertEquals("Inköpsdatum måste anges och får inte vara i framtiden.",
+                Validator.FURNITURE.violation(furniture("Stol", "Röd", tomorrow)));
+        assertEquals("Anställningsdatum måste anges och får inte vara i framtiden.",
+                Validator.EMPLOYEE.violation(employee("eva@example.se", "0701234567", tomorrow)));
+        assertEquals("Orderdatum måste anges och får inte vara i framtiden.",
+                Validator.ORDER_HEAD.violation(new OrderHead(0, tomorrow, 1, 1)));
+    }
+
+    @Test
+    void firstFailingRuleIsReported() {
+        // Both the color and the date are invalid; color is declared first
+        assertEquals("Färg måste fyllas i.", Validator.FURNITURE.violation(furniture("Stol", " ", TODAY.plusDays(1))));
+        assertEquals("E-post måste vara en giltig adress.",
+                Validator.EMPLOYEE.violation(employee("eva", "123", TODAY)));
+        assertEquals("Telefonnummer måste vara 10 siffror.",
+                Validator.EMPLOYEE.violation(employee("eva@example.se", "123", TODAY)));
+    }
+
+    @Test
+    void validateThrowsTheViolation() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Validator.FURNITURE.validate(furniture("Stol", null, TODAY)));
+        assertEquals("Färg måste fyllas i.", e.getMessage());
+    }
+
+    @Test
+    void firstInvalidFindsTheFirstBadValue() {
+        List<Furniture> items = List.of(
+                furniture("Stol", "Röd", TODAY),
+                furniture("Bord", "Ek", TODAY),
+                furniture("Soffa", "", TODAY),
+                furniture("Lampa", "", TODAY));
+        assertEquals(2, Validator.FURNITURE.firstInvalid(items));
+        assertEquals(-1, Validator.FURNITURE.firstInvalid(items.subList(0, 2)));
+        assertEquals(-1, Validator.FURNITURE.firstInvalid(List.of()));
+    }
+
+    @Test
+    void validateAllNamesTheRowOneBased() {
+        List<Furniture> items = List.of(furniture("Stol", "Röd", TODAY), furniture("Bord", "", TODAY));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Validator.FURNITURE.validateAll(items, "Item"));
+        assertEquals("Item 2: Färg måste fyllas i.", e.getMessage());
+    }
+
+    @Test
+    void builderRulesRunInDeclarationOrder() {
+        Validator<String> validator = Validator.<String>builder()
+                .notBlank(s -> s, "tom")
+                .rule(s -> s.length() <= 3, "för lång")
+                .matches(s -> s, FieldRule.DIGITS, "inte siffror")
+                .build();
+        assertEquals("tom", validator.violation(" "));
+        assertEquals("för lång", validator.violation("abcd"));
+        assertEquals("inte siffror", validator.violation("ab"));
+        assertNull(validator.violation("123"));
+    }
+}